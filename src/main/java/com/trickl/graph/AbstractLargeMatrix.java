@@ -0,0 +1,155 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import cern.colt.matrix.impl.SparseDoubleMatrix1D;
+import cern.colt.matrix.impl.SparseDoubleMatrix2D;
+
+/**
+ * A Colt matrix whose cells are stored, or computed, by row and column
+ * rather than at an offset into an array.
+ *
+ * Unlike the other Colt matrices the number of cells is not limited to the
+ * range of an int, so this can represent matrices over every pair of
+ * vertices of a large graph. Views are supported as far as their cell
+ * offsets fit in an int, as for any Colt matrix.
+ * @author tgee
+ */
+public abstract class AbstractLargeMatrix extends DoubleMatrix2D {
+
+   private final int storedColumns;
+
+   protected AbstractLargeMatrix(int rows, int columns) {
+      if (rows < 0 || columns < 0) {
+         throw new IllegalArgumentException("Negative size.");
+      }
+
+      // Set up directly, as the Colt set up rejects more than 2^31 cells
+      this.rows = rows;
+      this.columns = columns;
+      this.rowZero = 0;
+      this.columnZero = 0;
+      this.rowStride = columns;
+      this.columnStride = 1;
+      this.isNoView = true;
+      this.storedColumns = columns;
+   }
+
+   /**
+    * @param row The row of the underlying matrix, ignoring any view
+    * @param column The column of the underlying matrix, ignoring any view
+    * @return The value of the cell
+    */
+   protected abstract double getStored(int row, int column);
+
+   /**
+    * @param row The row of the underlying matrix, ignoring any view
+    * @param column The column of the underlying matrix, ignoring any view
+    * @param value The value of the cell
+    */
+   protected abstract void setStored(int row, int column, double value);
+
+   @Override
+   public double getQuick(int row, int column) {
+      if (isNoView) {
+         return getStored(row, column);
+      }
+      return getOffset(offset(row, column));
+   }
+
+   @Override
+   public void setQuick(int row, int column, double value) {
+      if (isNoView) {
+         setStored(row, column, value);
+      } else {
+         setOffset(offset(row, column), value);
+      }
+   }
+
+   @Override
+   public DoubleMatrix2D like(int rows, int columns) {
+      return new SparseDoubleMatrix2D(rows, columns);
+   }
+
+   @Override
+   public DoubleMatrix1D like1D(int size) {
+      return new SparseDoubleMatrix1D(size);
+   }
+
+   @Override
+   protected DoubleMatrix1D like1D(int size, int zero, int stride) {
+      return new OffsetVector(size, zero, stride);
+   }
+
+   @Override
+   protected DoubleMatrix2D viewSelectionLike(int[] rowOffsets, int[] columnOffsets) {
+      throw new UnsupportedOperationException("Selection views of this matrix are not supported.");
+   }
+
+   private long offset(int row, int column) {
+      return (long) rowZero + (long) row * rowStride + columnZero + (long) column * columnStride;
+   }
+
+   private double getOffset(long offset) {
+      return getStored((int) (offset / storedColumns), (int) (offset % storedColumns));
+   }
+
+   private void setOffset(long offset, double value) {
+      setStored((int) (offset / storedColumns), (int) (offset % storedColumns), value);
+   }
+
+   /**
+    * A row, column or diagonal of the matrix, addressed by cell offset.
+    */
+   private final class OffsetVector extends DoubleMatrix1D {
+
+      OffsetVector(int size, int zero, int stride) {
+         setUp(size, zero, stride);
+      }
+
+      @Override
+      public double getQuick(int index) {
+         return getOffset((long) zero + (long) index * stride);
+      }
+
+      @Override
+      public void setQuick(int index, double value) {
+         setOffset((long) zero + (long) index * stride, value);
+      }
+
+      @Override
+      public DoubleMatrix1D like(int size) {
+         return new SparseDoubleMatrix1D(size);
+      }
+
+      @Override
+      public DoubleMatrix2D like2D(int rows, int columns) {
+         return new SparseDoubleMatrix2D(rows, columns);
+      }
+
+      @Override
+      protected DoubleMatrix1D viewSelectionLike(int[] offsets) {
+         throw new UnsupportedOperationException("Selection views of this matrix are not supported.");
+      }
+   }
+}
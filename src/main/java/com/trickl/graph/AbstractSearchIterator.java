@@ -0,0 +1,120 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.jgrapht.Graph;
+import org.jgrapht.UndirectedGraph;
+
+/**
+ * Common state of the lazy search iterators, which work directly on the
+ * graph so a search only touches the vertices and edges it has reached.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+abstract class AbstractSearchIterator<V, E> implements Iterator<V> {
+
+   protected final Graph<V, E> graph;
+   private final boolean undirected;
+
+   // The hop count of each vertex reached so far, from its tree parent
+   protected final Map<V, Integer> hopCounts = new HashMap<V, Integer>();
+   private V nextVertex;
+   private V lastVertex;
+
+   AbstractSearchIterator(Graph<V, E> graph, V startVertex) {
+      if (!graph.containsVertex(startVertex)) {
+         throw new GraphArgumentException(graph,
+                 new NoSuchElementException("Start vertex not found."));
+      }
+      this.graph = graph;
+      this.undirected = graph instanceof UndirectedGraph;
+   }
+
+   /**
+    * @return The next vertex in search order, or null if the search is done
+    */
+   protected abstract V advance();
+
+   @Override
+   public boolean hasNext() {
+      if (nextVertex == null) {
+         nextVertex = advance();
+      }
+      return nextVertex != null;
+   }
+
+   @Override
+   public V next() {
+      if (!hasNext()) {
+         throw new NoSuchElementException();
+      }
+      lastVertex = nextVertex;
+      nextVertex = null;
+      return lastVertex;
+   }
+
+   /**
+    * @return The number of tree edges between the start vertex and the
+    * vertex last returned by next
+    */
+   public int getHopCount() {
+      if (lastVertex == null) {
+         throw new IllegalStateException("No vertex has been returned.");
+      }
+      return hopCounts.get(lastVertex);
+   }
+
+   /**
+    * @return True if the vertex has been reached by the search, which may be
+    * before it is returned
+    */
+   public boolean isSeen(V vertex) {
+      return hopCounts.containsKey(vertex);
+   }
+
+   /**
+    * @param edge An edge of u
+    * @param u The vertex being expanded
+    * @return The other end of the edge, or null if a directed edge may not
+    * be followed from u
+    */
+   protected V getTarget(E edge, V u) {
+      return CompressedAdjacency.followEdge(graph, undirected, edge, u);
+   }
+
+   /**
+    * @return A sequential stream over the remaining vertices, which only
+    * searches as far as the stream is consumed
+    */
+   public Stream<V> stream() {
+      return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+              Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+   }
+}
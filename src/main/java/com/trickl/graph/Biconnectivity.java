@@ -25,149 +25,161 @@ import java.util.*;
 import org.jgrapht.EdgeFactory;
 import org.jgrapht.Graph;
 
+/**
+ * Biconnected components, articulation points and bridges of an undirected
+ * graph, after Hopcroft and Tarjan.
+ *
+ * The depth first search runs over a compressed adjacency with dense vertex
+ * indices. Discover times, low points and the search and edge stacks are int
+ * arrays, bounded by the vertex and edge counts, so no maps or per-vertex
+ * objects are created and deep graphs cannot overflow the call stack.
+ * Components are numbered from zero in the order the search completes them.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
 public class Biconnectivity<V, E> {
 
-   private static class BiconnectedComponentIndexer<V, E> implements SpanningSearchVisitor<V, E> {
-
-      private static class Detail<V> {
-
-         int discoverTime;
-         int lowPoint;
-         V predecessor;
-      }
-      private int index = 0;
-      private int dfsTime = 0;
-      private Graph<V, E> graph;
-      private Map<V, Detail<V> > vertexDetails;
-      private Map<E, Integer> edgeComponent;
-      private List<V> articulationPoints;
-      private Stack<E> stack;
-
-      BiconnectedComponentIndexer(Graph<V, E> graph) {
-         this.graph = graph;
-         this.edgeComponent = new HashMap<E, Integer>();
-         this.vertexDetails = new HashMap<V, Detail<V> >();
-         this.articulationPoints = new LinkedList<V>();
-         this.stack = new Stack<E>();
-      }
-
-      @Override
-      public void startVertex(V u) {
-         Detail<V> detail = vertexDetails.get(u);
-         if (detail == null)
-         {
-            detail = new Detail<V>();
-            vertexDetails.put(u, detail);
-         }
-         detail.predecessor = u;
-      }
-
-      @Override
-      public void discoverVertex(V u) {
-         Detail<V> detail = vertexDetails.get(u);
-         if (detail == null)
-         {
-            detail = new Detail<V>();
-            vertexDetails.put(u, detail);
-         }
-         detail.discoverTime = ++dfsTime;
-         detail.lowPoint = detail.discoverTime;
-      }
+   private Graph<V, E> graph;
+   private CompressedAdjacency<V, E> adjacency;
+   private int componentCount;
+   private int[] arcComponents;
+   private List<V> articulationPoints;
+   private List<E> bridges;
+   private BlockCutTree<V> blockCutTree;
 
-      @Override
-      public void treeEdge(V source, V target) {
-         stack.push(graph.getEdge(source, target));
-         Detail<V> targetDetail = vertexDetails.get(target);
-         targetDetail.predecessor = source;
-      }
+   public Biconnectivity(Graph<V, E> graph) {
+      this.graph = graph;
+   }
 
-      @Override
-      public void backEdge(V source, V target) {         
-         Detail<V> sourceDetail = vertexDetails.get(source);
-         Detail<V> targetDetail = vertexDetails.get(target);         
-         if (!target.equals(sourceDetail.predecessor)) {
-            E edge = graph.getEdge(source, target);
-            stack.push(edge);
-            sourceDetail.lowPoint =
-                    Math.min(sourceDetail.lowPoint,
-                    targetDetail.discoverTime);
-         }
+   private void lazyImpl() {
+      if (adjacency != null) {
+         return;
       }
 
-      @Override
-      public void finishVertex(V u) {
-         Detail<V> detail = vertexDetails.get(u);
-         V parent = detail.predecessor;
-         Detail<V> parentDetail = vertexDetails.get(parent);
-
-         int dtmOfDubiousParent = parentDetail.discoverTime;
-         boolean isArticulationPoint = false;
-         if (dtmOfDubiousParent > detail.discoverTime) {
-            parent = parentDetail.predecessor;
-            isArticulationPoint = true;
-            vertexDetails.get(detail.predecessor).predecessor = u;
-            detail.predecessor = u;
+      adjacency = new CompressedAdjacency<V, E>(graph);
+      adjacency.buildReverseArcs();
+      int vertexCount = adjacency.getVertexCount();
+      int arcCount = adjacency.getArcCount();
+
+      int[] discoverTimes = new int[vertexCount];
+      int[] lowPoints = new int[vertexCount];
+      int[] parentArcs = new int[vertexCount];
+      boolean[] isArticulationPoint = new boolean[vertexCount];
+
+      // The search stack can be no deeper than the number of vertices
+      int[] stackVertices = new int[vertexCount];
+      int[] stackArcs = new int[vertexCount];
+
+      // Each edge is pushed once, from the vertex discovered later
+      int[] edgeStackSources = new int[arcCount];
+      int[] edgeStackArcs = new int[arcCount];
+      int edgeStackSize = 0;
+
+      // Block membership, marked with the block number plus one
+      int[] blockMarks = new int[vertexCount];
+      int[] blockOffsets = new int[vertexCount + 1];
+      int[] blockVertices = new int[Math.max(arcCount, 1)];
+      int blockVertexCount = 0;
+
+      arcComponents = new int[arcCount];
+      Arrays.fill(arcComponents, -1);
+      articulationPoints = new ArrayList<V>();
+      bridges = new ArrayList<E>();
+      componentCount = 0;
+      int dfsTime = 0;
+
+      for (int root = 0; root < vertexCount; ++root) {
+         if (discoverTimes[root] != 0) {
+            continue;
          }
 
-         if (parent.equals(u)) { // at top
-            if (detail.discoverTime + 1 == dtmOfDubiousParent) {
-               isArticulationPoint = false;
-            }
-         } else {
-            parentDetail.lowPoint =
-                    Math.min(parentDetail.lowPoint, detail.lowPoint);
-
-            if (detail.lowPoint >= parentDetail.discoverTime) {
-               if (parentDetail.discoverTime > vertexDetails.get(parentDetail.predecessor).discoverTime) {
-                  detail.predecessor = parentDetail.predecessor;
-                  parentDetail.predecessor = u;
+         int rootChildren = 0;
+         int depth = 0;
+         stackVertices[0] = root;
+         stackArcs[0] = adjacency.getArcStart(root);
+         parentArcs[root] = -1;
+         discoverTimes[root] = lowPoints[root] = ++dfsTime;
+
+         while (depth >= 0) {
+            int u = stackVertices[depth];
+            int arc = stackArcs[depth];
+            if (arc < adjacency.getArcEnd(u)) {
+               stackArcs[depth] = arc + 1;
+               int v = adjacency.getArcTarget(arc);
+               if (v == u || (parentArcs[u] >= 0 && arc == adjacency.getReverseArc(parentArcs[u]))) {
+                  // Skip self-loops and the tree edge back to the parent
+                  continue;
                }
 
-               while (vertexDetails.get(graph.getEdgeSource(stack.peek())).discoverTime >= detail.discoverTime) {
-                  edgeComponent.put(stack.peek(), index);
-                  stack.pop();
+               if (discoverTimes[v] == 0) {
+                  // Tree edge
+                  edgeStackSources[edgeStackSize] = u;
+                  edgeStackArcs[edgeStackSize++] = arc;
+                  parentArcs[v] = arc;
+                  discoverTimes[v] = lowPoints[v] = ++dfsTime;
+                  if (u == root) {
+                     ++rootChildren;
+                  }
+                  ++depth;
+                  stackVertices[depth] = v;
+                  stackArcs[depth] = adjacency.getArcStart(v);
+               } else if (discoverTimes[v] < discoverTimes[u]) {
+                  // Back edge to an ancestor
+                  edgeStackSources[edgeStackSize] = u;
+                  edgeStackArcs[edgeStackSize++] = arc;
+                  lowPoints[u] = Math.min(lowPoints[u], discoverTimes[v]);
                }
-               edgeComponent.put(stack.peek(), index);
-               stack.pop();
-               ++index;
-               
-               if (stack.empty()) {
-                  detail.predecessor = parent;
-                  parentDetail.predecessor = u;
+            } else {
+               --depth;
+               if (depth >= 0) {
+                  int parent = stackVertices[depth];
+                  lowPoints[parent] = Math.min(lowPoints[parent], lowPoints[u]);
+                  if (lowPoints[u] >= discoverTimes[parent]) {
+                     // The parent separates the subtree of u, pop its block
+                     int parentArc = parentArcs[u];
+                     int block = componentCount++;
+                     blockOffsets[block] = blockVertexCount;
+                     int blockArc;
+                     do {
+                        int source = edgeStackSources[--edgeStackSize];
+                        blockArc = edgeStackArcs[edgeStackSize];
+                        int target = adjacency.getArcTarget(blockArc);
+                        arcComponents[blockArc] = block;
+                        arcComponents[adjacency.getReverseArc(blockArc)] = block;
+                        if (blockMarks[source] != block + 1) {
+                           blockMarks[source] = block + 1;
+                           blockVertices[blockVertexCount++] = source;
+                        }
+                        if (blockMarks[target] != block + 1) {
+                           blockMarks[target] = block + 1;
+                           blockVertices[blockVertexCount++] = target;
+                        }
+                     } while (blockArc != parentArc);
+
+                     if (lowPoints[u] > discoverTimes[parent]) {
+                        bridges.add(adjacency.getArcEdge(parentArc));
+                     }
+                     if (parent != root) {
+                        isArticulationPoint[parent] = true;
+                     }
+                  }
+               } else if (rootChildren > 1) {
+                  isArticulationPoint[u] = true;
+               }
+
+               if (isArticulationPoint[u]) {
+                  articulationPoints.add(adjacency.getVertex(u));
                }
             }
          }
-         if (isArticulationPoint) {
-            articulationPoints.add(u);
-         }
       }
 
-      @Override
-      public void initializeVertex(V u) {
-      }
-
-      @Override
-      public void examineEdge(V source, V target) {
-      }
-
-      @Override
-      public void forwardOrCrossEdge(V source, V target) {
-      }
-   };
-   private Graph<V, E> graph;
-   private BiconnectedComponentIndexer<V, E> componentVisitor;
-   private DepthFirstSearch<V, E> depthFirstSearch;
-
-   public Biconnectivity(Graph<V, E> graph) {
-      this.graph = graph;
-      depthFirstSearch = new DepthFirstSearch<V, E>(graph);
-   }
-
-   private void lazyImpl() {
-      if (componentVisitor == null) {
-         this.componentVisitor = new BiconnectedComponentIndexer<V, E>(graph);
-         depthFirstSearch.traverse(componentVisitor);
-      }
+      blockOffsets[componentCount] = blockVertexCount;
+      blockCutTree = new BlockCutTree<V>(graph, adjacency,
+              Arrays.copyOf(blockOffsets, componentCount + 1),
+              Arrays.copyOf(blockVertices, blockVertexCount),
+              isArticulationPoint);
    }
 
    public int getComponents() {
@@ -177,12 +189,31 @@ public class Biconnectivity<V, E> {
 
       lazyImpl();
 
-      return componentVisitor.index;
+      return componentCount;
    }
 
+   /**
+    * @param edge The edge
+    * @return The biconnected component containing the edge
+    * @throws GraphArgumentException If the edge is not in the graph, or is a
+    * self-loop, which belongs to no component
+    */
    public int getComponent(E edge) {
       lazyImpl();
-      return componentVisitor.edgeComponent.get(edge);
+      int source = adjacency.getIndex(graph.getEdgeSource(edge));
+      if (source >= 0) {
+         for (int arc = adjacency.getArcStart(source); arc < adjacency.getArcEnd(source); ++arc) {
+            if (edge.equals(adjacency.getArcEdge(arc))) {
+               if (arcComponents[arc] < 0) {
+                  throw new GraphArgumentException(graph,
+                          new IllegalArgumentException("Self-loop belongs to no component."));
+               }
+               return arcComponents[arc];
+            }
+         }
+      }
+      throw new GraphArgumentException(graph,
+              new NoSuchElementException("Edge not found."));
    }
 
    public boolean isBiconnected()
@@ -191,7 +222,22 @@ public class Biconnectivity<V, E> {
    }
 
    public List<V> getArticulationPoints() {
-      return componentVisitor.articulationPoints;
+      lazyImpl();
+      return articulationPoints;
+   }
+
+   /**
+    * @return The edges whose removal would disconnect the graph, each of
+    * which is a component on its own
+    */
+   public List<E> getBridges() {
+      lazyImpl();
+      return bridges;
+   }
+
+   public BlockCutTree<V> getBlockCutTree() {
+      lazyImpl();
+      return blockCutTree;
    }
 
    public void makeBiconnectedPlanar(EdgeFactory<V, E> edgeFactory) {
@@ -211,7 +257,8 @@ public class Biconnectivity<V, E> {
             V e_target = graph.getEdgeTarget(e);
 
             //Skip self-loops and parallel edges
-            if (e_source.equals(e_target) || previous_vertex.equals(e_target)) {
+            if (e_source.equals(e_target)
+                    || (previous_vertex != null && previous_vertex.equals(e_target))) {
                continue;
             }
 
@@ -0,0 +1,141 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.jgrapht.Graph;
+
+/**
+ * The block-cut tree of a graph, with one node for each biconnected
+ * component (block) and one for each articulation point, and an edge
+ * between an articulation point and every block that contains it.
+ *
+ * Blocks are numbered as by Biconnectivity.getComponent. Vertices without
+ * edges belong to no block.
+ * @author tgee
+ * @param <V> Vertex type
+ */
+public class BlockCutTree<V> {
+
+   private final Graph<V, ?> graph;
+   private final CompressedAdjacency<V, ?> adjacency;
+   private final int[] blockOffsets;
+   private final int[] blockVertices;
+   private final int[] vertexOffsets;
+   private final int[] vertexBlocks;
+   private final boolean[] articulationPoints;
+
+   BlockCutTree(Graph<V, ?> graph, CompressedAdjacency<V, ?> adjacency, int[] blockOffsets,
+           int[] blockVertices, boolean[] articulationPoints) {
+      this.graph = graph;
+      this.adjacency = adjacency;
+      this.blockOffsets = blockOffsets;
+      this.blockVertices = blockVertices;
+      this.articulationPoints = articulationPoints;
+
+      // Invert the block membership, so each vertex can list its blocks
+      int vertexCount = adjacency.getVertexCount();
+      int blockCount = blockOffsets.length - 1;
+      vertexOffsets = new int[vertexCount + 1];
+      for (int i = 0; i < blockVertices.length; ++i) {
+         ++vertexOffsets[blockVertices[i] + 1];
+      }
+      for (int u = 0; u < vertexCount; ++u) {
+         vertexOffsets[u + 1] += vertexOffsets[u];
+      }
+      vertexBlocks = new int[blockVertices.length];
+      int[] fill = new int[vertexCount];
+      for (int block = 0; block < blockCount; ++block) {
+         for (int i = blockOffsets[block]; i < blockOffsets[block + 1]; ++i) {
+            int u = blockVertices[i];
+            vertexBlocks[vertexOffsets[u] + fill[u]++] = block;
+         }
+      }
+   }
+
+   public int getBlockCount() {
+      return blockOffsets.length - 1;
+   }
+
+   /**
+    * @param block The block number
+    * @return The vertices of the block
+    */
+   public List<V> getBlockVertices(int block) {
+      checkBlock(block);
+      List<V> vertices = new ArrayList<V>(blockOffsets[block + 1] - blockOffsets[block]);
+      for (int i = blockOffsets[block]; i < blockOffsets[block + 1]; ++i) {
+         vertices.add(adjacency.getVertex(blockVertices[i]));
+      }
+      return vertices;
+   }
+
+   /**
+    * @param block The block number
+    * @return The articulation points in the block, which are its neighbours
+    * in the tree
+    */
+   public List<V> getArticulationPoints(int block) {
+      checkBlock(block);
+      List<V> vertices = new ArrayList<V>();
+      for (int i = blockOffsets[block]; i < blockOffsets[block + 1]; ++i) {
+         if (articulationPoints[blockVertices[i]]) {
+            vertices.add(adjacency.getVertex(blockVertices[i]));
+         }
+      }
+      return vertices;
+   }
+
+   /**
+    * @param vertex The vertex
+    * @return The blocks containing the vertex, more than one only for an
+    * articulation point
+    */
+   public List<Integer> getBlocks(V vertex) {
+      int u = adjacency.getIndex(vertex);
+      if (u < 0) {
+         throw new GraphArgumentException(graph,
+                 new NoSuchElementException("Vertex not found."));
+      }
+      if (vertexOffsets[u] == vertexOffsets[u + 1]) {
+         return Collections.emptyList();
+      }
+      List<Integer> blocks = new ArrayList<Integer>(vertexOffsets[u + 1] - vertexOffsets[u]);
+      for (int i = vertexOffsets[u]; i < vertexOffsets[u + 1]; ++i) {
+         blocks.add(vertexBlocks[i]);
+      }
+      return blocks;
+   }
+
+   public boolean isArticulationPoint(V vertex) {
+      int u = adjacency.getIndex(vertex);
+      return u >= 0 && articulationPoints[u];
+   }
+
+   private void checkBlock(int block) {
+      if (block < 0 || block >= getBlockCount()) {
+         throw new IndexOutOfBoundsException("No block " + block + ".");
+      }
+   }
+}
@@ -0,0 +1,295 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jgrapht.Graph;
+
+/**
+ * Shortest path search from one or more sources, which only expands vertices
+ * whose neighbourhood weight is above a threshold.
+ *
+ * The graph is copied once into a compressed adjacency, after which each
+ * search only touches the neighbourhood it explores. Working arrays are
+ * reset by undoing the entries a search wrote, so they are reused across
+ * searches. A batch of searches on a fork join pool shares working arrays
+ * between its tasks, and releases them when the batch completes.
+ * The graph must not be modified while the engine is in use.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public class BoundedDijkstra<V, E> {
+
+   private static final int DEFAULT_GRAIN_SIZE = 64;
+
+   private final Graph<V, E> graph;
+   private final CompressedAdjacency<V, E> adjacency;
+   private final double[] arcWeights;
+   // Working state kept between single searches, taken while a search is running
+   private final AtomicReference<Scratch> idleScratch = new AtomicReference<Scratch>();
+   private int grainSize = DEFAULT_GRAIN_SIZE;
+
+   public BoundedDijkstra(Graph<V, E> graph) {
+      this.graph = graph;
+      this.adjacency = new CompressedAdjacency<V, E>(graph);
+      this.arcWeights = new double[adjacency.getArcCount()];
+      for (int arc = 0; arc < arcWeights.length; ++arc) {
+         arcWeights[arc] = graph.getEdgeWeight(adjacency.getArcEdge(arc));
+      }
+   }
+
+   /**
+    * @param grainSize The number of source vertices searched by a single
+    * task, below which a batch is searched without forking.
+    */
+   void setGrainSize(int grainSize) {
+      this.grainSize = grainSize;
+   }
+
+   /**
+    * The weight of each vertex in the neighbourhood of a vertex.
+    * @param source The centre of the neighbourhood
+    * @param neighbourhoodFunction Maps a distance to a weight
+    * @param weightThreshold Vertices with a weight at or below this are excluded
+    * @return The weight of the source and each vertex in its neighbourhood
+    */
+   public Map<V, Double> getNeighbourhoodWeights(V source,
+           NeighbourhoodFunction neighbourhoodFunction,
+           double weightThreshold) {
+      return getNeighbourhoodWeights(Collections.singleton(source),
+              neighbourhoodFunction, weightThreshold);
+   }
+
+   /**
+    * The weight of each vertex in the neighbourhood of a set of vertices,
+    * given by the distance to the nearest of them.
+    * @param sources The centres of the neighbourhood, each at distance zero
+    * @param neighbourhoodFunction Maps a distance to a weight
+    * @param weightThreshold Vertices with a weight at or below this are excluded
+    * @return The weight of the sources and each vertex in their neighbourhood
+    */
+   public Map<V, Double> getNeighbourhoodWeights(Collection<? extends V> sources,
+           NeighbourhoodFunction neighbourhoodFunction,
+           double weightThreshold) {
+      int[] sourceIndices = new int[sources.size()];
+      int count = 0;
+      for (V source : sources) {
+         sourceIndices[count++] = getExistingIndex(source);
+      }
+      Scratch state = idleScratch.getAndSet(null);
+      if (state == null) {
+         state = new Scratch(adjacency.getVertexCount());
+      }
+      try {
+         return search(sourceIndices, neighbourhoodFunction, weightThreshold, state);
+      } finally {
+         idleScratch.set(state);
+      }
+   }
+
+   /**
+    * The neighbourhood weights of every vertex in the graph, searched in
+    * parallel on the common pool.
+    * @param neighbourhoodFunction Maps a distance to a weight, this must be
+    * safe to evaluate from several threads at once
+    * @param weightThreshold Vertices with a weight at or below this are excluded
+    * @return The neighbourhood weights of each vertex, in vertex set order
+    */
+   public Map<V, Map<V, Double>> getAllNeighbourhoodWeights(
+           NeighbourhoodFunction neighbourhoodFunction,
+           double weightThreshold) {
+      return getAllNeighbourhoodWeights(neighbourhoodFunction, weightThreshold,
+              ForkJoinPool.commonPool());
+   }
+
+   /**
+    * The neighbourhood weights of every vertex in the graph, searched in
+    * parallel.
+    * @param neighbourhoodFunction Maps a distance to a weight, this must be
+    * safe to evaluate from several threads at once
+    * @param weightThreshold Vertices with a weight at or below this are excluded
+    * @param pool The pool used to run the searches
+    * @return The neighbourhood weights of each vertex, in vertex set order
+    */
+   public Map<V, Map<V, Double>> getAllNeighbourhoodWeights(
+           NeighbourhoodFunction neighbourhoodFunction,
+           double weightThreshold,
+           ForkJoinPool pool) {
+      int vertexCount = adjacency.getVertexCount();
+      Map<V, Double>[] results = newResultArray(vertexCount);
+      // Working state is pooled for this batch only, so none is retained by
+      // the worker threads once it completes
+      ConcurrentLinkedQueue<Scratch> scratchPool = new ConcurrentLinkedQueue<Scratch>();
+      pool.invoke(new BatchTask(0, vertexCount, results, scratchPool,
+              neighbourhoodFunction, weightThreshold));
+
+      Map<V, Map<V, Double>> neighbourhoods = new LinkedHashMap<V, Map<V, Double>>(2 * vertexCount);
+      for (int u = 0; u < vertexCount; ++u) {
+         neighbourhoods.put(adjacency.getVertex(u), results[u]);
+      }
+      return neighbourhoods;
+   }
+
+   @SuppressWarnings("unchecked")
+   private static <V> Map<V, Double>[] newResultArray(int length) {
+      return new Map[length];
+   }
+
+   private int getExistingIndex(V vertex) {
+      int index = adjacency.getIndex(vertex);
+      if (index < 0) {
+         throw new GraphArgumentException(graph,
+                 new NoSuchElementException("Source vertex not found."));
+      }
+      return index;
+   }
+
+   private Map<V, Double> search(int[] sourceIndices,
+           NeighbourhoodFunction neighbourhoodFunction,
+           double weightThreshold,
+           Scratch state) {
+      double[] distances = state.distances;
+      IndexedDoubleHeap queue = state.queue;
+      Map<V, Double> weights = new HashMap<V, Double>();
+      try {
+         for (int source : sourceIndices) {
+            if (queue.offer(source, 0.)) {
+               state.touch(source);
+               distances[source] = 0.;
+            }
+         }
+
+         while (!queue.isEmpty()) {
+            int u = queue.poll();
+            double distance = distances[u];
+            weights.put(adjacency.getVertex(u), neighbourhoodFunction.evaluate(distance));
+
+            for (int arc = adjacency.getArcStart(u); arc < adjacency.getArcEnd(u); ++arc) {
+               int v = adjacency.getArcTarget(arc);
+               double altDistance = distance + arcWeights[arc];
+               if (altDistance >= distances[v]) {
+                  continue;
+               }
+
+               // Only consider vertices within a distance that gives a sufficient weight
+               if (neighbourhoodFunction.evaluate(altDistance) > weightThreshold) {
+                  if (distances[v] == Double.POSITIVE_INFINITY) {
+                     state.touch(v);
+                  }
+                  distances[v] = altDistance;
+                  queue.offer(v, altDistance);
+               }
+            }
+         }
+      } finally {
+         state.reset();
+      }
+      return weights;
+   }
+
+   /**
+    * Working state for one search at a time, sized to the graph.
+    */
+   private static final class Scratch {
+
+      final double[] distances;
+      final IndexedDoubleHeap queue;
+      private int[] touched = new int[16];
+      private int touchedCount;
+
+      Scratch(int vertexCount) {
+         distances = new double[vertexCount];
+         Arrays.fill(distances, Double.POSITIVE_INFINITY);
+         queue = new IndexedDoubleHeap(vertexCount);
+      }
+
+      void touch(int index) {
+         if (touchedCount == touched.length) {
+            touched = Arrays.copyOf(touched, 2 * touchedCount);
+         }
+         touched[touchedCount++] = index;
+      }
+
+      void reset() {
+         for (int i = 0; i < touchedCount; ++i) {
+            distances[touched[i]] = Double.POSITIVE_INFINITY;
+         }
+         touchedCount = 0;
+         queue.clear();
+      }
+   }
+
+   private final class BatchTask extends RecursiveAction {
+
+      private final int from;
+      private final int to;
+      private final Map<V, Double>[] results;
+      private final ConcurrentLinkedQueue<Scratch> scratchPool;
+      private final NeighbourhoodFunction neighbourhoodFunction;
+      private final double weightThreshold;
+
+      BatchTask(int from, int to, Map<V, Double>[] results,
+              ConcurrentLinkedQueue<Scratch> scratchPool,
+              NeighbourhoodFunction neighbourhoodFunction,
+              double weightThreshold) {
+         this.from = from;
+         this.to = to;
+         this.results = results;
+         this.scratchPool = scratchPool;
+         this.neighbourhoodFunction = neighbourhoodFunction;
+         this.weightThreshold = weightThreshold;
+      }
+
+      @Override
+      protected void compute() {
+         if (to - from <= grainSize) {
+            Scratch state = scratchPool.poll();
+            if (state == null) {
+               state = new Scratch(adjacency.getVertexCount());
+            }
+            try {
+               int[] source = new int[1];
+               for (int u = from; u < to; ++u) {
+                  source[0] = u;
+                  results[u] = search(source, neighbourhoodFunction, weightThreshold, state);
+               }
+            } finally {
+               scratchPool.offer(state);
+            }
+         } else {
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchTask(from, middle, results, scratchPool, neighbourhoodFunction, weightThreshold),
+                    new BatchTask(middle, to, results, scratchPool, neighbourhoodFunction, weightThreshold));
+         }
+      }
+   }
+}
@@ -20,28 +20,62 @@
  */
 package com.trickl.graph;
 
+import java.util.ArrayDeque;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.stream.Stream;
 import org.jgrapht.Graph;
+import org.jgrapht.UndirectedGraph;
 
+/**
+ * Breadth first search, reporting the traversal to a SpanningSearchVisitor.
+ *
+ * The graph is first copied into a compressed adjacency with dense vertex
+ * indices, so the search itself only touches primitive arrays: a byte array
+ * of colors and an int array queue. In single component mode the search
+ * instead works directly on the graph, touching only what it reaches.
+ *
+ * A ControlledSpanningSearchVisitor may skip the edges of a vertex or stop
+ * the search early. A skipped vertex is finished as soon as it is discovered.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
 public class BreadthFirstSearch<V, E> {
 
-   private enum Color {
-      WHITE,
-      GRAY,
-      BLACK;
-   }
-
-   LinkedList<V> order = new LinkedList<V>();
+   private static final byte WHITE = 0;
+   private static final byte GRAY = 1;
+   private static final byte BLACK = 2;
+   private static final int TERMINATED = -1;
 
    private Graph<V, E> graph;
+   private boolean singleComponent;
 
    public BreadthFirstSearch(Graph<V, E> graph) {
       this.graph = graph;
    }
 
+   /**
+    * @param startVertex The first vertex
+    * @return The vertices reachable from the start vertex, in breadth first
+    * order, searched only as far as the iterator is advanced
+    */
+   public BreadthFirstSearchIterator<V, E> iterator(V startVertex) {
+      return new BreadthFirstSearchIterator<V, E>(graph, startVertex);
+   }
+
+   /**
+    * @param startVertex The first vertex
+    * @return The vertices reachable from the start vertex, in breadth first
+    * order, searched only as far as the stream is consumed
+    */
+   public Stream<V> stream(V startVertex) {
+      return iterator(startVertex).stream();
+   }
+
    public void traverse(SpanningSearchVisitor<V, E> visitor) {
       Iterator<V> vertexIterator = graph.vertexSet().iterator();
       if (vertexIterator.hasNext()) {
@@ -51,71 +85,198 @@ public class BreadthFirstSearch<V, E> {
 
    public void traverse(V startVertex,
                         SpanningSearchVisitor<V, E> visitor) {
-      // Initialize the color map
-      Map<V, Color> colorMap = new HashMap<V, Color>(graph.vertexSet().size());
-      for (V u : graph.vertexSet()) {
-         colorMap.put(u, Color.WHITE);
-         visitor.initializeVertex(u);
+      ControlledSpanningSearchVisitor<V, E> control = visitor instanceof ControlledSpanningSearchVisitor
+              ? (ControlledSpanningSearchVisitor<V, E>) visitor : null;
+      if (singleComponent) {
+         traverseComponent(startVertex, visitor, control);
+         return;
       }
 
+      CompressedAdjacency<V, E> adjacency = new CompressedAdjacency<V, E>(graph);
+      int startIndex = adjacency.getIndex(startVertex);
+      if (startIndex < 0) {
+         throw new GraphArgumentException(graph,
+                 new NoSuchElementException("Start vertex not found."));
+      }
+
+      // Initialize the colors
+      int vertexCount = adjacency.getVertexCount();
+      byte[] colors = new byte[vertexCount];
+      for (int u = 0; u < vertexCount; ++u) {
+         visitor.initializeVertex(adjacency.getVertex(u));
+      }
+
+      // Each vertex is queued at most once, so the queue never wraps
+      int[] queue = new int[vertexCount];
       visitor.startVertex(startVertex);
-      order.clear();
-      traverseImpl(startVertex, visitor, colorMap);
+      int tail = traverseImpl(startIndex, visitor, control, adjacency, colors, queue, 0);
 
       // The graph may be disconnected - search untouched disjoint sets
-      for (V u : graph.vertexSet()) {
-         Color color = colorMap.get(u);
-         if (color == Color.WHITE) {
-            visitor.startVertex(u);
-            order.clear();
-            traverseImpl(u, visitor, colorMap);
+      for (int u = 0; u < vertexCount && tail != TERMINATED; ++u) {
+         if (colors[u] == WHITE) {
+            visitor.startVertex(adjacency.getVertex(u));
+            tail = traverseImpl(u, visitor, control, adjacency, colors, queue, tail);
          }
       }
    }
 
+   /**
+    * @param singleComponent True to search only the component of the start
+    * vertex. The search then works directly on the graph, so its cost depends
+    * only on the part of the graph reached, and initializeVertex is only
+    * called for vertices as they are reached.
+    */
+   public void setSingleComponent(boolean singleComponent) {
+      this.singleComponent = singleComponent;
+   }
 
-   private void traverseImpl(V startVertex,
-                             SpanningSearchVisitor<V, E> visitor,
-                             Map<V, Color> colorMap) {
-      V u = startVertex;
+   public boolean isSingleComponent() {
+      return singleComponent;
+   }
 
-      colorMap.put(u, Color.GRAY);
+   private int traverseImpl(int startIndex,
+                            SpanningSearchVisitor<V, E> visitor,
+                            ControlledSpanningSearchVisitor<V, E> control,
+                            CompressedAdjacency<V, E> adjacency,
+                            byte[] colors,
+                            int[] queue,
+                            int head) {
+      int tail = head;
+      V start = adjacency.getVertex(startIndex);
+      colors[startIndex] = GRAY;
+      visitor.discoverVertex(start);
+      SearchControl startControl = controlVertex(control, start);
+      if (startControl == SearchControl.TERMINATE) {
+         return TERMINATED;
+      } else if (startControl == SearchControl.SKIP_CHILDREN) {
+         colors[startIndex] = BLACK;
+         visitor.finishVertex(start);
+         return tail;
+      }
+      queue[tail++] = startIndex;
 
-      visitor.discoverVertex(u);
-      order.add(u);
+      while (head < tail) {
+         int u = queue[head++];
+         V source = adjacency.getVertex(u);
 
-      while (!order.isEmpty()) {
-         u = order.poll();
-         Iterator<E> edgeItr = graph.edgesOf(u).iterator();
+         for (int arc = adjacency.getArcStart(u); arc < adjacency.getArcEnd(u); ++arc) {
+            int v = adjacency.getArcTarget(arc);
+            V target = adjacency.getVertex(v);
 
-         while (edgeItr.hasNext()) {
-            E e = edgeItr.next();
-            V v = graph.getEdgeTarget(e).equals(u) ?
-                    graph.getEdgeSource(e) :
-                    graph.getEdgeTarget(e);
+            visitor.examineEdge(source, target);
+            SearchControl edgeControl = controlEdge(control, source, target);
+            if (edgeControl == SearchControl.TERMINATE) {
+               return TERMINATED;
+            } else if (edgeControl == SearchControl.SKIP_CHILDREN) {
+               continue;
+            }
 
-            // Check if a directed edge in the wrong direction
-            if (!graph.containsEdge(u, v)) continue;
+            byte color = colors[v];
+            if (color == WHITE) {
+               visitor.discoverVertex(target);
+               visitor.treeEdge(source, target);
 
-            visitor.examineEdge(u, v);
+               colors[v] = GRAY;
+               SearchControl vertexControl = controlVertex(control, target);
+               if (vertexControl == SearchControl.TERMINATE) {
+                  return TERMINATED;
+               } else if (vertexControl == SearchControl.SKIP_CHILDREN) {
+                  colors[v] = BLACK;
+                  visitor.finishVertex(target);
+               } else {
+                  queue[tail++] = v;
+               }
+            } else if (color == GRAY) {
+               visitor.backEdge(source, target);
+            } else {
+               visitor.forwardOrCrossEdge(source, target);
+            }
+         }
+
+         colors[u] = BLACK;
+         visitor.finishVertex(source);
+      }
+      return tail;
+   }
+
+   private void traverseComponent(V startVertex,
+                                  SpanningSearchVisitor<V, E> visitor,
+                                  ControlledSpanningSearchVisitor<V, E> control) {
+      if (!graph.containsVertex(startVertex)) {
+         throw new GraphArgumentException(graph,
+                 new NoSuchElementException("Start vertex not found."));
+      }
+
+      // Vertices absent from the map are white
+      boolean undirected = graph instanceof UndirectedGraph;
+      Map<V, Byte> colors = new HashMap<V, Byte>();
+      Queue<V> queue = new ArrayDeque<V>();
+
+      visitor.initializeVertex(startVertex);
+      visitor.startVertex(startVertex);
+      colors.put(startVertex, GRAY);
+      visitor.discoverVertex(startVertex);
+      SearchControl startControl = controlVertex(control, startVertex);
+      if (startControl == SearchControl.TERMINATE) {
+         return;
+      } else if (startControl == SearchControl.SKIP_CHILDREN) {
+         colors.put(startVertex, BLACK);
+         visitor.finishVertex(startVertex);
+         return;
+      }
+      queue.add(startVertex);
+
+      while (!queue.isEmpty()) {
+         V source = queue.poll();
 
-            Color color = colorMap.get(v);
+         for (E edge : graph.edgesOf(source)) {
+            V target = CompressedAdjacency.followEdge(graph, undirected, edge, source);
+            if (target == null) {
+               continue;
+            }
+
+            visitor.examineEdge(source, target);
+            SearchControl edgeControl = controlEdge(control, source, target);
+            if (edgeControl == SearchControl.TERMINATE) {
+               return;
+            } else if (edgeControl == SearchControl.SKIP_CHILDREN) {
+               continue;
+            }
 
-            if (color == Color.WHITE) {
-               visitor.discoverVertex(v);
-               visitor.treeEdge(u, v);
+            Byte color = colors.get(target);
+            if (color == null) {
+               visitor.initializeVertex(target);
+               visitor.discoverVertex(target);
+               visitor.treeEdge(source, target);
 
-               order.add(v);
-               colorMap.put(v, Color.GRAY);
-            } else if (color == Color.GRAY) {
-               visitor.backEdge(u, v);
+               colors.put(target, GRAY);
+               SearchControl vertexControl = controlVertex(control, target);
+               if (vertexControl == SearchControl.TERMINATE) {
+                  return;
+               } else if (vertexControl == SearchControl.SKIP_CHILDREN) {
+                  colors.put(target, BLACK);
+                  visitor.finishVertex(target);
+               } else {
+                  queue.add(target);
+               }
+            } else if (color == GRAY) {
+               visitor.backEdge(source, target);
             } else {
-               visitor.forwardOrCrossEdge(u, v);
+               visitor.forwardOrCrossEdge(source, target);
             }
          }
 
-         colorMap.put(u, Color.BLACK);
-         visitor.finishVertex(u);
+         colors.put(source, BLACK);
+         visitor.finishVertex(source);
       }
    }
+
+   private static <V, E> SearchControl controlVertex(ControlledSpanningSearchVisitor<V, E> control, V u) {
+      return control == null ? SearchControl.CONTINUE : control.controlVertex(u);
+   }
+
+   private static <V, E> SearchControl controlEdge(ControlledSpanningSearchVisitor<V, E> control,
+                                                   V source, V target) {
+      return control == null ? SearchControl.CONTINUE : control.controlEdge(source, target);
+   }
 }
@@ -0,0 +1,69 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import org.jgrapht.Graph;
+
+/**
+ * The vertices reachable from a start vertex, lazily in breadth first order.
+ *
+ * The order is the discovery order of BreadthFirstSearch from the same
+ * vertex. A vertex is only expanded once the vertex after it is asked for,
+ * so a consumer that stops early leaves the rest of the graph untouched.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public class BreadthFirstSearchIterator<V, E> extends AbstractSearchIterator<V, E> {
+
+   private final Queue<V> queue = new ArrayDeque<V>();
+   private V unexpanded;
+
+   public BreadthFirstSearchIterator(Graph<V, E> graph, V startVertex) {
+      super(graph, startVertex);
+      hopCounts.put(startVertex, 0);
+      queue.add(startVertex);
+   }
+
+   @Override
+   protected V advance() {
+      // Expand the last vertex returned no sooner than the next is needed
+      if (unexpanded != null) {
+         expand(unexpanded);
+      }
+      unexpanded = queue.poll();
+      return unexpanded;
+   }
+
+   private void expand(V u) {
+      unexpanded = null;
+      int hopCount = hopCounts.get(u) + 1;
+      for (E edge : graph.edgesOf(u)) {
+         V v = getTarget(edge, u);
+         if (v != null && !hopCounts.containsKey(v)) {
+            hopCounts.put(v, hopCount);
+            queue.add(v);
+         }
+      }
+   }
+}
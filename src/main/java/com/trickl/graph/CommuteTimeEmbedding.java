@@ -0,0 +1,172 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import cern.jet.random.engine.RandomEngine;
+import java.util.Arrays;
+
+/**
+ * A random projection of the vertices into a low dimensional space, in which
+ * inner products approximate the pseudo-inverse of the Laplacian and
+ * squared distances approximate commute times.
+ *
+ * With B the edge-vertex incidence matrix and W the edge weights,
+ * L+ = (W^1/2 B L+)^T (W^1/2 B L+). Projecting the edges onto k random
+ * +-1/sqrt(k) directions Q preserves these inner products approximately
+ * (Johnson-Lindenstrauss), so the vertex coordinates are the columns of
+ * Q W^1/2 B L+, found by k Laplacian solves. Memory is proportional to k
+ * times the number of vertices.
+ *
+ * See Effective Resistances, Spielman and Srivastava, and
+ * Graph Nodes Clustering based on the Commute-Time Kernel
+ * @author tgee
+ */
+public class CommuteTimeEmbedding {
+
+   private final LaplacianSolver solver;
+   private final int dimension;
+   private final int vertexCount;
+   private final double[] coordinates;
+   private final double volume;
+
+   /**
+    * @param solver The solver for the Laplacian of the graph
+    * @param dimension The number of random projections
+    * @param randomEngine The source of the projections
+    */
+   public CommuteTimeEmbedding(LaplacianSolver solver, int dimension, RandomEngine randomEngine) {
+      if (dimension <= 0) {
+         throw new IllegalArgumentException("Dimension must be positive.");
+      }
+      this.solver = solver;
+      this.dimension = dimension;
+
+      CompressedRowMatrix laplacian = solver.getLaplacian();
+      vertexCount = laplacian.rows();
+      double totalDegree = 0;
+      for (int i = 0; i < vertexCount; ++i) {
+         totalDegree += laplacian.getQuick(i, i);
+      }
+      volume = totalDegree;
+
+      // Coordinates are held by vertex, so inner products read contiguously
+      coordinates = new double[vertexCount * dimension];
+      double[] projection = new double[vertexCount];
+      double[] solution = new double[vertexCount];
+      double scale = 1 / Math.sqrt(dimension);
+      for (int r = 0; r < dimension; ++r) {
+         // Project the weighted incidence of each edge, visited from its lower end
+         Arrays.fill(projection, 0);
+         for (int i = 0; i < vertexCount; ++i) {
+            for (int k = laplacian.getRowStart(i); k < laplacian.getRowEnd(i); ++k) {
+               int j = laplacian.getColumnIndex(k);
+               double weight = -laplacian.getValue(k);
+               if (j > i && weight > 0) {
+                  double entry = (randomEngine.nextDouble() < 0.5 ? -scale : scale) * Math.sqrt(weight);
+                  projection[i] += entry;
+                  projection[j] -= entry;
+               }
+            }
+         }
+
+         solver.solve(projection, solution);
+         for (int i = 0; i < vertexCount; ++i) {
+            coordinates[i * dimension + r] = solution[i];
+         }
+      }
+   }
+
+   public int getDimension() {
+      return dimension;
+   }
+
+   public int getVertexCount() {
+      return vertexCount;
+   }
+
+   /**
+    * @return The sum of the weighted degrees of the vertices
+    */
+   public double getVolume() {
+      return volume;
+   }
+
+   /**
+    * @param index The vertex index
+    * @param r The projection
+    * @return The coordinate of the vertex in the projection
+    */
+   public double getCoordinate(int index, int r) {
+      return coordinates[index * dimension + r];
+   }
+
+   /**
+    * @param i The first vertex index
+    * @param j The second vertex index
+    * @return An approximation of the entry of the pseudo-inverse of the
+    * Laplacian
+    */
+   public double getPseudoInverse(int i, int j) {
+      double sum = 0;
+      int iOffset = i * dimension;
+      int jOffset = j * dimension;
+      for (int r = 0; r < dimension; ++r) {
+         sum += coordinates[iOffset + r] * coordinates[jOffset + r];
+      }
+      return sum;
+   }
+
+   /**
+    * @return The approximate pseudo-inverse of the Laplacian, with entries
+    * computed from the embedding when they are read
+    */
+   public LazyKernelMatrix getPseudoInverseMatrix() {
+      return new LazyKernelMatrix(vertexCount) {
+
+         @Override
+         protected double getStored(int row, int column) {
+            return getPseudoInverse(row, column);
+         }
+      };
+   }
+
+   /**
+    * @param i The first vertex index
+    * @param j The second vertex index
+    * @return An approximation of the expected time for a random walk to go
+    * from one vertex to the other and back, which is infinite for vertices
+    * in different components
+    */
+   public double getCommuteTime(int i, int j) {
+      if (solver.getComponent(i) != solver.getComponent(j)) {
+         return Double.POSITIVE_INFINITY;
+      }
+
+      double sum = 0;
+      int iOffset = i * dimension;
+      int jOffset = j * dimension;
+      for (int r = 0; r < dimension; ++r) {
+         double difference = coordinates[iOffset + r] - coordinates[jOffset + r];
+         sum += difference * difference;
+      }
+      return volume * sum;
+   }
+}
@@ -0,0 +1,183 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.jgrapht.Graph;
+import org.jgrapht.UndirectedGraph;
+
+/**
+ * A compressed sparse row copy of the adjacency of a graph, with the vertices
+ * numbered by the vertex index of the graph.
+ *
+ * The arcs leaving vertex i are arcStart(i) to arcEnd(i), in the order the
+ * graph reports its edges. For a directed graph only the arcs that may be
+ * followed from the vertex are kept, so searches can iterate neighbours
+ * without further lookups on the graph.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+class CompressedAdjacency<V, E> {
+
+   private final VertexIndex<V> vertexIndex;
+   private final int[] offsets;
+   private final int[] targets;
+   private final Object[] edges;
+   private final boolean undirected;
+   private int[] reverseArcs;
+
+   CompressedAdjacency(Graph<V, E> graph) {
+      vertexIndex = GraphIndices.getVertexIndex(graph);
+      int vertexCount = vertexIndex.getVertexCount();
+      int index;
+
+      undirected = graph instanceof UndirectedGraph;
+      offsets = new int[vertexCount + 1];
+      int[] arcTargets = new int[2 * graph.edgeSet().size() + 1];
+      Object[] arcEdges = new Object[arcTargets.length];
+      int arc = 0;
+      for (index = 0; index < vertexCount; ++index) {
+         offsets[index] = arc;
+         V u = getVertex(index);
+         for (E e : graph.edgesOf(u)) {
+            V v = followEdge(graph, undirected, e, u);
+            if (v == null) {
+               continue;
+            }
+
+            if (arc == arcTargets.length) {
+               arcTargets = Arrays.copyOf(arcTargets, 2 * arc);
+               arcEdges = Arrays.copyOf(arcEdges, 2 * arc);
+            }
+            arcTargets[arc] = vertexIndex.getIndex(v);
+            arcEdges[arc] = e;
+            ++arc;
+         }
+      }
+      offsets[vertexCount] = arc;
+      targets = arcTargets;
+      edges = arcEdges;
+   }
+
+   /**
+    * @param graph The graph
+    * @param undirected True if the graph is undirected
+    * @param edge An edge of u
+    * @param u The vertex the edge is followed from
+    * @return The other end of the edge, or null if it is a directed edge
+    * in the wrong direction
+    */
+   static <V, E> V followEdge(Graph<V, E> graph, boolean undirected, E edge, V u) {
+      V source = graph.getEdgeSource(edge);
+      V target = graph.getEdgeTarget(edge);
+      V v = target.equals(u) ? source : target;
+      if (!undirected && !source.equals(u) && !graph.containsEdge(u, v)) {
+         return null;
+      }
+      return v;
+   }
+
+   /**
+    * @return True if every arc has a reverse arc, so neighbours are also
+    * the vertices with arcs to a vertex.
+    */
+   boolean isUndirected() {
+      return undirected;
+   }
+
+   /**
+    * Pair each arc with the arc for the same edge in the opposite direction,
+    * which is only meaningful for undirected graphs. This must be called
+    * before getReverseArc, and before the adjacency is shared between threads.
+    */
+   void buildReverseArcs() {
+      if (reverseArcs != null) {
+         return;
+      }
+
+      int[] reverse = new int[getArcCount()];
+      Map<Object, Integer> unpaired = new IdentityHashMap<Object, Integer>();
+      for (int arc = 0; arc < reverse.length; ++arc) {
+         Integer other = unpaired.remove(edges[arc]);
+         if (other == null) {
+            // A self-loop listed once is its own reverse
+            unpaired.put(edges[arc], arc);
+            reverse[arc] = arc;
+         } else {
+            reverse[arc] = other;
+            reverse[other] = arc;
+         }
+      }
+      reverseArcs = reverse;
+   }
+
+   /**
+    * @param arc The arc from u to v
+    * @return The arc from v to u for the same edge
+    */
+   int getReverseArc(int arc) {
+      return reverseArcs[arc];
+   }
+
+   int getVertexCount() {
+      return vertexIndex.getVertexCount();
+   }
+
+   V getVertex(int index) {
+      return vertexIndex.getVertex(index);
+   }
+
+   /**
+    * @param vertex The vertex
+    * @return The dense index of the vertex, or -1 if it is not in the graph
+    */
+   int getIndex(V vertex) {
+      return vertexIndex.getIndex(vertex);
+   }
+
+   int getArcStart(int index) {
+      return offsets[index];
+   }
+
+   int getArcEnd(int index) {
+      return offsets[index + 1];
+   }
+
+   int getArcCount() {
+      return offsets[offsets.length - 1];
+   }
+
+   int getDegree(int index) {
+      return offsets[index + 1] - offsets[index];
+   }
+
+   int getArcTarget(int arc) {
+      return targets[arc];
+   }
+
+   @SuppressWarnings("unchecked")
+   E getArcEdge(int arc) {
+      return (E) edges[arc];
+   }
+}
@@ -0,0 +1,259 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import cern.colt.function.IntIntDoubleFunction;
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import cern.colt.matrix.impl.DenseDoubleMatrix1D;
+import java.util.Arrays;
+
+/**
+ * A sparse matrix held in compressed sparse row arrays.
+ *
+ * The entries of row i are at positions getRowStart(i) to getRowEnd(i) of
+ * the column index and value arrays, in increasing column order, so an
+ * entry is found by binary search within its row and a product with a
+ * vector is a single sweep of the arrays. The structure is fixed once built:
+ * stored entries may be overwritten, but a non-zero cannot be added outside
+ * them. The number of cells is not limited to the range of an int, so this
+ * can hold the Laplacian of a very large graph.
+ * @author tgee
+ */
+public class CompressedRowMatrix extends AbstractLargeMatrix {
+
+   private final int[] rowPointers;
+   private final int[] columnIndexes;
+   private final double[] values;
+
+   /**
+    * @param rows The number of rows
+    * @param columns The number of columns
+    * @param rowPointers The start of each row, followed by the end of the
+    * last row
+    * @param columnIndexes The column of each entry, increasing within a row
+    * @param values The value of each entry
+    */
+   public CompressedRowMatrix(int rows, int columns, int[] rowPointers, int[] columnIndexes, double[] values) {
+      super(rows, columns);
+      if (rowPointers.length != rows + 1
+              || columnIndexes.length < rowPointers[rows]
+              || values.length < rowPointers[rows]) {
+         throw new IllegalArgumentException("Compressed row arrays do not match the matrix size.");
+      }
+
+      this.rowPointers = rowPointers;
+      this.columnIndexes = columnIndexes;
+      this.values = values;
+   }
+
+   /**
+    * Sort a row of entries into increasing column order, summing the values
+    * of entries in the same column.
+    * @param columnIndexes The column of each entry
+    * @param values The value of each entry
+    * @param from The first entry of the row
+    * @param to The end of the row
+    * @return The end of the sorted row, which is before the original end if
+    * any entries were merged
+    */
+   static int sortRow(int[] columnIndexes, double[] values, int from, int to) {
+      int length = to - from;
+      if (length <= 16) {
+         // Insertion sort is fastest on the short rows of typical graphs
+         for (int i = from + 1; i < to; ++i) {
+            int column = columnIndexes[i];
+            double value = values[i];
+            int j = i - 1;
+            for (; j >= from && columnIndexes[j] > column; --j) {
+               columnIndexes[j + 1] = columnIndexes[j];
+               values[j + 1] = values[j];
+            }
+            columnIndexes[j + 1] = column;
+            values[j + 1] = value;
+         }
+      } else {
+         // Sort the columns with their original positions packed alongside
+         long[] keys = new long[length];
+         for (int i = 0; i < length; ++i) {
+            keys[i] = ((long) columnIndexes[from + i] << 32) | i;
+         }
+         Arrays.sort(keys);
+         double[] rowValues = Arrays.copyOfRange(values, from, to);
+         for (int i = 0; i < length; ++i) {
+            columnIndexes[from + i] = (int) (keys[i] >>> 32);
+            values[from + i] = rowValues[(int) keys[i]];
+         }
+      }
+
+      int end = from;
+      for (int i = from; i < to; ++i) {
+         if (end > from && columnIndexes[end - 1] == columnIndexes[i]) {
+            values[end - 1] += values[i];
+         } else {
+            columnIndexes[end] = columnIndexes[i];
+            values[end] = values[i];
+            ++end;
+         }
+      }
+      return end;
+   }
+
+   /**
+    * @return The number of stored entries, including any explicit zeros
+    */
+   public int getNonZeroCount() {
+      return rowPointers[rowPointers.length - 1];
+   }
+
+   /**
+    * @param row The row of the stored matrix
+    * @return The position of the first entry of the row
+    */
+   public int getRowStart(int row) {
+      return rowPointers[row];
+   }
+
+   /**
+    * @param row The row of the stored matrix
+    * @return The position after the last entry of the row
+    */
+   public int getRowEnd(int row) {
+      return rowPointers[row + 1];
+   }
+
+   public int getColumnIndex(int position) {
+      return columnIndexes[position];
+   }
+
+   public double getValue(int position) {
+      return values[position];
+   }
+
+   /**
+    * Multiply the stored matrix by a vector, y = Ax, ignoring any view.
+    * @param x The vector to multiply
+    * @param y The result
+    */
+   public void multiply(double[] x, double[] y) {
+      int rowCount = rowPointers.length - 1;
+      for (int i = 0; i < rowCount; ++i) {
+         double sum = 0;
+         for (int k = rowPointers[i]; k < rowPointers[i + 1]; ++k) {
+            sum += values[k] * x[columnIndexes[k]];
+         }
+         y[i] = sum;
+      }
+   }
+
+   @Override
+   public int cardinality() {
+      if (!isNoView) {
+         return super.cardinality();
+      }
+
+      int cardinality = 0;
+      for (int k = 0; k < rowPointers[rows]; ++k) {
+         if (values[k] != 0) {
+            ++cardinality;
+         }
+      }
+      return cardinality;
+   }
+
+   @Override
+   public DoubleMatrix2D forEachNonZero(IntIntDoubleFunction function) {
+      if (!isNoView) {
+         return super.forEachNonZero(function);
+      }
+
+      for (int i = 0; i < rows; ++i) {
+         for (int k = rowPointers[i]; k < rowPointers[i + 1]; ++k) {
+            double value = values[k];
+            if (value != 0) {
+               values[k] = function.apply(i, columnIndexes[k], value);
+            }
+         }
+      }
+      return this;
+   }
+
+   @Override
+   public DoubleMatrix1D zMult(DoubleMatrix1D y, DoubleMatrix1D z, double alpha, double beta, boolean transposeA) {
+      if (!isNoView) {
+         return super.zMult(y, z, alpha, beta, transposeA);
+      }
+
+      int resultSize = transposeA ? columns : rows;
+      if (z == null) {
+         z = new DenseDoubleMatrix1D(resultSize);
+      }
+      if (y.size() != (transposeA ? rows : columns) || z.size() != resultSize) {
+         throw new IllegalArgumentException("Incompatible args: "
+                 + toStringShort() + ", " + y.toStringShort() + ", " + z.toStringShort());
+      }
+
+      if (!transposeA) {
+         for (int i = 0; i < rows; ++i) {
+            double sum = 0;
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; ++k) {
+               sum += values[k] * y.getQuick(columnIndexes[k]);
+            }
+            z.setQuick(i, alpha * sum + beta * z.getQuick(i));
+         }
+      } else {
+         // Scatter each row into the result
+         for (int j = 0; j < resultSize; ++j) {
+            z.setQuick(j, beta * z.getQuick(j));
+         }
+         for (int i = 0; i < rows; ++i) {
+            double scale = alpha * y.getQuick(i);
+            if (scale != 0) {
+               for (int k = rowPointers[i]; k < rowPointers[i + 1]; ++k) {
+                  int j = columnIndexes[k];
+                  z.setQuick(j, z.getQuick(j) + scale * values[k]);
+               }
+            }
+         }
+      }
+      return z;
+   }
+
+   private int find(int row, int column) {
+      return Arrays.binarySearch(columnIndexes, rowPointers[row], rowPointers[row + 1], column);
+   }
+
+   @Override
+   protected double getStored(int row, int column) {
+      int position = find(row, column);
+      return position < 0 ? 0 : values[position];
+   }
+
+   @Override
+   protected void setStored(int row, int column, double value) {
+      int position = find(row, column);
+      if (position >= 0) {
+         values[position] = value;
+      } else if (value != 0) {
+         throw new UnsupportedOperationException("Cannot add an entry outside the structure of a compressed row matrix.");
+      }
+   }
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+/**
+ * A visitor that can prune or stop the search reporting to it.
+ *
+ * BreadthFirstSearch and DepthFirstSearch ask for a decision after each
+ * vertex is discovered and after each edge is examined. When the search is
+ * terminated, vertices still open are not finished.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public interface ControlledSpanningSearchVisitor<V, E> extends SpanningSearchVisitor<V, E> {
+
+   /**
+    * Called after discoverVertex, and after treeEdge if the vertex was
+    * reached by an edge.
+    * @param u The discovered vertex
+    * @return SKIP_CHILDREN to finish the vertex without examining its edges
+    */
+   default SearchControl controlVertex(V u) {
+      return SearchControl.CONTINUE;
+   }
+
+   /**
+    * Called after examineEdge.
+    * @param source The vertex being expanded
+    * @param target The other end of the edge
+    * @return SKIP_CHILDREN to ignore the edge, so the target is neither
+    * classified nor discovered through it
+    */
+   default SearchControl controlEdge(V source, V target) {
+      return SearchControl.CONTINUE;
+   }
+}
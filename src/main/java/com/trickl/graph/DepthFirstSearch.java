@@ -20,39 +20,63 @@
  */
 package com.trickl.graph;
 
-import java.util.Hashtable;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Stack;
-
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
 import org.jgrapht.Graph;
+import org.jgrapht.UndirectedGraph;
 
+/**
+ * Depth first search, reporting the traversal to a SpanningSearchVisitor.
+ *
+ * The graph is first copied into a compressed adjacency with dense vertex
+ * indices. The search stack then holds only the vertex and the next arc to
+ * examine at each depth, in int arrays sized to the vertex count, so no
+ * objects are allocated per tree edge. In single component mode the search
+ * instead works directly on the graph, touching only what it reaches.
+ *
+ * A ControlledSpanningSearchVisitor may skip the edges of a vertex or stop
+ * the search early.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
 public class DepthFirstSearch<V, E> {
 
-   private static class Context<V, E> {
-      protected V vertex;
-      protected Iterator<E> edgeItr;
-
-      public Context(V vertex, Iterator<E> edgeItr) {
-         this.vertex = vertex;
-         this.edgeItr = edgeItr;
-      }
-   }
-
-   private enum Color {
-      WHITE,
-      GRAY,
-      BLACK;
-   }
-
-   Stack<Context> order = new Stack<Context>();
+   private static final byte WHITE = 0;
+   private static final byte GRAY = 1;
+   private static final byte BLACK = 2;
 
    private Graph<V, E> graph;
+   private boolean singleComponent;
 
    public DepthFirstSearch(Graph<V, E> graph) {
       this.graph = graph;
    }
 
+   /**
+    * @param startVertex The first vertex
+    * @return The vertices reachable from the start vertex, in depth first
+    * order, searched only as far as the iterator is advanced
+    */
+   public DepthFirstSearchIterator<V, E> iterator(V startVertex) {
+      return new DepthFirstSearchIterator<V, E>(graph, startVertex);
+   }
+
+   /**
+    * @param startVertex The first vertex
+    * @return The vertices reachable from the start vertex, in depth first
+    * order, searched only as far as the stream is consumed
+    */
+   public Stream<V> stream(V startVertex) {
+      return iterator(startVertex).stream();
+   }
+
    public void traverse(SpanningSearchVisitor<V, E> visitor) {
       Iterator<V> vertexIterator = graph.vertexSet().iterator();
       if (!vertexIterator.hasNext()) return;
@@ -61,76 +85,215 @@ public class DepthFirstSearch<V, E> {
 
    public void traverse(V startVertex,
                         SpanningSearchVisitor<V, E> visitor) {
-      // Initialize the color map
-      Map<V, Color> colorMap = new Hashtable<V, Color>(graph.vertexSet().size());
-      for (V u : graph.vertexSet()) {
-         colorMap.put(u, Color.WHITE);
-         visitor.initializeVertex(u);
+      ControlledSpanningSearchVisitor<V, E> control = visitor instanceof ControlledSpanningSearchVisitor
+              ? (ControlledSpanningSearchVisitor<V, E>) visitor : null;
+      if (singleComponent) {
+         traverseComponent(startVertex, visitor, control);
+         return;
+      }
+
+      CompressedAdjacency<V, E> adjacency = new CompressedAdjacency<V, E>(graph);
+      int startIndex = adjacency.getIndex(startVertex);
+      if (startIndex < 0) {
+         throw new GraphArgumentException(graph,
+                 new NoSuchElementException("Start vertex not found."));
+      }
+
+      // Initialize the colors
+      int vertexCount = adjacency.getVertexCount();
+      byte[] colors = new byte[vertexCount];
+      for (int u = 0; u < vertexCount; ++u) {
+         visitor.initializeVertex(adjacency.getVertex(u));
       }
 
+      // The stack can be no deeper than the number of vertices
+      int[] stackVertices = new int[vertexCount];
+      int[] stackArcs = new int[vertexCount];
+
       visitor.startVertex(startVertex);
-      order.clear();
-      traverseImpl(startVertex, visitor, colorMap);
+      boolean terminated = !traverseImpl(startIndex, visitor, control, adjacency, colors, stackVertices, stackArcs);
 
       // The graph may be disconnected - search untouched disjoint sets
-      for (V u : graph.vertexSet()) {
-         Color color = colorMap.get(u);
-         if (color == Color.WHITE) {
-            visitor.startVertex(u);
-            order.clear();
-            traverseImpl(u, visitor, colorMap);
+      for (int u = 0; u < vertexCount && !terminated; ++u) {
+         if (colors[u] == WHITE) {
+            visitor.startVertex(adjacency.getVertex(u));
+            terminated = !traverseImpl(u, visitor, control, adjacency, colors, stackVertices, stackArcs);
          }
       }
    }
 
+   /**
+    * @param singleComponent True to search only the component of the start
+    * vertex. The search then works directly on the graph, so its cost depends
+    * only on the part of the graph reached, and initializeVertex is only
+    * called for vertices as they are reached.
+    */
+   public void setSingleComponent(boolean singleComponent) {
+      this.singleComponent = singleComponent;
+   }
+
+   public boolean isSingleComponent() {
+      return singleComponent;
+   }
+
+   /**
+    * @return False if the visitor terminated the search
+    */
+   private boolean traverseImpl(int startIndex,
+                                SpanningSearchVisitor<V, E> visitor,
+                                ControlledSpanningSearchVisitor<V, E> control,
+                                CompressedAdjacency<V, E> adjacency,
+                                byte[] colors,
+                                int[] stackVertices,
+                                int[] stackArcs) {
+      V start = adjacency.getVertex(startIndex);
+      colors[startIndex] = GRAY;
+      visitor.discoverVertex(start);
+      SearchControl startControl = controlVertex(control, start);
+      if (startControl == SearchControl.TERMINATE) {
+         return false;
+      }
+
+      int depth = 0;
+      stackVertices[depth] = startIndex;
+      stackArcs[depth] = startControl == SearchControl.SKIP_CHILDREN
+              ? adjacency.getArcEnd(startIndex) : adjacency.getArcStart(startIndex);
 
-   private void traverseImpl(V startVertex,
-                             SpanningSearchVisitor<V, E> visitor,
-                             Map<V, Color> colorMap) {
-      V u = startVertex;
+      while (depth >= 0) {
+         int u = stackVertices[depth];
+         V source = adjacency.getVertex(u);
+         int arcEnd = adjacency.getArcEnd(u);
+         boolean isDescending = false;
 
-      colorMap.put(u, Color.GRAY);
+         for (int arc = stackArcs[depth]; arc < arcEnd; ++arc) {
+            int v = adjacency.getArcTarget(arc);
+            V target = adjacency.getVertex(v);
 
-      visitor.discoverVertex(u);
-      order.add(new Context<V, E>(u, graph.edgesOf(u).iterator()));
+            visitor.examineEdge(source, target);
+            SearchControl edgeControl = controlEdge(control, source, target);
+            if (edgeControl == SearchControl.TERMINATE) {
+               return false;
+            } else if (edgeControl == SearchControl.SKIP_CHILDREN) {
+               continue;
+            }
 
-      while (!order.isEmpty()) {
-         Context<V, E> context = order.pop();
-         u = context.vertex;
-         Iterator<E> edgeItr = context.edgeItr;
+            byte color = colors[v];
+            if (color == WHITE) {
+               visitor.discoverVertex(target);
+               visitor.treeEdge(source, target);
+               SearchControl vertexControl = controlVertex(control, target);
+               if (vertexControl == SearchControl.TERMINATE) {
+                  return false;
+               }
 
-         while (edgeItr.hasNext()) {
-            E e = edgeItr.next();
-            V v = graph.getEdgeTarget(e).equals(u) ?
-                    graph.getEdgeSource(e) :
-                    graph.getEdgeTarget(e);
+               // Resume this vertex from the following arc once v is finished
+               stackArcs[depth] = arc + 1;
+               ++depth;
+               stackVertices[depth] = v;
+               stackArcs[depth] = vertexControl == SearchControl.SKIP_CHILDREN
+                       ? adjacency.getArcEnd(v) : adjacency.getArcStart(v);
+               colors[v] = GRAY;
+               isDescending = true;
+               break;
+            } else if (color == GRAY) {
+               visitor.backEdge(source, target);
+            } else {
+               visitor.forwardOrCrossEdge(source, target);
+            }
+         }
 
-            // Check if a directed edge in the wrong direction
-            if (!graph.containsEdge(u, v)) continue;
+         if (!isDescending) {
+            colors[u] = BLACK;
+            visitor.finishVertex(source);
+            --depth;
+         }
+      }
+      return true;
+   }
 
-            visitor.examineEdge(u, v);
+   private void traverseComponent(V startVertex,
+                                  SpanningSearchVisitor<V, E> visitor,
+                                  ControlledSpanningSearchVisitor<V, E> control) {
+      if (!graph.containsVertex(startVertex)) {
+         throw new GraphArgumentException(graph,
+                 new NoSuchElementException("Start vertex not found."));
+      }
 
-            Color color = colorMap.get(v);
+      // Vertices absent from the map are white
+      boolean undirected = graph instanceof UndirectedGraph;
+      Map<V, Byte> colors = new HashMap<V, Byte>();
+      Deque<V> stackVertices = new ArrayDeque<V>();
+      Deque<Iterator<E>> stackEdges = new ArrayDeque<Iterator<E>>();
 
-            if (color == Color.WHITE) {
-               visitor.discoverVertex(v);
-               visitor.treeEdge(u, v);
+      visitor.initializeVertex(startVertex);
+      visitor.startVertex(startVertex);
+      colors.put(startVertex, GRAY);
+      visitor.discoverVertex(startVertex);
+      SearchControl startControl = controlVertex(control, startVertex);
+      if (startControl == SearchControl.TERMINATE) {
+         return;
+      }
+      stackVertices.push(startVertex);
+      stackEdges.push(startControl == SearchControl.SKIP_CHILDREN
+              ? Collections.<E>emptyIterator() : graph.edgesOf(startVertex).iterator());
 
-               order.add(new Context<V, E>(u, edgeItr));                              
-               u = v;
+      while (!stackVertices.isEmpty()) {
+         V source = stackVertices.peek();
+         Iterator<E> edges = stackEdges.peek();
+         boolean isDescending = false;
 
-               edgeItr = graph.edgesOf(u).iterator();               
-               colorMap.put(v, Color.GRAY);
-            } else if (color == Color.GRAY) {
-               visitor.backEdge(u, v);
+         while (edges.hasNext()) {
+            V target = CompressedAdjacency.followEdge(graph, undirected, edges.next(), source);
+            if (target == null) {
+               continue;
+            }
+
+            visitor.examineEdge(source, target);
+            SearchControl edgeControl = controlEdge(control, source, target);
+            if (edgeControl == SearchControl.TERMINATE) {
+               return;
+            } else if (edgeControl == SearchControl.SKIP_CHILDREN) {
+               continue;
+            }
+
+            Byte color = colors.get(target);
+            if (color == null) {
+               visitor.initializeVertex(target);
+               visitor.discoverVertex(target);
+               visitor.treeEdge(source, target);
+               SearchControl vertexControl = controlVertex(control, target);
+               if (vertexControl == SearchControl.TERMINATE) {
+                  return;
+               }
+
+               colors.put(target, GRAY);
+               stackVertices.push(target);
+               stackEdges.push(vertexControl == SearchControl.SKIP_CHILDREN
+                       ? Collections.<E>emptyIterator() : graph.edgesOf(target).iterator());
+               isDescending = true;
+               break;
+            } else if (color == GRAY) {
+               visitor.backEdge(source, target);
             } else {
-               visitor.forwardOrCrossEdge(u, v);
+               visitor.forwardOrCrossEdge(source, target);
             }
          }
 
-         colorMap.put(u, Color.BLACK);
-         visitor.finishVertex(u);
+         if (!isDescending) {
+            colors.put(source, BLACK);
+            visitor.finishVertex(source);
+            stackVertices.pop();
+            stackEdges.pop();
+         }
       }
    }
-}
 
+   private static <V, E> SearchControl controlVertex(ControlledSpanningSearchVisitor<V, E> control, V u) {
+      return control == null ? SearchControl.CONTINUE : control.controlVertex(u);
+   }
+
+   private static <V, E> SearchControl controlEdge(ControlledSpanningSearchVisitor<V, E> control,
+                                                   V source, V target) {
+      return control == null ? SearchControl.CONTINUE : control.controlEdge(source, target);
+   }
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import org.jgrapht.Graph;
+
+/**
+ * The vertices reachable from a start vertex, lazily in depth first order.
+ *
+ * The order is the discovery order of DepthFirstSearch from the same
+ * vertex. The search holds the position in the edges of each vertex on the
+ * current path, and only advances those positions as far as is needed to
+ * find the next vertex.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public class DepthFirstSearchIterator<V, E> extends AbstractSearchIterator<V, E> {
+
+   private final Deque<Frame<V, E>> path = new ArrayDeque<Frame<V, E>>();
+   private V startVertex;
+
+   public DepthFirstSearchIterator(Graph<V, E> graph, V startVertex) {
+      super(graph, startVertex);
+      this.startVertex = startVertex;
+   }
+
+   @Override
+   protected V advance() {
+      if (startVertex != null) {
+         V u = startVertex;
+         startVertex = null;
+         push(u, 0);
+         return u;
+      }
+
+      while (!path.isEmpty()) {
+         Frame<V, E> frame = path.peek();
+         if (frame.edges == null) {
+            frame.edges = graph.edgesOf(frame.vertex).iterator();
+         }
+         while (frame.edges.hasNext()) {
+            V v = getTarget(frame.edges.next(), frame.vertex);
+            if (v != null && !hopCounts.containsKey(v)) {
+               push(v, path.size());
+               return v;
+            }
+         }
+         path.pop();
+      }
+      return null;
+   }
+
+   private void push(V u, int hopCount) {
+      hopCounts.put(u, hopCount);
+      path.push(new Frame<V, E>(u));
+   }
+
+   /**
+    * A vertex on the current path, with its edges yet to be examined.
+    */
+   private static final class Frame<V, E> {
+
+      final V vertex;
+      Iterator<E> edges;
+
+      Frame(V vertex) {
+         this.vertex = vertex;
+      }
+   }
+}
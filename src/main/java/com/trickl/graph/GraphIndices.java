@@ -0,0 +1,111 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.jgrapht.Graph;
+
+/**
+ * Dense vertex and edge indices for any graph.
+ *
+ * A graph that implements IndexedGraph supplies its own, usually cached,
+ * indices. For any other graph a new index is built from the vertex or edge
+ * set, in iteration order. An index describes the graph when it was built,
+ * and must not be used after the graph is modified.
+ * @author tgee
+ */
+public final class GraphIndices {
+
+   private GraphIndices() {
+   }
+
+   public static <V, E> VertexIndex<V> getVertexIndex(Graph<V, E> graph) {
+      if (graph instanceof IndexedGraph) {
+         return ((IndexedGraph<V, E>) graph).getVertexIndex();
+      }
+      return createVertexIndex(graph.vertexSet());
+   }
+
+   public static <V, E> EdgeIndex<E> getEdgeIndex(Graph<V, E> graph) {
+      if (graph instanceof IndexedGraph) {
+         return ((IndexedGraph<V, E>) graph).getEdgeIndex();
+      }
+      return createEdgeIndex(graph.edgeSet());
+   }
+
+   public static <V> VertexIndex<V> createVertexIndex(Collection<? extends V> vertices) {
+      return new ArrayIndex<V>(vertices);
+   }
+
+   public static <E> EdgeIndex<E> createEdgeIndex(Collection<? extends E> edges) {
+      return new ArrayIndex<E>(edges);
+   }
+
+   /**
+    * An array of the elements, with a hash map back to their positions.
+    */
+   private static final class ArrayIndex<T> implements VertexIndex<T>, EdgeIndex<T>, Serializable {
+
+      private final Object[] elements;
+      private final Map<T, Integer> indices;
+
+      ArrayIndex(Collection<? extends T> collection) {
+         elements = new Object[collection.size()];
+         indices = new HashMap<T, Integer>(2 * elements.length);
+         int index = 0;
+         for (T element : collection) {
+            elements[index] = element;
+            indices.put(element, index++);
+         }
+      }
+
+      @Override
+      public int getVertexCount() {
+         return elements.length;
+      }
+
+      @Override
+      public int getEdgeCount() {
+         return elements.length;
+      }
+
+      @Override
+      public int getIndex(T element) {
+         Integer index = indices.get(element);
+         return index == null ? -1 : index;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public T getVertex(int index) {
+         return (T) elements[index];
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public T getEdge(int index) {
+         return (T) elements[index];
+      }
+   }
+}
@@ -20,10 +20,10 @@
  */
 package com.trickl.graph;
 
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeSet;
 import org.jgrapht.Graph;
 import org.jgrapht.UndirectedGraph;
 
@@ -71,47 +71,59 @@ public final class Graphs {
            V vertex,
            NeighbourhoodFunction neighbourhoodFunction,
            double weightThreshold) {
-      final Map<V, Double> distances = new HashMap<V, Double>();
+      Map<V, Integer> ids = new HashMap<V, Integer>();
+      List<V> vertices = new ArrayList<V>();
       Map<V, Double> weights = new HashMap<V, Double>();
 
-      // Use Dijkstra's algorithm to calculate distances from this vertex
-      TreeSet<V> queue = new TreeSet<V>(new Comparator<V>() {
-         @Override
-         public int compare(V lhs, V rhs) {
-            int result = 0;
-            Double lhsDistance = distances.get(lhs);
-            Double rhsDistance = distances.get(rhs);
-            if (lhsDistance != null && rhsDistance != null) {
-               result = lhsDistance.compareTo(rhsDistance);
-            }
-            return result;
-         }
-      });
-      distances.put(vertex, 0.0);
+      // Use Dijkstra's algorithm to calculate distances from this vertex,
+      // numbering vertices as they are reached so only the neighbourhood is touched
+      IndexedDoubleHeap queue = new IndexedDoubleHeap(16);
+      ids.put(vertex, 0);
+      vertices.add(vertex);
       weights.put(vertex, neighbourhoodFunction.evaluate(0.));
-      queue.add(vertex);
+      queue.offer(0, 0.);
 
       while (!queue.isEmpty()) {
-         V u = queue.first();
-         queue.remove(u);
+         double distance = queue.getKey(queue.peek());
+         V u = vertices.get(queue.poll());
 
          for (E edge : graph.edgesOf(u)) {
             V v = org.jgrapht.Graphs.getOppositeVertex(graph, edge, u);
-            double altDistance = distances.get(u) + graph.getEdgeWeight(graph.getEdge(u, v));
+            double altDistance = distance + graph.getEdgeWeight(edge);
             double altWeight = neighbourhoodFunction.evaluate(altDistance);
 
             // Only consider vertices within a distance that gives a sufficient weight
             if (altWeight > weightThreshold) {
-               if (!distances.containsKey(v)
-                       || altDistance < distances.get(v)) {
-                  queue.remove(v);
-                  distances.put(v, altDistance);
+               Integer id = ids.get(v);
+               if (id == null) {
+                  id = vertices.size();
+                  ids.put(v, id);
+                  vertices.add(v);
+                  queue.ensureCapacity(vertices.size());
+                  queue.offer(id, altDistance);
+                  weights.put(v, altWeight);
+               } else if (queue.contains(id) && queue.offer(id, altDistance)) {
                   weights.put(v, altWeight);
-                  queue.add(v);
                }
             }
          }
       }
       return weights;
    }
+
+   /**
+    * The neighbourhood weights of every vertex, searched in parallel.
+    * @param <V>
+    * @param <E>
+    * @param graph
+    * @param neighbourhoodFunction Maps a distance to a weight
+    * @param weightThreshold Vertices with a weight at or below this are excluded
+    * @return The neighbourhood weights of each vertex
+    * @see BoundedDijkstra
+    */
+   public static <V, E> Map<V, Map<V, Double>> getAllNeighbourhoodWeights(UndirectedGraph<V, E> graph,
+           NeighbourhoodFunction neighbourhoodFunction,
+           double weightThreshold) {
+      return new BoundedDijkstra<V, E>(graph).getAllNeighbourhoodWeights(neighbourhoodFunction, weightThreshold);
+   }
 }
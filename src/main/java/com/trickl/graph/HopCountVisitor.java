@@ -22,20 +22,54 @@ package com.trickl.graph;
 
 import java.util.Map;
 
-public class HopCountVisitor<V, E> extends AbstractSpanningSearchVisitor<V, E> {
+/**
+ * Records the number of hops from the start vertex of a search to each
+ * vertex reached. With a hop limit, vertices at the limit are not expanded,
+ * which combined with a single component breadth first search keeps the
+ * cost local to the vertices within the limit.
+ *
+ * Vertices beyond the limit are left undiscovered, so a search of every
+ * component would restart from them as if they were in another component.
+ * A hop limited visitor therefore only records the first start vertex, and
+ * terminates the search when it is restarted.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public class HopCountVisitor<V, E> extends AbstractSpanningSearchVisitor<V, E>
+        implements ControlledSpanningSearchVisitor<V, E> {
 
    int maxHopCount = 0;
    private Map<V, Integer> vertexHopCounts;
+   private final int hopLimit;
+   private boolean started = false;
+   private boolean restarted = false;
 
    public HopCountVisitor(Map<V, Integer> vertexHopCounts) {
+      this(vertexHopCounts, Integer.MAX_VALUE);
+   }
+
+   /**
+    * @param vertexHopCounts Output map of vertex hop counts
+    * @param hopLimit The greatest hop count to record, only hops from the
+    * first start vertex are recorded
+    */
+   public HopCountVisitor(Map<V, Integer> vertexHopCounts, int hopLimit) {
       if (vertexHopCounts == null) {
          throw new NullPointerException();
       }
       this.vertexHopCounts = vertexHopCounts;
+      this.hopLimit = hopLimit;
    }
 
    @Override
    public void startVertex(V u) {
+      if (started && hopLimit != Integer.MAX_VALUE) {
+         // Counts from a later start vertex would not be hops from the first
+         restarted = true;
+         return;
+      }
+      started = true;
       maxHopCount = 0;
       vertexHopCounts.put(u, 0);
    }
@@ -49,6 +83,15 @@ public class HopCountVisitor<V, E> extends AbstractSpanningSearchVisitor<V, E> {
       }
    }
 
+   @Override
+   public SearchControl controlVertex(V u) {
+      if (restarted) {
+         return SearchControl.TERMINATE;
+      }
+      return vertexHopCounts.get(u) >= hopLimit
+              ? SearchControl.SKIP_CHILDREN : SearchControl.CONTINUE;
+   }
+
    public int getMaxHopCount() {
       return maxHopCount;
    }
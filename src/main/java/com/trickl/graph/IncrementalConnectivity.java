@@ -0,0 +1,244 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.jgrapht.Graph;
+import org.jgrapht.event.GraphEdgeChangeEvent;
+import org.jgrapht.event.GraphListener;
+import org.jgrapht.event.GraphVertexChangeEvent;
+
+/**
+ * Connected components of a graph that grows, maintained with a disjoint set
+ * forest (union by rank with path halving) instead of a full search.
+ *
+ * Register the tracker as a listener on a listenable graph, or call
+ * vertexAdded and edgeAdded directly, and each addition costs near constant
+ * time. A disjoint set cannot be split, so removing a vertex or an edge
+ * only marks the components stale and they are rebuilt on the next query.
+ * Edge direction is ignored, so for a directed graph these are the weakly
+ * connected components.
+ *
+ * Component numbers follow Connectivity, counting from one in the order
+ * that the components first appear in the vertex set. They are computed on
+ * demand and reused until the next union.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public class IncrementalConnectivity<V, E> implements GraphListener<V, E> {
+
+   private final Graph<V, E> graph;
+   private final Map<V, Integer> indices = new HashMap<V, Integer>();
+   private final List<V> vertices = new ArrayList<V>();
+   private int[] parents = new int[16];
+   private byte[] ranks = new byte[16];
+   private int componentCount;
+   private boolean stale;
+
+   // Component numbers, valid until the next union
+   private int[] labels;
+
+   public IncrementalConnectivity(Graph<V, E> graph) {
+      this.graph = graph;
+      rebuild();
+   }
+
+   public int getComponents() {
+      update();
+      return componentCount;
+   }
+
+   public boolean isConnected() {
+      return getComponents() == 1;
+   }
+
+   /**
+    * @param vertex The vertex
+    * @return The number of the component containing the vertex, from one
+    */
+   public int getComponent(V vertex) {
+      update();
+      int index = getExistingIndex(vertex);
+      if (labels == null) {
+         labelComponents();
+      }
+      return labels[find(index)];
+   }
+
+   /**
+    * @param u The first vertex
+    * @param v The second vertex
+    * @return True if there is a path between the vertices
+    */
+   public boolean isConnected(V u, V v) {
+      update();
+      return find(getExistingIndex(u)) == find(getExistingIndex(v));
+   }
+
+   /**
+    * Add an edge between each pair of consecutive components, connecting
+    * the graph.
+    * @return The edges added
+    */
+   public List<E> makeConnected() {
+      update();
+      List<E> addedEdges = new ArrayList<E>();
+      int previous = -1;
+      for (int index = 0; index < vertices.size() && componentCount > 1; ++index) {
+         if (parents[index] != index) {
+            continue;
+         }
+         if (previous >= 0) {
+            V u = vertices.get(previous);
+            V v = vertices.get(index);
+            E edge = graph.addEdge(u, v);
+            if (edge != null) {
+               addedEdges.add(edge);
+            }
+            union(previous, index);
+         }
+         previous = find(index);
+      }
+      return addedEdges;
+   }
+
+   @Override
+   public void vertexAdded(GraphVertexChangeEvent<V> e) {
+      if (!stale) {
+         addVertex(e.getVertex());
+      }
+   }
+
+   @Override
+   public void vertexRemoved(GraphVertexChangeEvent<V> e) {
+      stale = true;
+   }
+
+   @Override
+   public void edgeAdded(GraphEdgeChangeEvent<V, E> e) {
+      if (!stale) {
+         addEdge(e.getEdge());
+      }
+   }
+
+   @Override
+   public void edgeRemoved(GraphEdgeChangeEvent<V, E> e) {
+      stale = true;
+   }
+
+   private void update() {
+      if (stale) {
+         rebuild();
+      }
+   }
+
+   private void rebuild() {
+      indices.clear();
+      vertices.clear();
+      componentCount = 0;
+      labels = null;
+      for (V vertex : graph.vertexSet()) {
+         addVertex(vertex);
+      }
+      for (E edge : graph.edgeSet()) {
+         addEdge(edge);
+      }
+      stale = false;
+   }
+
+   private void addVertex(V vertex) {
+      if (indices.containsKey(vertex)) {
+         return;
+      }
+      int index = vertices.size();
+      if (index == parents.length) {
+         parents = Arrays.copyOf(parents, 2 * index);
+         ranks = Arrays.copyOf(ranks, 2 * index);
+      }
+      parents[index] = index;
+      ranks[index] = 0;
+      indices.put(vertex, index);
+      vertices.add(vertex);
+      ++componentCount;
+      labels = null;
+   }
+
+   private void addEdge(E edge) {
+      V source = graph.getEdgeSource(edge);
+      V target = graph.getEdgeTarget(edge);
+      addVertex(source);
+      addVertex(target);
+      union(indices.get(source), indices.get(target));
+   }
+
+   private int getExistingIndex(V vertex) {
+      Integer index = indices.get(vertex);
+      if (index == null) {
+         throw new GraphArgumentException(graph,
+                 new NoSuchElementException("Vertex not found."));
+      }
+      return index;
+   }
+
+   private int find(int index) {
+      while (parents[index] != index) {
+         parents[index] = parents[parents[index]];
+         index = parents[index];
+      }
+      return index;
+   }
+
+   private void union(int u, int v) {
+      int uRoot = find(u);
+      int vRoot = find(v);
+      if (uRoot == vRoot) {
+         return;
+      }
+      if (ranks[uRoot] < ranks[vRoot]) {
+         parents[uRoot] = vRoot;
+      } else if (ranks[uRoot] > ranks[vRoot]) {
+         parents[vRoot] = uRoot;
+      } else {
+         parents[vRoot] = uRoot;
+         ++ranks[uRoot];
+      }
+      --componentCount;
+      labels = null;
+   }
+
+   private void labelComponents() {
+      int vertexCount = vertices.size();
+      labels = new int[vertexCount];
+      int label = 0;
+      for (int index = 0; index < vertexCount; ++index) {
+         int root = find(index);
+         if (labels[root] == 0) {
+            labels[root] = ++label;
+         }
+      }
+   }
+}
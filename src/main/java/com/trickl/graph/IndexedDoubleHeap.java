@@ -0,0 +1,159 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.Arrays;
+
+/**
+ * A binary min heap of integer identifiers keyed by doubles, which can find
+ * and decrease the key of an identifier already in the heap.
+ *
+ * Equal keys are ordered by identifier, so each entry is held exactly once
+ * and the order in which entries are removed is deterministic.
+ * @author tgee
+ */
+class IndexedDoubleHeap {
+
+   private int[] heap;
+   private int[] positions;
+   private double[] keys;
+   private int size;
+
+   IndexedDoubleHeap(int capacity) {
+      heap = new int[Math.max(capacity, 1)];
+      positions = new int[heap.length];
+      keys = new double[heap.length];
+      Arrays.fill(positions, -1);
+   }
+
+   /**
+    * Make room for identifiers up to, but not including, capacity.
+    * @param capacity The number of identifiers
+    */
+   void ensureCapacity(int capacity) {
+      if (capacity > positions.length) {
+         int length = Math.max(capacity, 2 * positions.length);
+         int oldLength = positions.length;
+         heap = Arrays.copyOf(heap, length);
+         keys = Arrays.copyOf(keys, length);
+         positions = Arrays.copyOf(positions, length);
+         Arrays.fill(positions, oldLength, length, -1);
+      }
+   }
+
+   boolean isEmpty() {
+      return size == 0;
+   }
+
+   boolean contains(int id) {
+      return positions[id] >= 0;
+   }
+
+   double getKey(int id) {
+      return keys[id];
+   }
+
+   /**
+    * Add the identifier, or lower its key if it is already held.
+    * @param id The identifier
+    * @param key The key
+    * @return True if the heap changed
+    */
+   boolean offer(int id, double key) {
+      int position = positions[id];
+      if (position < 0) {
+         position = size++;
+         heap[position] = id;
+         positions[id] = position;
+      } else if (key >= keys[id]) {
+         return false;
+      }
+      keys[id] = key;
+      siftUp(position);
+      return true;
+   }
+
+   /**
+    * @return The identifier with the lowest key
+    */
+   int peek() {
+      return heap[0];
+   }
+
+   /**
+    * @return The identifier with the lowest key, which is removed
+    */
+   int poll() {
+      int id = heap[0];
+      positions[id] = -1;
+      if (--size > 0) {
+         heap[0] = heap[size];
+         positions[heap[0]] = 0;
+         siftDown(0);
+      }
+      return id;
+   }
+
+   void clear() {
+      for (int i = 0; i < size; ++i) {
+         positions[heap[i]] = -1;
+      }
+      size = 0;
+   }
+
+   private boolean isLess(int lhs, int rhs) {
+      return keys[lhs] < keys[rhs] || (keys[lhs] == keys[rhs] && lhs < rhs);
+   }
+
+   private void siftUp(int position) {
+      int id = heap[position];
+      while (position > 0) {
+         int parent = (position - 1) >>> 1;
+         if (!isLess(id, heap[parent])) {
+            break;
+         }
+         heap[position] = heap[parent];
+         positions[heap[position]] = position;
+         position = parent;
+      }
+      heap[position] = id;
+      positions[id] = position;
+   }
+
+   private void siftDown(int position) {
+      int id = heap[position];
+      int half = size >>> 1;
+      while (position < half) {
+         int child = 2 * position + 1;
+         if (child + 1 < size && isLess(heap[child + 1], heap[child])) {
+            ++child;
+         }
+         if (!isLess(heap[child], id)) {
+            break;
+         }
+         heap[position] = heap[child];
+         positions[heap[position]] = position;
+         position = child;
+      }
+      heap[position] = id;
+      positions[id] = position;
+   }
+}
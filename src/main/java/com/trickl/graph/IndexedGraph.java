@@ -0,0 +1,43 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import org.jgrapht.Graph;
+
+/**
+ * A graph that supplies its own dense vertex and edge indices, typically
+ * cached until the graph is next modified.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public interface IndexedGraph<V, E> extends Graph<V, E> {
+
+   /**
+    * @return An index of the current vertex set, in vertex set order
+    */
+   VertexIndex<V> getVertexIndex();
+
+   /**
+    * @return An index of the current edge set, in edge set order
+    */
+   EdgeIndex<E> getEdgeIndex();
+}
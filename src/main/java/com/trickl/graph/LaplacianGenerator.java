@@ -21,81 +21,162 @@
 package com.trickl.graph;
 
 import cern.colt.matrix.DoubleMatrix2D;
-import cern.colt.matrix.impl.SparseDoubleMatrix2D;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
 import org.jgrapht.Graph;
 
-/* See http://en.wikipedia.org/wiki/Laplacian_matrix */
+/**
+ * The Laplacian D - A of a graph, where D is the weighted degree and A the
+ * weighted adjacency.
+ *
+ * The matrix is assembled directly into compressed sparse row arrays over the
+ * dense vertex index of the graph. Each row is built independently from the
+ * edges of its vertex, so given a fork join pool the rows are built in
+ * parallel. Edges are treated as undirected and the weights of parallel
+ * edges are summed. A self-loop adds its weight to both D and A, so it
+ * cancels and every row sums to zero.
+ *
+ * See http://en.wikipedia.org/wiki/Laplacian_matrix
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
 public class LaplacianGenerator<V, E> {
 
+   private static final int DEFAULT_GRAIN_SIZE = 1024;
+
    private Graph<V, E> graph;
-   private List<V> vertices;
-   private Map<V, Integer> vertexIndexMap;
-   private DoubleMatrix2D laplacian;
-   private boolean useOutDegree;
+   private VertexIndex<V> vertexIndex;
+   private CompressedRowMatrix laplacian;
+   private ForkJoinPool pool;
+   private int grainSize = DEFAULT_GRAIN_SIZE;
 
    public LaplacianGenerator(Graph<V, E> graph) {
       this.graph = graph;
    }
 
+   /**
+    * @param graph The graph
+    * @param useOutDegree Retained for compatibility, both degrees give the
+    * Laplacian of the underlying undirected graph
+    */
    public LaplacianGenerator(Graph<V, E> graph, boolean useOutDegree) {
+      this(graph);
+   }
+
+   /**
+    * @param graph The graph
+    * @param pool The pool used to build the rows in parallel
+    */
+   public LaplacianGenerator(Graph<V, E> graph, ForkJoinPool pool) {
       this.graph = graph;
-      this.useOutDegree = useOutDegree;
+      this.pool = pool;
+   }
+
+   /**
+    * @param grainSize The number of rows built by a single task
+    */
+   void setGrainSize(int grainSize) {
+      this.grainSize = grainSize;
    }
 
    public DoubleMatrix2D getLaplacian() {
+      return getCompressedLaplacian();
+   }
+
+   public CompressedRowMatrix getCompressedLaplacian() {
       if (laplacian == null) {
-         int n = graph.vertexSet().size();
-         laplacian = new SparseDoubleMatrix2D(n, n);
-
-         vertices = new ArrayList<V>(n);
-         vertexIndexMap = new HashMap<V, Integer>();
-         int i = 0;
-         for (V vertex : graph.vertexSet()) {
-            vertices.add(vertex);
-            vertexIndexMap.put(vertex, i);
-            ++i;
+         vertexIndex = GraphIndices.getVertexIndex(graph);
+         final int n = vertexIndex.getVertexCount();
+
+         // Reserve a slot for each incident edge and the diagonal
+         final int[] rowPointers = new int[n + 1];
+         forEachRow(n, i -> rowPointers[i + 1] = graph.edgesOf(vertexIndex.getVertex(i)).size() + 1);
+         for (int i = 0; i < n; ++i) {
+            rowPointers[i + 1] += rowPointers[i];
          }
-         
-         for (V vertex : graph.vertexSet()) {
-            double degree = 0;
-            for (E edge : graph.edgesOf(vertex)) {
-               // Use outdegree
-               V source = graph.getEdgeSource(edge);
-               V target = graph.getEdgeTarget(edge);
-               boolean outEdge = source.equals(vertex);
-               double edgeWeight = graph.getEdgeWeight(edge);
-
-               if ((useOutDegree && outEdge)
-                       || (!useOutDegree && !outEdge)) {
-                  degree += edgeWeight;
-                  laplacian.setQuick(vertexIndexMap.get(source),
-                                     vertexIndexMap.get(target),
-                    -edgeWeight);
-               } else {
-                  degree += edgeWeight;
-                  laplacian.setQuick(vertexIndexMap.get(target),
-                                     vertexIndexMap.get(source),
-                    -edgeWeight);
-               }              
+
+         final int[] columnIndexes = new int[rowPointers[n]];
+         final double[] values = new double[rowPointers[n]];
+         final int[] rowEnds = new int[n];
+         forEachRow(n, i -> rowEnds[i] = buildRow(i, rowPointers[i], columnIndexes, values));
+
+         // Close any gaps left by merged parallel edges
+         int end = 0;
+         for (int i = 0; i < n; ++i) {
+            int start = rowPointers[i];
+            int length = rowEnds[i] - start;
+            if (start != end) {
+               System.arraycopy(columnIndexes, start, columnIndexes, end, length);
+               System.arraycopy(values, start, values, end, length);
             }
+            rowPointers[i] = end;
+            end += length;
+         }
+         rowPointers[n] = end;
 
-            laplacian.setQuick(vertexIndexMap.get(vertex),
-                               vertexIndexMap.get(vertex), degree);
-         }        
+         laplacian = new CompressedRowMatrix(n, n, rowPointers, columnIndexes, values);
       }
 
       return laplacian;
    }
 
+   /**
+    * @param type The variant of the Laplacian
+    * @return The Laplacian as an operator on vectors indexed by the vertex
+    * index, which is never formed as a matrix beyond the compressed rows of
+    * the combinatorial Laplacian
+    */
+   public LaplacianOperator getLaplacianOperator(LaplacianType type) {
+      return new LaplacianOperator(getCompressedLaplacian(), type);
+   }
+
+   /**
+    * @return The end of the row
+    */
+   private int buildRow(int i, int start, int[] columnIndexes, double[] values) {
+      V vertex = vertexIndex.getVertex(i);
+      int end = start;
+      double degree = 0;
+      for (E edge : graph.edgesOf(vertex)) {
+         V source = graph.getEdgeSource(edge);
+         V target = graph.getEdgeTarget(edge);
+         V neighbour = source.equals(vertex) ? target : source;
+         if (!neighbour.equals(vertex)) {
+            double edgeWeight = graph.getEdgeWeight(edge);
+            degree += edgeWeight;
+            columnIndexes[end] = vertexIndex.getIndex(neighbour);
+            values[end] = -edgeWeight;
+            ++end;
+         }
+      }
+
+      columnIndexes[end] = i;
+      values[end] = degree;
+      ++end;
+      return CompressedRowMatrix.sortRow(columnIndexes, values, start, end);
+   }
+
+   private void forEachRow(int n, IntConsumer action) {
+      if (pool == null) {
+         for (int i = 0; i < n; ++i) {
+            action.accept(i);
+         }
+      } else {
+         pool.invoke(new RangeTask(0, n, grainSize, action));
+      }
+   }
+
+   public VertexIndex<V> getVertexIndex() {
+      return vertexIndex;
+   }
+
    public Integer getIndex(V vertex) {
-      return vertexIndexMap.get(vertex);
+      int index = vertexIndex.getIndex(vertex);
+      return index < 0 ? null : index;
    }
 
    public V getVertex(int index) {
-      return vertices.get(index);
+      return vertexIndex.getVertex(index);
    }
 }
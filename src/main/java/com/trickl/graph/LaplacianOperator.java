@@ -0,0 +1,164 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealLinearOperator;
+import org.apache.commons.math3.linear.RealVector;
+
+/**
+ * A Laplacian of a graph as a linear operator, for iterative solvers and
+ * eigen-solvers.
+ *
+ * The product y = Lx is computed from the compressed rows of the
+ * combinatorial Laplacian, which hold only the weighted adjacency and the
+ * degrees. The normalized variants scale the input and output by powers of
+ * the degree on the fly, so no further matrix is ever formed. Vertices of
+ * zero degree have zero rows and columns in every variant, following the
+ * pseudo-inverse convention for D^-1.
+ * @author tgee
+ */
+public class LaplacianOperator extends RealLinearOperator {
+
+   private final CompressedRowMatrix laplacian;
+   private final LaplacianType type;
+   private final double[] degrees;
+   private final double[] leftScale;
+   private final double[] rightScale;
+
+   /**
+    * @param laplacian The combinatorial Laplacian, which must be symmetric
+    * @param type The variant of the Laplacian to apply
+    */
+   public LaplacianOperator(CompressedRowMatrix laplacian, LaplacianType type) {
+      if (laplacian.rows() != laplacian.columns()) {
+         throw new DimensionMismatchException(laplacian.columns(), laplacian.rows());
+      }
+      this.laplacian = laplacian;
+      this.type = type;
+
+      int n = laplacian.rows();
+      degrees = new double[n];
+      for (int i = 0; i < n; ++i) {
+         degrees[i] = laplacian.getQuick(i, i);
+      }
+
+      switch (type) {
+         case SYMMETRIC_NORMALIZED:
+            leftScale = new double[n];
+            for (int i = 0; i < n; ++i) {
+               leftScale[i] = degrees[i] > 0 ? 1 / Math.sqrt(degrees[i]) : 0;
+            }
+            rightScale = leftScale;
+            break;
+         case RANDOM_WALK:
+            leftScale = new double[n];
+            for (int i = 0; i < n; ++i) {
+               leftScale[i] = degrees[i] > 0 ? 1 / degrees[i] : 0;
+            }
+            rightScale = null;
+            break;
+         default:
+            leftScale = null;
+            rightScale = null;
+      }
+   }
+
+   public LaplacianType getType() {
+      return type;
+   }
+
+   /**
+    * @param index The vertex index
+    * @return The weighted degree of the vertex
+    */
+   public double getDegree(int index) {
+      return degrees[index];
+   }
+
+   @Override
+   public int getRowDimension() {
+      return degrees.length;
+   }
+
+   @Override
+   public int getColumnDimension() {
+      return degrees.length;
+   }
+
+   @Override
+   public RealVector operate(RealVector x) {
+      checkDimension(x);
+      double[] y = new double[degrees.length];
+      operate(x.toArray(), y);
+      return new ArrayRealVector(y, false);
+   }
+
+   @Override
+   public boolean isTransposable() {
+      return true;
+   }
+
+   @Override
+   public RealVector operateTranspose(RealVector x) {
+      checkDimension(x);
+      double[] y = new double[degrees.length];
+      operateTranspose(x.toArray(), y);
+      return new ArrayRealVector(y, false);
+   }
+
+   /**
+    * @param x The vector to multiply
+    * @param y The result, which must not be x
+    */
+   public void operate(double[] x, double[] y) {
+      apply(x, y, leftScale, rightScale);
+   }
+
+   /**
+    * @param x The vector to multiply
+    * @param y The result, which must not be x
+    */
+   public void operateTranspose(double[] x, double[] y) {
+      // The combinatorial Laplacian is symmetric, so only the scaling swaps
+      apply(x, y, rightScale, leftScale);
+   }
+
+   private void apply(double[] x, double[] y, double[] left, double[] right) {
+      int n = degrees.length;
+      for (int i = 0; i < n; ++i) {
+         double sum = 0;
+         int end = laplacian.getRowEnd(i);
+         for (int k = laplacian.getRowStart(i); k < end; ++k) {
+            int j = laplacian.getColumnIndex(k);
+            sum += laplacian.getValue(k) * (right == null ? x[j] : right[j] * x[j]);
+         }
+         y[i] = left == null ? sum : left[i] * sum;
+      }
+   }
+
+   private void checkDimension(RealVector x) {
+      if (x.getDimension() != degrees.length) {
+         throw new DimensionMismatchException(x.getDimension(), degrees.length);
+      }
+   }
+}
@@ -0,0 +1,237 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.Arrays;
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.MaxCountExceededException;
+
+/**
+ * Solves Lx = b for the combinatorial Laplacian L of a graph, giving the
+ * minimum norm solution x = L+ b, where L+ is the Moore-Penrose
+ * pseudo-inverse.
+ *
+ * L is singular, with the indicator of each connected component in its null
+ * space. One vertex of each component is grounded, removing its row and
+ * column, which leaves a positive definite system that is solved by
+ * conjugate gradient with a Jacobi preconditioner. The right hand side is
+ * first projected to sum to zero on each component, and the solution is
+ * centred on each component afterwards. Each solve costs time proportional
+ * to the number of edges per iteration and memory proportional to the
+ * number of vertices, so the pseudo-inverse is never formed.
+ *
+ * Solves allocate their own work space, so a solver may be shared between
+ * threads.
+ * @author tgee
+ */
+public class LaplacianSolver {
+
+   private static final double DEFAULT_TOLERANCE = 1e-8;
+
+   private final CompressedRowMatrix laplacian;
+   private final int[] components;
+   private final int[] componentSizes;
+   private final boolean[] grounded;
+   private final double[] inverseDiagonal;
+   private double tolerance = DEFAULT_TOLERANCE;
+   private int maxIterations;
+
+   /**
+    * @param laplacian The combinatorial Laplacian, which must be symmetric
+    */
+   public LaplacianSolver(CompressedRowMatrix laplacian) {
+      if (laplacian.rows() != laplacian.columns()) {
+         throw new DimensionMismatchException(laplacian.columns(), laplacian.rows());
+      }
+      this.laplacian = laplacian;
+
+      int n = laplacian.rows();
+      maxIterations = Math.max(n, 100);
+      inverseDiagonal = new double[n];
+      for (int i = 0; i < n; ++i) {
+         double diagonal = laplacian.getQuick(i, i);
+         inverseDiagonal[i] = diagonal > 0 ? 1 / diagonal : 1;
+      }
+
+      // Label the components, grounding the first vertex found in each
+      components = new int[n];
+      grounded = new boolean[n];
+      int[] queue = new int[n];
+      int componentCount = 0;
+      Arrays.fill(components, -1);
+      for (int root = 0; root < n; ++root) {
+         if (components[root] >= 0) {
+            continue;
+         }
+
+         grounded[root] = true;
+         components[root] = componentCount;
+         int head = 0;
+         int tail = 0;
+         queue[tail++] = root;
+         while (head < tail) {
+            int u = queue[head++];
+            for (int k = laplacian.getRowStart(u); k < laplacian.getRowEnd(u); ++k) {
+               int v = laplacian.getColumnIndex(k);
+               if (components[v] < 0 && laplacian.getValue(k) != 0) {
+                  components[v] = componentCount;
+                  queue[tail++] = v;
+               }
+            }
+         }
+         ++componentCount;
+      }
+
+      componentSizes = new int[componentCount];
+      for (int i = 0; i < n; ++i) {
+         ++componentSizes[components[i]];
+      }
+   }
+
+   public CompressedRowMatrix getLaplacian() {
+      return laplacian;
+   }
+
+   /**
+    * @param index The vertex index
+    * @return The connected component of the vertex
+    */
+   public int getComponent(int index) {
+      return components[index];
+   }
+
+   public int getComponentCount() {
+      return componentSizes.length;
+   }
+
+   public double getTolerance() {
+      return tolerance;
+   }
+
+   /**
+    * @param tolerance The residual at convergence, relative to the norm of
+    * the projected right hand side
+    */
+   public void setTolerance(double tolerance) {
+      this.tolerance = tolerance;
+   }
+
+   public int getMaxIterations() {
+      return maxIterations;
+   }
+
+   public void setMaxIterations(int maxIterations) {
+      this.maxIterations = maxIterations;
+   }
+
+   /**
+    * @param b The right hand side, which is not modified
+    * @param x The solution L+ b
+    * @return The number of iterations taken
+    * @throws MaxCountExceededException If the solve does not converge
+    */
+   public int solve(double[] b, double[] x) {
+      int n = inverseDiagonal.length;
+      if (b.length != n) {
+         throw new DimensionMismatchException(b.length, n);
+      }
+      if (x.length != n) {
+         throw new DimensionMismatchException(x.length, n);
+      }
+
+      // Project out the null space, then drop the grounded rows
+      double[] r = b.clone();
+      centre(r);
+      for (int i = 0; i < n; ++i) {
+         if (grounded[i]) {
+            r[i] = 0;
+         }
+      }
+
+      Arrays.fill(x, 0);
+      double threshold = tolerance * Math.sqrt(dot(r, r));
+      if (threshold == 0) {
+         return 0;
+      }
+
+      double[] z = new double[n];
+      double[] p = new double[n];
+      double[] q = new double[n];
+      for (int i = 0; i < n; ++i) {
+         z[i] = inverseDiagonal[i] * r[i];
+         p[i] = z[i];
+      }
+      double rz = dot(r, z);
+
+      int iteration = 0;
+      while (Math.sqrt(dot(r, r)) > threshold) {
+         if (++iteration > maxIterations) {
+            throw new MaxCountExceededException(maxIterations);
+         }
+
+         // The grounded entries of p stay zero, so this is the grounded product
+         laplacian.multiply(p, q);
+         for (int i = 0; i < n; ++i) {
+            if (grounded[i]) {
+               q[i] = 0;
+            }
+         }
+
+         double alpha = rz / dot(p, q);
+         for (int i = 0; i < n; ++i) {
+            x[i] += alpha * p[i];
+            r[i] -= alpha * q[i];
+            z[i] = inverseDiagonal[i] * r[i];
+         }
+
+         double nextRz = dot(r, z);
+         double beta = nextRz / rz;
+         rz = nextRz;
+         for (int i = 0; i < n; ++i) {
+            p[i] = z[i] + beta * p[i];
+         }
+      }
+
+      centre(x);
+      return iteration;
+   }
+
+   /**
+    * Subtract the mean of each component from its entries.
+    */
+   private void centre(double[] x) {
+      double[] sums = new double[componentSizes.length];
+      for (int i = 0; i < x.length; ++i) {
+         sums[components[i]] += x[i];
+      }
+      for (int i = 0; i < x.length; ++i) {
+         x[i] -= sums[components[i]] / componentSizes[components[i]];
+      }
+   }
+
+   private static double dot(double[] lhs, double[] rhs) {
+      double sum = 0;
+      for (int i = 0; i < lhs.length; ++i) {
+         sum += lhs[i] * rhs[i];
+      }
+      return sum;
+   }
+}
@@ -0,0 +1,35 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+/**
+ * The variants of the graph Laplacian, in terms of the combinatorial
+ * Laplacian L = D - A.
+ * @author tgee
+ */
+public enum LaplacianType {
+   /** L = D - A. */
+   COMBINATORIAL,
+   /** D^-1/2 L D^-1/2, which is symmetric with eigenvalues in [0, 2]. */
+   SYMMETRIC_NORMALIZED,
+   /** D^-1 L, the generator of a random walk on the graph. */
+   RANDOM_WALK
+}
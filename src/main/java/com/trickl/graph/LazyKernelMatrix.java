@@ -0,0 +1,41 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+/**
+ * A read-only kernel matrix whose entries are computed when they are read,
+ * so it takes no memory proportional to the number of cells.
+ *
+ * Reading entries in blocks with MatrixBlocks keeps the data each entry is
+ * computed from in cache, and lets the blocks be computed in parallel.
+ * @author tgee
+ */
+public abstract class LazyKernelMatrix extends AbstractLargeMatrix {
+
+   protected LazyKernelMatrix(int size) {
+      super(size, size);
+   }
+
+   @Override
+   protected void setStored(int row, int column, double value) {
+      throw new UnsupportedOperationException("A lazy kernel matrix is read-only.");
+   }
+}
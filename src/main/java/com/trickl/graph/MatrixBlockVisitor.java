@@ -0,0 +1,38 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import cern.colt.matrix.DoubleMatrix2D;
+
+/**
+ * Receives the blocks of a matrix from MatrixBlocks. Blocks may be visited
+ * concurrently from several threads.
+ * @author tgee
+ */
+public interface MatrixBlockVisitor {
+
+   /**
+    * @param rowStart The row of the matrix at the top of the block
+    * @param columnStart The column of the matrix at the left of the block
+    * @param block A copy of the block, which is not reused after the visit
+    */
+   void visitBlock(int rowStart, int columnStart, DoubleMatrix2D block);
+}
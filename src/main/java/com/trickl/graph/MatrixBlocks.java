@@ -0,0 +1,129 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import cern.colt.matrix.DoubleMatrix2D;
+import cern.colt.matrix.impl.DenseDoubleMatrix2D;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Visits a matrix in square blocks, copying each block into a small dense
+ * matrix before it is visited.
+ *
+ * For a lazy matrix each entry is computed once per visit, from data for
+ * only the rows and columns of the block, so only one block per thread is
+ * held in memory at a time. Blocks are numbered in row major order, and
+ * given a fork join pool are filled and visited in parallel.
+ * @author tgee
+ */
+public final class MatrixBlocks {
+
+   private MatrixBlocks() {
+   }
+
+   /**
+    * @param matrix The matrix
+    * @param blockSize The number of rows and columns in a block
+    * @return The number of blocks covering the matrix
+    */
+   public static int getBlockCount(DoubleMatrix2D matrix, int blockSize) {
+      return getBlockRows(matrix, blockSize) * getBlockColumns(matrix, blockSize);
+   }
+
+   public static void forEachBlock(DoubleMatrix2D matrix, int blockSize, MatrixBlockVisitor visitor) {
+      int blockCount = getBlockCount(matrix, blockSize);
+      for (int block = 0; block < blockCount; ++block) {
+         visitBlock(matrix, blockSize, block, visitor);
+      }
+   }
+
+   public static void forEachBlock(DoubleMatrix2D matrix, int blockSize, MatrixBlockVisitor visitor,
+                                   ForkJoinPool pool) {
+      pool.invoke(new BlockTask(matrix, blockSize, visitor, 0, getBlockCount(matrix, blockSize)));
+   }
+
+   /**
+    * @param matrix The matrix
+    * @param blockSize The number of rows and columns in a block
+    * @param block The number of the block, in row major order
+    * @param visitor The visitor
+    */
+   public static void visitBlock(DoubleMatrix2D matrix, int blockSize, int block, MatrixBlockVisitor visitor) {
+      int blockColumns = getBlockColumns(matrix, blockSize);
+      int rowStart = (block / blockColumns) * blockSize;
+      int columnStart = (block % blockColumns) * blockSize;
+      int rowEnd = Math.min(rowStart + blockSize, matrix.rows());
+      int columnEnd = Math.min(columnStart + blockSize, matrix.columns());
+
+      DoubleMatrix2D copy = new DenseDoubleMatrix2D(rowEnd - rowStart, columnEnd - columnStart);
+      for (int i = rowStart; i < rowEnd; ++i) {
+         for (int j = columnStart; j < columnEnd; ++j) {
+            copy.setQuick(i - rowStart, j - columnStart, matrix.getQuick(i, j));
+         }
+      }
+      visitor.visitBlock(rowStart, columnStart, copy);
+   }
+
+   private static int getBlockRows(DoubleMatrix2D matrix, int blockSize) {
+      if (blockSize <= 0) {
+         throw new IllegalArgumentException("Block size must be positive.");
+      }
+      return (matrix.rows() + blockSize - 1) / blockSize;
+   }
+
+   private static int getBlockColumns(DoubleMatrix2D matrix, int blockSize) {
+      if (blockSize <= 0) {
+         throw new IllegalArgumentException("Block size must be positive.");
+      }
+      return (matrix.columns() + blockSize - 1) / blockSize;
+   }
+
+   private static final class BlockTask extends RecursiveAction {
+
+      private final DoubleMatrix2D matrix;
+      private final int blockSize;
+      private final MatrixBlockVisitor visitor;
+      private final int from;
+      private final int to;
+
+      BlockTask(DoubleMatrix2D matrix, int blockSize, MatrixBlockVisitor visitor, int from, int to) {
+         this.matrix = matrix;
+         this.blockSize = blockSize;
+         this.visitor = visitor;
+         this.from = from;
+         this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+         if (to - from <= 1) {
+            for (int block = from; block < to; ++block) {
+               visitBlock(matrix, blockSize, block, visitor);
+            }
+         } else {
+            int middle = (from + to) >>> 1;
+            invokeAll(new BlockTask(matrix, blockSize, visitor, from, middle),
+                    new BlockTask(matrix, blockSize, visitor, middle, to));
+         }
+      }
+   }
+}
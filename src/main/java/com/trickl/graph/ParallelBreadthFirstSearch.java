@@ -0,0 +1,371 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.jgrapht.Graph;
+
+/**
+ * A level synchronous breadth first search, that expands each level of the
+ * search in parallel on a fork join pool.
+ *
+ * For undirected graphs the search is direction optimizing, switching to a
+ * bottom up step (unvisited vertices look for a parent in the frontier) when
+ * the frontier becomes large, and back again when it shrinks.
+ *
+ * The results are deterministic. Each vertex takes as parent the earliest
+ * vertex of the previous level with an edge to it, and each level is ordered
+ * as the sequential search would queue it. The hop counts and parents
+ * therefore match those from BreadthFirstSearch with a HopCountVisitor,
+ * including the restart in each disconnected component.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public class ParallelBreadthFirstSearch<V, E> {
+
+   // Direction switching thresholds, after Beamer, Asanovic and Patterson
+   private static final int ALPHA = 14;
+   private static final int BETA = 24;
+   private static final int DEFAULT_GRAIN_SIZE = 2048;
+   private static final long NO_PARENT = Long.MAX_VALUE;
+
+   private final Graph<V, E> graph;
+   private final ForkJoinPool pool;
+   private int grainSize = DEFAULT_GRAIN_SIZE;
+
+   // State of the most recent traversal
+   private CompressedAdjacency<V, E> adjacency;
+   private int[] hopCounts;
+   private int[] parents;
+   private int maxHopCount;
+   private long unexploredArcs;
+
+   // Per level working state
+   private int[] frontier;
+   private int[] next;
+   private int[] positions;
+   private AtomicLongArray discovered;
+   private AtomicLongArray parentKeys;
+   private final AtomicInteger nextSize = new AtomicInteger();
+
+   public ParallelBreadthFirstSearch(Graph<V, E> graph) {
+      this(graph, ForkJoinPool.commonPool());
+   }
+
+   public ParallelBreadthFirstSearch(Graph<V, E> graph, ForkJoinPool pool) {
+      this.graph = graph;
+      this.pool = pool;
+   }
+
+   /**
+    * @param grainSize The number of vertices processed by a single task,
+    * below which a level is expanded without forking.
+    */
+   void setGrainSize(int grainSize) {
+      this.grainSize = grainSize;
+   }
+
+   public void traverse() {
+      Iterator<V> vertexIterator = graph.vertexSet().iterator();
+      if (vertexIterator.hasNext()) {
+         traverse(vertexIterator.next());
+      }
+   }
+
+   /**
+    * Search from the start vertex, then from the first unvisited vertex of
+    * each remaining component.
+    * @param startVertex The first vertex
+    */
+   public void traverse(V startVertex) {
+      initialize();
+      int startIndex = getExistingIndex(startVertex);
+      search(new int[]{startIndex});
+
+      // The graph may be disconnected - search untouched disjoint sets
+      for (int u = 0; u < adjacency.getVertexCount(); ++u) {
+         if (hopCounts[u] < 0) {
+            search(new int[]{u});
+         }
+      }
+   }
+
+   /**
+    * Search outward from several vertices at once, each at a hop count of zero.
+    * Vertices unreachable from the start vertices are not visited.
+    * @param startVertices The start vertices, in queue order
+    */
+   public void traverse(Collection<? extends V> startVertices) {
+      initialize();
+      int[] startIndices = new int[startVertices.size()];
+      BitSet isStart = new BitSet(adjacency.getVertexCount());
+      int count = 0;
+      for (V startVertex : startVertices) {
+         int startIndex = getExistingIndex(startVertex);
+         if (!isStart.get(startIndex)) {
+            isStart.set(startIndex);
+            startIndices[count++] = startIndex;
+         }
+      }
+      search(Arrays.copyOf(startIndices, count));
+   }
+
+   private int getExistingIndex(V vertex) {
+      int index = adjacency.getIndex(vertex);
+      if (index < 0) {
+         throw new GraphArgumentException(graph,
+                 new NoSuchElementException("Start vertex not found."));
+      }
+      return index;
+   }
+
+   private void initialize() {
+      adjacency = new CompressedAdjacency<V, E>(graph);
+      if (adjacency.isUndirected()) {
+         adjacency.buildReverseArcs();
+      }
+
+      int vertexCount = adjacency.getVertexCount();
+      hopCounts = new int[vertexCount];
+      Arrays.fill(hopCounts, -1);
+      parents = new int[vertexCount];
+      Arrays.fill(parents, -1);
+      frontier = new int[vertexCount];
+      next = new int[vertexCount];
+      positions = new int[vertexCount];
+      discovered = new AtomicLongArray((vertexCount + 63) >>> 6);
+      parentKeys = new AtomicLongArray(vertexCount);
+      for (int v = 0; v < vertexCount; ++v) {
+         parentKeys.set(v, NO_PARENT);
+      }
+      maxHopCount = 0;
+      unexploredArcs = adjacency.getArcCount();
+   }
+
+   private void search(int[] startIndices) {
+      int frontierSize = startIndices.length;
+      long frontierArcs = 0;
+
+      for (int i = 0; i < frontierSize; ++i) {
+         int u = startIndices[i];
+         frontier[i] = u;
+         positions[u] = i;
+         hopCounts[u] = 0;
+         setDiscovered(u);
+         frontierArcs += adjacency.getDegree(u);
+         unexploredArcs -= adjacency.getDegree(u);
+      }
+
+      int hopCount = 0;
+      boolean bottomUp = false;
+      while (frontierSize > 0) {
+         maxHopCount = hopCount;
+         if (adjacency.isUndirected()) {
+            if (!bottomUp && frontierArcs > unexploredArcs / ALPHA) {
+               bottomUp = true;
+            } else if (bottomUp && frontierSize < adjacency.getVertexCount() / BETA) {
+               bottomUp = false;
+            }
+         }
+
+         nextSize.set(0);
+         int taskSize = bottomUp ? adjacency.getVertexCount() : frontierSize;
+         LevelTask task = new LevelTask(0, taskSize, hopCount, bottomUp);
+         if (taskSize <= grainSize) {
+            task.compute();
+         } else {
+            pool.invoke(task);
+         }
+
+         // Order the next level as the sequential search would queue it
+         int size = nextSize.get();
+         long[] keys = new long[size];
+         for (int i = 0; i < size; ++i) {
+            keys[i] = parentKeys.get(next[i]);
+         }
+         Arrays.parallelSort(keys);
+
+         frontierArcs = 0;
+         for (int i = 0; i < size; ++i) {
+            int u = frontier[(int) (keys[i] >>> 32)];
+            int v = adjacency.getArcTarget(adjacency.getArcStart(u) + (int) keys[i]);
+            next[i] = v;
+            positions[v] = i;
+            hopCounts[v] = hopCount + 1;
+            parents[v] = u;
+            frontierArcs += adjacency.getDegree(v);
+         }
+         unexploredArcs -= frontierArcs;
+
+         int[] swap = frontier;
+         frontier = next;
+         next = swap;
+         frontierSize = size;
+         ++hopCount;
+      }
+   }
+
+   private boolean setDiscovered(int v) {
+      int word = v >>> 6;
+      long bit = 1L << v;
+      long current;
+      do {
+         current = discovered.get(word);
+         if ((current & bit) != 0) {
+            return false;
+         }
+      } while (!discovered.compareAndSet(word, current, current | bit));
+      return true;
+   }
+
+   /**
+    * Offer a parent for a vertex, keeping the smallest key.
+    * A key is the frontier position of the parent in the high word and the
+    * offset of the arc within the parent's arcs in the low word.
+    */
+   private void offerParent(int v, long key) {
+      long current;
+      do {
+         current = parentKeys.get(v);
+         if (key >= current) {
+            return;
+         }
+      } while (!parentKeys.compareAndSet(v, current, key));
+   }
+
+   private class LevelTask extends RecursiveAction {
+
+      private final int from;
+      private final int to;
+      private final int hopCount;
+      private final boolean bottomUp;
+
+      LevelTask(int from, int to, int hopCount, boolean bottomUp) {
+         this.from = from;
+         this.to = to;
+         this.hopCount = hopCount;
+         this.bottomUp = bottomUp;
+      }
+
+      @Override
+      protected void compute() {
+         if (to - from > grainSize) {
+            int middle = (from + to) >>> 1;
+            invokeAll(new LevelTask(from, middle, hopCount, bottomUp),
+                    new LevelTask(middle, to, hopCount, bottomUp));
+            return;
+         }
+
+         int[] found = new int[16];
+         int foundSize = 0;
+         if (bottomUp) {
+            // Each unvisited vertex looks for its earliest parent in the frontier
+            for (int v = from; v < to; ++v) {
+               if (hopCounts[v] >= 0) {
+                  continue;
+               }
+
+               long best = NO_PARENT;
+               for (int arc = adjacency.getArcStart(v); arc < adjacency.getArcEnd(v); ++arc) {
+                  int u = adjacency.getArcTarget(arc);
+                  if (hopCounts[u] == hopCount) {
+                     long key = ((long) positions[u] << 32)
+                             | (adjacency.getReverseArc(arc) - adjacency.getArcStart(u));
+                     best = Math.min(best, key);
+                  }
+               }
+
+               if (best != NO_PARENT) {
+                  parentKeys.set(v, best);
+                  setDiscovered(v);
+                  if (foundSize == found.length) {
+                     found = Arrays.copyOf(found, 2 * foundSize);
+                  }
+                  found[foundSize++] = v;
+               }
+            }
+         } else {
+            // Each frontier vertex offers itself as parent to unvisited neighbours
+            for (int position = from; position < to; ++position) {
+               int u = frontier[position];
+               int arcStart = adjacency.getArcStart(u);
+               for (int arc = arcStart; arc < adjacency.getArcEnd(u); ++arc) {
+                  int v = adjacency.getArcTarget(arc);
+                  if (hopCounts[v] >= 0) {
+                     continue;
+                  }
+
+                  offerParent(v, ((long) position << 32) | (arc - arcStart));
+                  if (setDiscovered(v)) {
+                     if (foundSize == found.length) {
+                        found = Arrays.copyOf(found, 2 * foundSize);
+                     }
+                     found[foundSize++] = v;
+                  }
+               }
+            }
+         }
+
+         if (foundSize > 0) {
+            System.arraycopy(found, 0, next, nextSize.getAndAdd(foundSize), foundSize);
+         }
+      }
+   }
+
+   /**
+    * @return The hop count of each vertex visited by the last traversal
+    */
+   public Map<V, Integer> getVertexHopCounts() {
+      Map<V, Integer> vertexHopCounts = new HashMap<V, Integer>(2 * hopCounts.length);
+      for (int u = 0; u < hopCounts.length; ++u) {
+         if (hopCounts[u] >= 0) {
+            vertexHopCounts.put(adjacency.getVertex(u), hopCounts[u]);
+         }
+      }
+      return vertexHopCounts;
+   }
+
+   /**
+    * @return The search tree parent of each vertex visited by the last
+    * traversal, start vertices have no entry
+    */
+   public Map<V, V> getParents() {
+      Map<V, V> vertexParents = new HashMap<V, V>(2 * parents.length);
+      for (int u = 0; u < parents.length; ++u) {
+         if (parents[u] >= 0) {
+            vertexParents.put(adjacency.getVertex(u), adjacency.getVertex(parents[u]));
+         }
+      }
+      return vertexParents;
+   }
+
+   /**
+    * @return The greatest hop count in the last component searched
+    */
+   public int getMaxHopCount() {
+      return maxHopCount;
+   }
+}
@@ -0,0 +1,152 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.jgrapht.Graph;
+
+/**
+ * Connected components computed on a fork join pool, for graphs too large
+ * for a single depth first search to be quick.
+ *
+ * The edge set is split into ranges, one per task, and every edge hooks the
+ * roots of its end vertices together in a shared disjoint set forest. As in
+ * Shiloach and Vishkin, a root is only ever hooked under a root with a lower
+ * index, using a compare and set, so no locks are needed and each component
+ * ends up rooted at its lowest indexed vertex. A final parallel pass
+ * compresses every vertex to point directly at its root.
+ *
+ * Component numbers follow Connectivity, counting from one in the order
+ * that the components first appear in the vertex set. Edge direction is
+ * ignored. The graph must not be modified during the computation, and its
+ * getEdgeSource and getEdgeTarget must be safe to call from several threads.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public class ParallelConnectivity<V, E> {
+
+   private static final int DEFAULT_GRAIN_SIZE = 4096;
+
+   private final Graph<V, E> graph;
+   private final ForkJoinPool pool;
+   private int grainSize = DEFAULT_GRAIN_SIZE;
+
+   private VertexIndex<V> vertexIndex;
+   private int[] labels;
+   private int componentCount;
+
+   public ParallelConnectivity(Graph<V, E> graph) {
+      this(graph, ForkJoinPool.commonPool());
+   }
+
+   public ParallelConnectivity(Graph<V, E> graph, ForkJoinPool pool) {
+      this.graph = graph;
+      this.pool = pool;
+   }
+
+   /**
+    * @param grainSize The number of edges or vertices processed by a single
+    * task, below which a range is processed without forking.
+    */
+   void setGrainSize(int grainSize) {
+      this.grainSize = grainSize;
+   }
+
+   public int getComponents() {
+      lazyImpl();
+      return componentCount;
+   }
+
+   public int getComponent(V vertex) {
+      lazyImpl();
+      int index = vertexIndex.getIndex(vertex);
+      if (index < 0) {
+         throw new GraphArgumentException(graph,
+                 new NoSuchElementException("Vertex not found."));
+      }
+      return labels[index];
+   }
+
+   public boolean isConnected() {
+      return getComponents() == 1;
+   }
+
+   private void lazyImpl() {
+      if (labels != null) {
+         return;
+      }
+
+      vertexIndex = GraphIndices.getVertexIndex(graph);
+      int vertexCount = vertexIndex.getVertexCount();
+
+      final AtomicIntegerArray parents = new AtomicIntegerArray(vertexCount);
+      pool.invoke(new RangeTask(0, vertexCount, grainSize, u -> parents.set(u, u)));
+
+      final Object[] edges = graph.edgeSet().toArray();
+      pool.invoke(new RangeTask(0, edges.length, grainSize, i -> {
+         @SuppressWarnings("unchecked")
+         E edge = (E) edges[i];
+         link(parents, vertexIndex.getIndex(graph.getEdgeSource(edge)),
+                 vertexIndex.getIndex(graph.getEdgeTarget(edge)));
+      }));
+
+      pool.invoke(new RangeTask(0, vertexCount, grainSize, u -> compress(parents, u)));
+
+      // Roots are the lowest index in each component, so they are met in
+      // the order the components first appear in the vertex set
+      labels = new int[vertexCount];
+      componentCount = 0;
+      for (int u = 0; u < vertexCount; ++u) {
+         int root = parents.get(u);
+         labels[u] = root == u ? ++componentCount : labels[root];
+      }
+   }
+
+   /**
+    * Hook the root of the higher indexed tree under the other root.
+    */
+   private static void link(AtomicIntegerArray parents, int u, int v) {
+      int uParent = parents.get(u);
+      int vParent = parents.get(v);
+      while (uParent != vParent) {
+         int high = Math.max(uParent, vParent);
+         int low = Math.min(uParent, vParent);
+         int highParent = parents.get(high);
+         if (highParent == low
+                 || (highParent == high && parents.compareAndSet(high, high, low))) {
+            return;
+         }
+         uParent = parents.get(highParent);
+         vParent = parents.get(low);
+      }
+   }
+
+   private static void compress(AtomicIntegerArray parents, int u) {
+      int parent = parents.get(u);
+      while (parent != parents.get(parent)) {
+         parent = parents.get(parent);
+      }
+      parents.set(u, parent);
+   }
+}
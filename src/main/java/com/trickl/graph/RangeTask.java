@@ -0,0 +1,64 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Applies an action to every index in a range on a fork join pool, halving
+ * the range until it is no larger than the grain size.
+ * @author tgee
+ */
+final class RangeTask extends RecursiveAction {
+
+   private final int from;
+   private final int to;
+   private final int grainSize;
+   private final IntConsumer action;
+
+   /**
+    * @param from The first index
+    * @param to One past the last index
+    * @param grainSize The number of indices processed by a single task
+    * @param action The action applied to each index, which must be safe to
+    * run from several threads at once
+    */
+   RangeTask(int from, int to, int grainSize, IntConsumer action) {
+      this.from = from;
+      this.to = to;
+      this.grainSize = grainSize;
+      this.action = action;
+   }
+
+   @Override
+   protected void compute() {
+      if (to - from <= grainSize) {
+         for (int i = from; i < to; ++i) {
+            action.accept(i);
+         }
+      } else {
+         int middle = (from + to) >>> 1;
+         invokeAll(new RangeTask(from, middle, grainSize, action),
+                 new RangeTask(middle, to, grainSize, action));
+      }
+   }
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+/**
+ * The mean and variance of a stream of values, accumulated in a single pass
+ * by Welford's method, which avoids the cancellation of summing squares.
+ * Accumulators for separate parts of a stream may be merged.
+ * @author tgee
+ */
+public class RunningVariance {
+
+   private long count;
+   private double mean;
+   private double sumOfSquaredDeviations;
+
+   public void add(double value) {
+      ++count;
+      double delta = value - mean;
+      mean += delta / count;
+      sumOfSquaredDeviations += delta * (value - mean);
+   }
+
+   /**
+    * Combine the values accumulated by another instance with these.
+    * @param other The other accumulator
+    */
+   public void merge(RunningVariance other) {
+      if (other.count == 0) {
+         return;
+      }
+
+      long total = count + other.count;
+      double delta = other.mean - mean;
+      sumOfSquaredDeviations += other.sumOfSquaredDeviations
+              + delta * delta * ((double) count * other.count / total);
+      mean += delta * other.count / total;
+      count = total;
+   }
+
+   public long getCount() {
+      return count;
+   }
+
+   public double getMean() {
+      return mean;
+   }
+
+   /**
+    * @return The sample variance, with n - 1 degrees of freedom
+    */
+   public double getVariance() {
+      return count > 1 ? sumOfSquaredDeviations / (count - 1) : 0;
+   }
+
+   public double getStandardDeviation() {
+      return Math.sqrt(getVariance());
+   }
+}
@@ -0,0 +1,162 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import cern.colt.function.IntIntDoubleFunction;
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealLinearOperator;
+import org.apache.commons.math3.linear.RealVector;
+
+/**
+ * The kernel K = sI - L, for a Laplacian L and a shift s, as a view of the
+ * Laplacian rather than a copy.
+ *
+ * Entries are read from the compressed rows of the Laplacian and products
+ * are computed from them directly, so the kernel costs no memory beyond the
+ * Laplacian. Writes pass through to the Laplacian, and so are limited to its
+ * stored entries.
+ * @author tgee
+ */
+public class ShiftedLaplacianKernel extends AbstractLargeMatrix {
+
+   private final CompressedRowMatrix laplacian;
+   private final double shift;
+
+   /**
+    * @param laplacian The Laplacian
+    * @param shift The multiple of the identity the Laplacian is subtracted
+    * from
+    */
+   public ShiftedLaplacianKernel(CompressedRowMatrix laplacian, double shift) {
+      super(laplacian.rows(), laplacian.columns());
+      if (laplacian.rows() != laplacian.columns()) {
+         throw new DimensionMismatchException(laplacian.columns(), laplacian.rows());
+      }
+      this.laplacian = laplacian;
+      this.shift = shift;
+   }
+
+   public CompressedRowMatrix getLaplacian() {
+      return laplacian;
+   }
+
+   public double getShift() {
+      return shift;
+   }
+
+   /**
+    * @return The kernel as an operator on vectors, for algorithms that
+    * only need products with the kernel
+    */
+   public RealLinearOperator getOperator() {
+      return new RealLinearOperator() {
+
+         @Override
+         public int getRowDimension() {
+            return laplacian.rows();
+         }
+
+         @Override
+         public int getColumnDimension() {
+            return laplacian.columns();
+         }
+
+         @Override
+         public RealVector operate(RealVector x) {
+            if (x.getDimension() != laplacian.columns()) {
+               throw new DimensionMismatchException(x.getDimension(), laplacian.columns());
+            }
+            double[] y = new double[laplacian.rows()];
+            multiply(x.toArray(), y);
+            return new ArrayRealVector(y, false);
+         }
+      };
+   }
+
+   /**
+    * Multiply the kernel by a vector, y = Kx, ignoring any view.
+    * @param x The vector to multiply
+    * @param y The result, which must not be x
+    */
+   public void multiply(double[] x, double[] y) {
+      laplacian.multiply(x, y);
+      for (int i = 0; i < y.length; ++i) {
+         y[i] = shift * x[i] - y[i];
+      }
+   }
+
+   @Override
+   public DoubleMatrix2D forEachNonZero(IntIntDoubleFunction function) {
+      if (!isNoView) {
+         return super.forEachNonZero(function);
+      }
+
+      for (int i = 0; i < rows; ++i) {
+         boolean diagonalStored = false;
+         for (int k = laplacian.getRowStart(i); k < laplacian.getRowEnd(i); ++k) {
+            int j = laplacian.getColumnIndex(k);
+            diagonalStored |= i == j;
+            double value = (i == j ? shift : 0) - laplacian.getValue(k);
+            if (value != 0) {
+               double result = function.apply(i, j, value);
+               if (result != value) {
+                  setStored(i, j, result);
+               }
+            }
+         }
+
+         if (!diagonalStored && shift != 0) {
+            double result = function.apply(i, i, shift);
+            if (result != shift) {
+               setStored(i, i, result);
+            }
+         }
+      }
+      return this;
+   }
+
+   @Override
+   public DoubleMatrix1D zMult(DoubleMatrix1D y, DoubleMatrix1D z, double alpha, double beta, boolean transposeA) {
+      if (!isNoView) {
+         return super.zMult(y, z, alpha, beta, transposeA);
+      }
+
+      // alpha (sI - L) y + beta z = alpha s y - alpha L y + beta z
+      z = laplacian.zMult(y, z, -alpha, beta, transposeA);
+      for (int i = 0; i < z.size(); ++i) {
+         z.setQuick(i, z.getQuick(i) + alpha * shift * y.getQuick(i));
+      }
+      return z;
+   }
+
+   @Override
+   protected double getStored(int row, int column) {
+      return (row == column ? shift : 0) - laplacian.getQuick(row, column);
+   }
+
+   @Override
+   protected void setStored(int row, int column, double value) {
+      laplacian.setQuick(row, column, (row == column ? shift : 0) - value);
+   }
+}
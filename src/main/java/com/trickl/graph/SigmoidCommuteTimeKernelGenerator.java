@@ -22,14 +22,21 @@ package com.trickl.graph;
 
 import cern.colt.matrix.DoubleMatrix2D;
 import cern.colt.matrix.impl.DenseDoubleMatrix2D;
+import cern.jet.random.engine.MersenneTwister;
+import cern.jet.random.engine.RandomEngine;
 import com.trickl.matrix.MoorePenrosePseudoInverseAlgorithm;
 import com.trickl.matrix.MoorePenrosePseudoInverseBySVD;
-import hep.aida.bin.StaticBin1D;
+import java.util.concurrent.ForkJoinPool;
 import org.jgrapht.Graph;
 
 /* See Affinity Measures based on the Graph Laplacian */
 /* Rao, Yarowsky, Callison-Burch cs.jhu.edu */
-/* This is a dense kernel with O(N^2) elements for N vertices */
+/* This is a dense kernel with O(N^2) elements for N vertices, unless it is */
+/* lazy, when entries are computed as they are read. Either way the entries */
+/* are produced in blocks, in parallel, with O(block^2) memory per thread */
+/* The pseudo-inverse is found by SVD in O(N^3) time, unless an embedding */
+/* dimension is set, when it is approximated by a commute time embedding */
+/* computed with O(N) memory per dimension by conjugate gradient solves */
 public class SigmoidCommuteTimeKernelGenerator<V, E> implements VertexKernelGenerator<V, E> {
 
    private DoubleMatrix2D kernel;
@@ -37,9 +44,21 @@ public class SigmoidCommuteTimeKernelGenerator<V, E> implements VertexKernelGene
    private MoorePenrosePseudoInverseAlgorithm pseudoInverseAlgorithm
            = new MoorePenrosePseudoInverseBySVD();
 
+   private static final int DEFAULT_BLOCK_SIZE = 256;
+
+   private final ForkJoinPool pool;
    private double sharpnessFactor = -3.0;
+   private int embeddingDimension;
+   private RandomEngine randomEngine = new MersenneTwister();
+   private boolean lazy;
+   private int blockSize = DEFAULT_BLOCK_SIZE;
 
    public SigmoidCommuteTimeKernelGenerator() {
+      this(ForkJoinPool.commonPool());
+   }
+
+   public SigmoidCommuteTimeKernelGenerator(ForkJoinPool pool) {
+      this.pool = pool;
    }
 
    @Override
@@ -49,21 +68,41 @@ public class SigmoidCommuteTimeKernelGenerator<V, E> implements VertexKernelGene
 
          // The laplacian has rank n-1, i.e. it is rank-deficient. So
          // We need the Moore-Penrose pseudo-inverse
-         DoubleMatrix2D L = laplacian.getLaplacian();
-         DoubleMatrix2D K = pseudoInverseAlgorithm.inverse(L);
-         StaticBin1D kBin = new StaticBin1D();
-         for (int i = 0; i < K.rows(); ++i) {
-            for (int j = 0; j < K.columns(); ++j) {
-               kBin.add(K.getQuick(i, j));
-            }             
+         DoubleMatrix2D K;
+         if (embeddingDimension > 0) {
+            LaplacianSolver solver = new LaplacianSolver(laplacian.getCompressedLaplacian());
+            K = new CommuteTimeEmbedding(solver, embeddingDimension, randomEngine).getPseudoInverseMatrix();
+         } else {
+            K = pseudoInverseAlgorithm.inverse(laplacian.getLaplacian());
          }
-         double std = kBin.standardDeviation();
 
-         kernel = new DenseDoubleMatrix2D(K.rows(), K.columns());
-         for (int i = 0; i < K.rows(); ++i) {
-            for (int j = 0; j < K.columns(); ++j) {
-               kernel.setQuick(i, j, 1 / (1 + Math.exp(sharpnessFactor * K.getQuick(i, j) / std)));
+         // Accumulate the variance by block, merging in block order so the
+         // result does not depend on the scheduling
+         final int blockColumns = (K.columns() + blockSize - 1) / blockSize;
+         final RunningVariance[] blockVariances = new RunningVariance[MatrixBlocks.getBlockCount(K, blockSize)];
+         MatrixBlocks.forEachBlock(K, blockSize, (rowStart, columnStart, block) -> {
+            RunningVariance blockVariance = new RunningVariance();
+            for (int i = 0; i < block.rows(); ++i) {
+               for (int j = 0; j < block.columns(); ++j) {
+                  blockVariance.add(block.getQuick(i, j));
+               }
             }
+            blockVariances[(rowStart / blockSize) * blockColumns + columnStart / blockSize] = blockVariance;
+         }, pool);
+         RunningVariance variance = new RunningVariance();
+         for (RunningVariance blockVariance : blockVariances) {
+            variance.merge(blockVariance);
+         }
+         double std = variance.getStandardDeviation();
+
+         SigmoidKernelMatrix sigmoidKernel = new SigmoidKernelMatrix(K, sharpnessFactor / std);
+         if (lazy) {
+            kernel = sigmoidKernel;
+         } else {
+            final DoubleMatrix2D denseKernel = new DenseDoubleMatrix2D(K.rows(), K.columns());
+            MatrixBlocks.forEachBlock(sigmoidKernel, blockSize, (rowStart, columnStart, block)
+                    -> denseKernel.viewPart(rowStart, columnStart, block.rows(), block.columns()).assign(block), pool);
+            kernel = denseKernel;
          }
       }
 
@@ -95,4 +134,62 @@ public class SigmoidCommuteTimeKernelGenerator<V, E> implements VertexKernelGene
    public void setPseudoInverseAlgorithm(MoorePenrosePseudoInverseAlgorithm pseudoInverseAlgorithm) {
       this.pseudoInverseAlgorithm = pseudoInverseAlgorithm;
    }
+
+   public int getEmbeddingDimension() {
+      return embeddingDimension;
+   }
+
+   /**
+    * @param embeddingDimension The number of random projections used to
+    * approximate the pseudo-inverse of the Laplacian, or zero to compute it
+    * exactly
+    */
+   public void setEmbeddingDimension(int embeddingDimension) {
+      this.embeddingDimension = embeddingDimension;
+   }
+
+   public RandomEngine getRandomEngine() {
+      return randomEngine;
+   }
+
+   public void setRandomEngine(RandomEngine randomEngine) {
+      this.randomEngine = randomEngine;
+   }
+
+   public boolean isLazy() {
+      return lazy;
+   }
+
+   /**
+    * @param lazy True for a kernel that computes each entry from the
+    * pseudo-inverse as it is read, rather than a dense matrix
+    */
+   public void setLazy(boolean lazy) {
+      this.lazy = lazy;
+   }
+
+   public int getBlockSize() {
+      return blockSize;
+   }
+
+   public void setBlockSize(int blockSize) {
+      this.blockSize = blockSize;
+   }
+
+   private static final class SigmoidKernelMatrix extends LazyKernelMatrix {
+
+      private final DoubleMatrix2D pseudoInverse;
+      private final double scale;
+
+      SigmoidKernelMatrix(DoubleMatrix2D pseudoInverse, double scale) {
+         super(pseudoInverse.rows());
+         this.pseudoInverse = pseudoInverse;
+         this.scale = scale;
+      }
+
+      @Override
+      protected double getStored(int row, int column) {
+         return 1 / (1 + Math.exp(scale * pseudoInverse.getQuick(row, column)));
+      }
+   }
 }
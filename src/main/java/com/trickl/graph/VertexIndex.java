@@ -0,0 +1,42 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+/**
+ * A mapping between the vertices of a graph and the dense integers
+ * 0 to getVertexCount() - 1, so algorithms can hold per vertex state in
+ * flat arrays instead of maps.
+ * @author tgee
+ * @param <V> Vertex type
+ * @see GraphIndices
+ */
+public interface VertexIndex<V> {
+
+   int getVertexCount();
+
+   /**
+    * @param vertex The vertex
+    * @return The index of the vertex, or -1 if it is not indexed
+    */
+   int getIndex(V vertex);
+
+   V getVertex(int index);
+}
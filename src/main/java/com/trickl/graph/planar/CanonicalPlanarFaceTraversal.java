@@ -32,9 +32,21 @@ import org.jgrapht.Graphs;
 public class CanonicalPlanarFaceTraversal<V, E> implements PlanarFaceTraversal<V, E> {
 
    protected PlanarGraph<V, E> graph;
+   private final boolean useOverlay;
 
    public CanonicalPlanarFaceTraversal(PlanarGraph<V, E> graph) {
+      this(graph, false);
+   }
+
+   /**
+    * @param graph The graph to traverse
+    * @param useOverlay If true the graph is made maximal planar in an overlay
+    * holding only the added edges, rather than in a full copy. The copy is
+    * rebuilt by a face traversal, so the two may give different orders.
+    */
+   public CanonicalPlanarFaceTraversal(PlanarGraph<V, E> graph, boolean useOverlay) {
       this.graph = graph;
+      this.useOverlay = useOverlay;
    }
 
    @Override
@@ -55,7 +67,9 @@ public class CanonicalPlanarFaceTraversal<V, E> implements PlanarFaceTraversal<V
       }
 
       // Need a triconnected graph to determine the canonical order
-      PlanarGraph<V, E> maximalGraphCopy = new DoublyConnectedEdgeList<V, E, Object>(graph, Object.class);
+      PlanarGraph<V, E> maximalGraphCopy = useOverlay
+              ? new PlanarOverlayGraph<V, E>(graph)
+              : new DoublyConnectedEdgeList<V, E, Object>(graph, Object.class);
       MaximalPlanar<V, E> maximalPlanar = new MaximalPlanar<V, E>();
       maximalPlanar.makeMaximalPlanar(maximalGraphCopy);
 
@@ -51,9 +51,22 @@ public class ChrobakPayneLayout<V, E> implements PlanarLayout<V> {
    }
       
    public ChrobakPayneLayout(PlanarGraph<V, E> graph, double scale) {
+      this(graph, scale, false);
+   }
+
+   /**
+    * @param graph The graph to lay out
+    * @param scale The distance between grid points
+    * @param useOverlay If true the graph is made maximal planar in an overlay
+    * holding only the added edges, rather than in a full copy. The copy is
+    * rebuilt by a face traversal, so the two may give different layouts.
+    */
+   public ChrobakPayneLayout(PlanarGraph<V, E> graph, double scale, boolean useOverlay) {
       // This feels hacky. Having to make a copy of the graph so we can
       // make it maximal planar and get a canonical ordering for the algorithm
-      DoublyConnectedEdgeList<V, E, Object> graphCopy = new DoublyConnectedEdgeList<V, E, Object>(graph, Object.class);
+      PlanarGraph<V, E> graphCopy = useOverlay
+              ? new PlanarOverlayGraph<V, E>(graph)
+              : new DoublyConnectedEdgeList<V, E, Object>(graph, Object.class);
       MaximalPlanar<V, E> maximalPlanar = new MaximalPlanar<V, E>();
       maximalPlanar.makeMaximalPlanar(graphCopy);
       ordering = new MaximalPlanarCanonicalOrdering<V, E>();
@@ -0,0 +1,1143 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.trickl.graph.GraphArgumentException;
+import com.trickl.graph.edges.DirectedEdge;
+import java.io.Serializable;
+import java.util.*;
+import org.jgrapht.EdgeFactory;
+import org.jgrapht.UndirectedGraph;
+import org.jgrapht.graph.ClassBasedEdgeFactory;
+
+/**
+ * A doubly connected edge list that stores the half-edge structure in
+ * parallel primitive arrays rather than as linked objects.
+ *
+ * Half-edges are identified by dense integer handles, with the two halves
+ * of an edge stored as an adjacent pair (h, h ^ 1). The origin, next, prev
+ * and face of each half-edge are held in int arrays, the user vertex, edge
+ * and face objects are only kept in side tables. The embedding behaviour
+ * (rotation order, face creation and merging) matches DoublyConnectedEdgeList,
+ * so the two can be used interchangeably.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ * @param <F> Face type
+ */
+public class CompactDoublyConnectedEdgeList<V, E, F>
+        implements PlanarFaceGraph<V, E, F>,
+        UndirectedGraph<V, E>,
+        Serializable {
+
+   private static final int NONE = -1;
+   private static final int INITIAL_CAPACITY = 16;
+
+   private EdgeFactory<V, E> edgeFactory;
+   private FaceFactory<V, F> faceFactory;
+
+   // Side tables, mapping user objects to their dense handles
+   private final Map<V, Integer> vertexMap;
+   private final Map<E, Integer> edgeMap;
+   private final Map<F, Integer> faceMap;
+
+   // Vertex arrays
+   private Object[] vertices;
+   private int[] leaving;
+   private int[] degree;
+   private int vertexCount;
+   private int[] freeVertices;
+   private int freeVertexCount;
+
+   // Half-edge arrays, the twin of h is always h ^ 1
+   private Object[] edges;
+   private int[] origin;
+   private int[] next;
+   private int[] prev;
+   private int[] face;
+   private int edgeCount;
+   private int[] freeEdges;
+   private int freeEdgeCount;
+
+   // Face arrays
+   private Object[] faces;
+   private int[] adjacent;
+   private boolean[] boundary;
+   private int faceCount;
+   private int[] freeFaces;
+   private int freeFaceCount;
+   private int boundaryFace = NONE;
+
+   public CompactDoublyConnectedEdgeList(PlanarGraph<V, E> graph, Class<? extends F> faceClass) {
+      this(graph, new ClassBasedFaceFactory<V, F>(faceClass));
+   }
+
+   public CompactDoublyConnectedEdgeList(PlanarGraph<V, E> graph, FaceFactory<V, F> faceFactory) {
+      this(graph.getEdgeFactory(), faceFactory);
+      PlanarGraphs.copy(graph, this, null, null);
+   }
+
+   public CompactDoublyConnectedEdgeList(Class<? extends E> edgeClass, Class<? extends F> faceClass) {
+      this(new ClassBasedEdgeFactory<V, E>(edgeClass), faceClass);
+   }
+
+   public CompactDoublyConnectedEdgeList(EdgeFactory<V, E> edgeFactory, Class<? extends F> faceClass) {
+      this(edgeFactory, new ClassBasedFaceFactory<V, F>(faceClass));
+   }
+
+   public CompactDoublyConnectedEdgeList(EdgeFactory<V, E> edgeFactory, FaceFactory<V, F> faceFactory) {
+      this.edgeFactory = edgeFactory;
+      this.faceFactory = faceFactory;
+      vertexMap = new LinkedHashMap<V, Integer>();
+      edgeMap = new LinkedHashMap<E, Integer>();
+      faceMap = new LinkedHashMap<F, Integer>();
+
+      vertices = new Object[INITIAL_CAPACITY];
+      leaving = new int[INITIAL_CAPACITY];
+      degree = new int[INITIAL_CAPACITY];
+      freeVertices = new int[INITIAL_CAPACITY];
+
+      edges = new Object[INITIAL_CAPACITY];
+      origin = new int[2 * INITIAL_CAPACITY];
+      next = new int[2 * INITIAL_CAPACITY];
+      prev = new int[2 * INITIAL_CAPACITY];
+      face = new int[2 * INITIAL_CAPACITY];
+      freeEdges = new int[INITIAL_CAPACITY];
+
+      faces = new Object[INITIAL_CAPACITY];
+      adjacent = new int[INITIAL_CAPACITY];
+      boundary = new boolean[INITIAL_CAPACITY];
+      freeFaces = new int[INITIAL_CAPACITY];
+
+      if (faceFactory != null) {
+         F boundaryFaceObject = faceFactory.createFace(null, null, true);
+         boundaryFace = createFace(boundaryFaceObject, true);
+      }
+   }
+
+   @Override
+   public EdgeFactory<V, E> getEdgeFactory() {
+      return edgeFactory;
+   }
+
+   @Override
+   public boolean containsEdge(final V source, final V target) {
+      return getHalfEdge(source, target) != NONE;
+   }
+
+   @Override
+   public boolean containsVertex(V vertex) {
+      return vertexMap.containsKey(vertex);
+   }
+
+   /**
+    * The edges of a vertex in rotation order, as a live read-only view.
+    * @param vertex The vertex
+    * @return The incident edges, empty if the vertex is not in the graph
+    */
+   @Override
+   public Set<E> edgesOf(V vertex) {
+      final Integer vertexId = vertexMap.get(vertex);
+      if (vertexId == null) {
+         return Collections.<E>emptySet();
+      }
+
+      return new AbstractSet<E>() {
+
+         @Override
+         public Iterator<E> iterator() {
+            return new RotationIterator<E>(leaving[vertexId]) {
+
+               @Override
+               protected E get(int halfEdge) {
+                  return getEdgeObject(halfEdge);
+               }
+            };
+         }
+
+         @Override
+         public int size() {
+            return degree[vertexId];
+         }
+      };
+   }
+
+   /**
+    * The neighbours of a vertex in rotation order, as a live read-only view.
+    * @param vertex The vertex
+    * @return The adjacent vertices, empty if the vertex is not in the graph
+    */
+   public Iterable<V> neighboursOf(V vertex) {
+      final Integer vertexId = vertexMap.get(vertex);
+      if (vertexId == null) {
+         return Collections.<V>emptyList();
+      }
+
+      return new Iterable<V>() {
+
+         @Override
+         public Iterator<V> iterator() {
+            return new RotationIterator<V>(leaving[vertexId]) {
+
+               @Override
+               protected V get(int halfEdge) {
+                  return getVertexObject(origin[halfEdge ^ 1]);
+               }
+            };
+         }
+      };
+   }
+
+   public NeighbourCursor<V, E> neighbourCursor() {
+      return new CompactNeighbourCursor();
+   }
+
+   /**
+    * Get the dense index of a vertex, for use with the primitive accessors.
+    * Indices are stable until the vertex is removed.
+    * @param vertex The vertex
+    * @return The index, or -1 if the vertex is not in the graph
+    */
+   public int getVertexIndex(V vertex) {
+      Integer vertexId = vertexMap.get(vertex);
+      return vertexId == null ? NONE : vertexId;
+   }
+
+   public V getVertex(int vertexIndex) {
+      return getVertexObject(vertexIndex);
+   }
+
+   /**
+    * @param vertexIndex The vertex index
+    * @return The first half-edge leaving the vertex, or -1 if it has no edges
+    */
+   public int getLeavingHalfEdge(int vertexIndex) {
+      return leaving[vertexIndex];
+   }
+
+   /**
+    * @param halfEdge A half-edge leaving a vertex
+    * @return The following half-edge leaving the same vertex in rotation order,
+    * this wraps around to the leaving half-edge.
+    */
+   public int getNextLeavingHalfEdge(int halfEdge) {
+      return next[halfEdge ^ 1];
+   }
+
+   public int getHalfEdgeTarget(int halfEdge) {
+      return origin[halfEdge ^ 1];
+   }
+
+   public E getHalfEdgeEdge(int halfEdge) {
+      return getEdgeObject(halfEdge);
+   }
+
+   @Override
+   public int degreeOf(V vertex) {
+      Integer vertexId = vertexMap.get(vertex);
+      if (vertexId == null) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Vertex not found."));
+      }
+      return degree[vertexId];
+   }
+
+   @Override
+   public Set<E> getAllEdges(V source, V target) {
+      HashSet<E> allEdges = new HashSet<E>();
+      E edge = getEdge(source, target);
+      if (edge != null) {
+         allEdges.add(edge);
+      }
+      return allEdges;
+   }
+
+   @Override
+   public E getEdge(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE) {
+         return null;
+      }
+      return getEdgeObject(halfEdge);
+   }
+
+   @Override
+   public boolean containsEdge(E edge) {
+      return edgeMap.containsKey(edge);
+   }
+
+   @Override
+   public Set<E> edgeSet() {
+      return edgeMap.keySet();
+   }
+
+   @Override
+   public Set<V> vertexSet() {
+      return vertexMap.keySet();
+   }
+
+   @Override
+   public Set<F> faceSet() {
+      return faceMap.keySet();
+   }
+
+   @Override
+   public V getEdgeSource(E edge) {
+      Integer halfEdge = edgeMap.get(edge);
+      if (halfEdge == null) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Edge not found."));
+      }
+      return getVertexObject(origin[halfEdge]);
+   }
+
+   @Override
+   public V getEdgeTarget(E edge) {
+      Integer halfEdge = edgeMap.get(edge);
+      if (halfEdge == null) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Edge not found."));
+      }
+      return getVertexObject(origin[halfEdge ^ 1]);
+   }
+
+   @Override
+   public double getEdgeWeight(E e) {
+      return 1.0;
+   }
+
+   @Override
+   public DirectedEdge<V> getBoundary() {
+      int boundaryAdjacent = adjacent[boundaryFace];
+      if (boundaryAdjacent == NONE) {
+         // Graph contains zero edges
+         if (vertexMap.isEmpty()) {
+            return new DirectedEdge<V>(null, null);
+         } else {
+            return new DirectedEdge<V>(vertexMap.keySet().iterator().next(), null);
+         }
+      }
+      return new DirectedEdge<V>(getVertexObject(origin[boundaryAdjacent]),
+              getVertexObject(origin[next[boundaryAdjacent]]));
+   }
+
+   public V getNextVertexOnBoundary(V vertex) {
+      int halfEdge = getBoundaryHalfEdge(vertex);
+      return getVertexObject(origin[next[halfEdge]]);
+   }
+
+   public V getPrevVertexOnBoundary(V vertex) {
+      int halfEdge = getBoundaryHalfEdge(vertex);
+      return getVertexObject(origin[prev[halfEdge]]);
+   }
+
+   private int getBoundaryHalfEdge(V vertex) {
+      Integer vertexId = vertexMap.get(vertex);
+      int start = adjacent[boundaryFace];
+      if (vertexId != null && start != NONE) {
+         int halfEdge = start;
+         int steps = 0;
+         do {
+            checkWalk(++steps);
+            if (origin[halfEdge] == vertexId) {
+               return halfEdge;
+            }
+            halfEdge = next[halfEdge];
+         } while (halfEdge != start);
+      }
+      throw new GraphArgumentException(this,
+              new NoSuchElementException("Vertex not found on boundary."));
+   }
+
+   @Override
+   public V getNextVertex(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Edge not found."));
+      }
+      return getVertexObject(origin[next[next[halfEdge]]]);
+   }
+
+   @Override
+   public V getPrevVertex(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Edge not found."));
+      }
+      return getVertexObject(origin[prev[halfEdge]]);
+   }
+
+   @Override
+   public boolean isBoundary(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Edge not found."));
+      }
+      return boundary[face[halfEdge]];
+   }
+
+   public boolean isVertexBoundary(V vertex) {
+      Integer vertexId = vertexMap.get(vertex);
+      if (vertexId == null) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Vertex not found."));
+      }
+      int start = leaving[vertexId];
+      if (start != NONE) {
+         int halfEdge = start;
+         int steps = 0;
+         do {
+            checkWalk(++steps);
+            if (boundary[face[halfEdge]]) {
+               return true;
+            }
+            halfEdge = next[halfEdge ^ 1];
+         } while (halfEdge != start);
+      }
+      return false;
+   }
+
+   @Override
+   public F getFace(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE) {
+         return null;
+      }
+      return getFaceObject(face[halfEdge]);
+   }
+
+   @Override
+   public E addEdge(V source, V target) {
+      return addEdge(source, target, (V) null, (V) null);
+   }
+
+   @Override
+   public boolean addEdge(V source, V target, E edge) {
+      return addEdge(source, target, null, null, edge);
+   }
+
+   @Override
+   public E addEdge(V sourceVertex, V targetVertex, V beforeVertex, V afterVertex) {
+      E edge = edgeFactory.createEdge(sourceVertex, targetVertex);
+      addEdge(sourceVertex, targetVertex, beforeVertex, afterVertex, edge);
+      return edge;
+   }
+
+   /**
+    * An an edge to the DCEL.
+    * Note that the DCEL is undirected, so this will add two half-edges and
+    * attempt to do so in a way that leaves the DCEL in a safe-traversable state.
+    * @param sourceVertex
+    * @param targetVertex
+    * @param beforeVertex
+    * @param afterVertex
+    * @param e
+    * @return
+    */
+   @Override
+   public boolean addEdge(V sourceVertex, V targetVertex, V beforeVertex, V afterVertex, E e) {
+
+      if (containsEdge(sourceVertex, targetVertex)) {
+         return false;
+      }
+
+      Integer existing = edgeMap.get(e);
+      if (existing != null) {
+         throw new GraphArgumentException(this,
+                 new IllegalArgumentException("Cannot redefine an existing edge"
+                         + getEdgeObject(existing) + " as " + e.toString()));
+      }
+
+      addVertex(sourceVertex);
+      addVertex(targetVertex);
+
+      int source = vertexMap.get(sourceVertex);
+      int target = vertexMap.get(targetVertex);
+      int beforeEdge = NONE;
+      if (beforeVertex != null) {
+         Integer before = vertexMap.get(beforeVertex);
+         if (before != null) {
+            beforeEdge = getHalfEdge(before, source);
+         }
+         if (beforeEdge == NONE) {
+            throw new GraphArgumentException(this,
+                    new NoSuchElementException("Before ("
+                            + beforeVertex.toString()
+                            + ") to ("
+                            + sourceVertex.toString()
+                            + ") source edge not found"));
+         }
+      }
+
+      int afterEdge = NONE;
+      if (afterVertex != null) {
+         Integer after = vertexMap.get(afterVertex);
+         if (after != null) {
+            afterEdge = getHalfEdge(target, after);
+         }
+         if (afterEdge == NONE) {
+            throw new GraphArgumentException(this,
+                    new NoSuchElementException("Target ("
+                            + targetVertex.toString()
+                            + ") to ("
+                            + afterVertex.toString()
+                            + ") after edge not found"));
+         }
+
+         if (beforeEdge != NONE
+                 && face[beforeEdge] != face[afterEdge]) {
+            throw new GraphArgumentException(this,
+                    new NoSuchElementException("Before ("
+                            + beforeVertex.toString()
+                            + ") and ("
+                            + afterVertex.toString()
+                            + ") after edges must share a face"));
+         }
+      }
+
+      if (leaving[source] != NONE
+              && beforeEdge == NONE) {
+         // Source has edges, set the before edge
+         beforeEdge = leaving[source] ^ 1;
+      }
+
+      if (leaving[target] != NONE
+              && afterEdge == NONE) {
+         // Target has edges, set the after edge
+         if (beforeEdge == NONE) {
+            afterEdge = leaving[target];
+         } else {
+            int start = leaving[target];
+            int halfEdge = start;
+            int steps = 0;
+            do {
+               checkWalk(++steps);
+               if (face[halfEdge] == face[beforeEdge]) {
+                  afterEdge = halfEdge;
+                  break;
+               }
+               halfEdge = next[halfEdge ^ 1];
+            } while (halfEdge != start);
+
+            if (afterEdge == NONE) {
+               // Must maintain planarity
+               throw new NoSuchElementException("Target, source and before must share a face.");
+            }
+         }
+      }
+
+      // Check if a closed face is formed by the addition of this edge
+      // i.e. is after edge already connected to before edge?
+      F createdFace = null;
+      if (afterEdge != NONE) {
+         int halfEdge = afterEdge;
+         int steps = 0;
+         do {
+            checkWalk(++steps);
+            if (halfEdge == beforeEdge) {
+               createdFace = faceFactory.createFace(sourceVertex, targetVertex, false);
+            }
+            halfEdge = next[halfEdge];
+         } while (halfEdge != afterEdge);
+      }
+
+      /* Everything seems okay, we should be able to create this edge */
+      int createdEdge = createHalfEdgePair(e);
+      int createdTwin = createdEdge ^ 1;
+
+      // Set the edge next pointers
+      if (beforeEdge == NONE) {
+         link(createdTwin, createdEdge);
+      } else {
+         link(createdTwin, next[beforeEdge]);
+         link(beforeEdge, createdEdge);
+      }
+
+      if (afterEdge == NONE) {
+         link(createdEdge, createdTwin);
+      } else {
+         int afterPrev = prev[afterEdge];
+         link(createdEdge, afterEdge);
+         link(afterPrev, createdTwin);
+      }
+
+      // Set the edge faces
+      if (beforeEdge == NONE && afterEdge == NONE) {
+         face[createdEdge] = boundaryFace;
+         face[createdTwin] = boundaryFace;
+         adjacent[boundaryFace] = createdTwin;
+      } else if (beforeEdge == NONE) {
+         int afterFace = face[afterEdge];
+         face[createdEdge] = afterFace;
+         face[createdTwin] = afterFace;
+         adjacent[afterFace] = createdTwin;
+      } else if (afterEdge == NONE) {
+         int beforeFace = face[beforeEdge];
+         face[createdEdge] = beforeFace;
+         face[createdTwin] = beforeFace;
+         adjacent[beforeFace] = createdTwin;
+      } else {
+         int nextFace = face[next[createdEdge]];
+         face[createdTwin] = nextFace;
+         adjacent[nextFace] = createdTwin;
+         if (createdFace != null) {
+            // By convention, the before -> edge -> after all belong to the new face
+            // if one is formed
+            int newFace = createFace(createdFace, false);
+            int halfEdge = createdEdge;
+            int steps = 0;
+            do {
+               checkWalk(++steps);
+               face[halfEdge] = newFace;
+               adjacent[newFace] = halfEdge;
+               halfEdge = next[halfEdge];
+            } while (halfEdge != createdEdge);
+         } else {
+            int twinNextFace = face[next[createdTwin]];
+            face[createdEdge] = twinNextFace;
+            adjacent[twinNextFace] = createdEdge;
+         }
+      }
+
+      // The most recently created edge becomes the leaving edge, which
+      // determines the start of the rotation when no before edge is given.
+      origin[createdEdge] = source;
+      leaving[source] = createdEdge;
+      origin[createdTwin] = target;
+      leaving[target] = createdTwin;
+      ++degree[source];
+      ++degree[target];
+
+      edgeMap.put(e, createdEdge);
+
+      assert (isFaceConsistent(createdEdge)) : "Face mismatch, edge: " + createdEdge;
+      assert (isFaceConsistent(createdTwin)) : "Face mismatch, edge: " + createdTwin;
+
+      return true;
+   }
+
+   private boolean isFaceConsistent(int start) {
+      int halfEdge = start;
+      int steps = 0;
+      do {
+         checkWalk(++steps);
+         if (face[halfEdge] != face[start]) {
+            return false;
+         }
+         halfEdge = next[halfEdge];
+      } while (halfEdge != start);
+
+      return true;
+   }
+
+   @Override
+   public boolean addVertex(V vertex) {
+      if (!vertexMap.containsKey(vertex)) {
+         vertexMap.put(vertex, createVertex(vertex));
+         return true;
+      }
+      return false;
+   }
+
+   @Override
+   public boolean removeAllEdges(Collection<? extends E> edges) {
+      boolean changed = false;
+      for (E edge : edges) {
+         changed |= removeEdge(edge);
+      }
+      return changed;
+   }
+
+   @Override
+   public Set<E> removeAllEdges(V source, V target) {
+      Set<E> removed = new HashSet<E>();
+      E edge = removeEdge(source, target);
+      if (edge != null) {
+         removed.add(edge);
+      }
+      return removed;
+   }
+
+   @Override
+   public boolean removeAllVertices(Collection<? extends V> vertices) {
+      boolean changed = false;
+      for (V vertex : vertices) {
+         changed |= removeVertex(vertex);
+      }
+      return changed;
+   }
+
+   @Override
+   public E removeEdge(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE) {
+         return null;
+      }
+
+      E edge = getEdgeObject(halfEdge);
+      removeEdge(edge);
+      return edge;
+   }
+
+   @Override
+   public boolean removeEdge(E edge) {
+      Integer halfEdge = edgeMap.remove(edge);
+      if (halfEdge == null) {
+         return false;
+      }
+
+      int source = origin[halfEdge];
+      int target = origin[halfEdge ^ 1];
+      int edgeFace = face[halfEdge];
+      int opposingFace = face[halfEdge ^ 1];
+
+      if (boundary[edgeFace]) {
+         // Maintain the same boundary face
+         removeHalfEdgePair(halfEdge ^ 1);
+      } else {
+         removeHalfEdgePair(halfEdge);
+      }
+
+      // Remove any disconnected vertices
+      if (leaving[source] == NONE) {
+         removeVertexHandle(source);
+      }
+      if (target != source && leaving[target] == NONE) {
+         removeVertexHandle(target);
+      }
+
+      // Remove any disconnected faces
+      if (adjacent[edgeFace] == NONE
+              && !boundary[edgeFace]) {
+         removeFaceHandle(edgeFace);
+      }
+
+      if (opposingFace != edgeFace
+              && adjacent[opposingFace] == NONE
+              && !boundary[opposingFace]) {
+         removeFaceHandle(opposingFace);
+      }
+
+      return true;
+   }
+
+   @Override
+   public boolean removeVertex(V vertex) {
+      Integer vertexId = vertexMap.get(vertex);
+      if (vertexId == null) {
+         return false;
+      }
+
+      // Get a copy of the edges as removal invalidates the rotation
+      for (E edge : new ArrayList<E>(edgesOf(vertex))) {
+         removeEdge(edge);
+      }
+
+      if (vertexMap.containsKey(vertex)) {
+         removeVertexHandle(vertexId);
+      }
+
+      return true;
+   }
+
+   @Override
+   public void setBoundary(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE) {
+         throw new NoSuchElementException("Edge not found.");
+      }
+
+      boundary[boundaryFace] = false;
+      boundaryFace = face[halfEdge];
+      boundary[boundaryFace] = true;
+   }
+
+   @Override
+   public DirectedEdge<V> getAdjacentEdge(F f) {
+      Integer faceId = faceMap.get(f);
+      if (faceId == null) {
+         throw new NoSuchElementException("Face not found.");
+      }
+
+      int halfEdge = adjacent[faceId];
+      return new DirectedEdge<V>(getVertexObject(origin[halfEdge]),
+              getVertexObject(origin[next[halfEdge]]));
+   }
+
+   @Override
+   public boolean replaceFace(F oldFace, F newFace) {
+      Integer faceId = faceMap.get(oldFace);
+      if (faceId == null) {
+         return false;
+      }
+      if (faceMap.get(newFace) != null) {
+         throw new IllegalArgumentException("Cannot replace existing face");
+      }
+
+      faceMap.remove(oldFace);
+      faceMap.put(newFace, faceId);
+      faces[faceId] = newFace;
+
+      return true;
+   }
+
+   /**
+    * See DoublyConnectedEdgeList.setFaceFactory
+    * @param faceFactory
+    */
+   public void setFaceFactory(FaceFactory<V, F> faceFactory) {
+      this.faceFactory = faceFactory;
+   }
+
+   @Override
+   public FaceFactory<V, F> getFaceFactory() {
+      return faceFactory;
+   }
+
+   public F getBoundaryFace() {
+      return boundaryFace == NONE ? null : getFaceObject(boundaryFace);
+   }
+
+   /**
+    * Find the half-edge leaving source for target.
+    * @param source The source vertex
+    * @param target The target vertex
+    * @return The half-edge handle, or -1 if there is no such edge
+    */
+   protected int getHalfEdge(final V source, final V target) {
+      Integer sourceId = vertexMap.get(source);
+      if (sourceId == null) {
+         return NONE;
+      }
+      Integer targetId = vertexMap.get(target);
+      if (targetId == null) {
+         return NONE;
+      }
+      return getHalfEdge(sourceId, targetId);
+   }
+
+   private int getHalfEdge(int source, int target) {
+      int start = leaving[source];
+      if (start != NONE) {
+         int halfEdge = start;
+         int steps = 0;
+         do {
+            checkWalk(++steps);
+            if (origin[halfEdge ^ 1] == target) {
+               return halfEdge;
+            }
+            halfEdge = next[halfEdge ^ 1];
+         } while (halfEdge != start);
+      }
+      return NONE;
+   }
+
+   /**
+    * A walk around a face or a rotation visits each half-edge at most once,
+    * so a longer walk can only be caused by a corrupt structure.
+    * @param steps The number of steps taken so far
+    */
+   private void checkWalk(int steps) {
+      if (steps > origin.length) {
+         throw new IndexOutOfBoundsException(
+                 "Iteration beyond limit, suggests corrupt structure.");
+      }
+   }
+
+   private void link(int from, int to) {
+      next[from] = to;
+      prev[to] = from;
+   }
+
+   /**
+    * Unlink a half-edge and its twin from the structure, merging the faces
+    * either side. The face of the supplied half-edge is discarded in favour
+    * of the face of its twin.
+    */
+   private void removeHalfEdgePair(int halfEdge) {
+      int twin = halfEdge ^ 1;
+      int halfEdgeFace = face[halfEdge];
+      int twinFace = face[twin];
+      int halfEdgeNext = next[halfEdge];
+      int twinNext = next[twin];
+      int halfEdgePrev = prev[halfEdge];
+      int twinPrev = prev[twin];
+
+      // Check if this edge separates two distinct faces
+      if (halfEdgeFace != twinFace) {
+         // Remove the redundant face, merging the faces
+         boundary[twinFace] = boundary[halfEdgeFace] || boundary[twinFace];
+         adjacent[halfEdgeFace] = NONE;
+
+         int itr = halfEdge;
+         int steps = 0;
+         do {
+            checkWalk(++steps);
+            // Repoint edges to the conjoined face
+            face[itr] = twinFace;
+            adjacent[twinFace] = itr;
+            itr = next[itr];
+         } while (itr != halfEdge);
+      } else if (adjacent[halfEdgeFace] == halfEdge) {
+         // Hanging edge, ensure the face no longer references the removed edge
+         adjacent[halfEdgeFace] = next[halfEdgeNext];
+      }
+
+      // Reassign faces and vertices if necessary so they don't reference the deleted edge
+      if (adjacent[twinFace] == twin) {
+         // Note we set to next->next in case next = twin.
+         adjacent[twinFace] = next[twinNext];
+      }
+
+      int source = origin[halfEdge];
+      int target = origin[twin];
+      if (leaving[target] == twin) {
+         leaving[target] = halfEdgeNext;
+      }
+      if (leaving[source] == halfEdge) {
+         leaving[source] = twinNext;
+      }
+
+      // Handle disconnected vertices and faces
+      if (leaving[target] == twin) {
+         leaving[target] = NONE;
+      }
+      if (leaving[source] == halfEdge) {
+         leaving[source] = NONE;
+      }
+
+      if (adjacent[halfEdgeFace] == halfEdge) {
+         adjacent[halfEdgeFace] = NONE;
+      }
+      if (adjacent[twinFace] == twin) {
+         adjacent[twinFace] = NONE;
+      }
+
+      // Reassign previous edges, unless the vertex was only connected by this edge
+      if (halfEdgePrev != twin) {
+         link(halfEdgePrev, twinNext);
+      }
+      if (twinPrev != halfEdge) {
+         link(twinPrev, halfEdgeNext);
+      }
+
+      --degree[source];
+      --degree[target];
+
+      // Finally invalidate these edges
+      freeHalfEdgePair(halfEdge);
+   }
+
+   private int createVertex(V vertex) {
+      int vertexId;
+      if (freeVertexCount > 0) {
+         vertexId = freeVertices[--freeVertexCount];
+      } else {
+         if (vertexCount == vertices.length) {
+            int capacity = 2 * vertices.length;
+            vertices = Arrays.copyOf(vertices, capacity);
+            leaving = Arrays.copyOf(leaving, capacity);
+            degree = Arrays.copyOf(degree, capacity);
+         }
+         vertexId = vertexCount++;
+      }
+      vertices[vertexId] = vertex;
+      leaving[vertexId] = NONE;
+      degree[vertexId] = 0;
+      return vertexId;
+   }
+
+   private void removeVertexHandle(int vertexId) {
+      vertexMap.remove(getVertexObject(vertexId));
+      vertices[vertexId] = null;
+      leaving[vertexId] = NONE;
+      if (freeVertexCount == freeVertices.length) {
+         freeVertices = Arrays.copyOf(freeVertices, 2 * freeVertices.length);
+      }
+      freeVertices[freeVertexCount++] = vertexId;
+   }
+
+   private int createHalfEdgePair(E edge) {
+      int pair;
+      if (freeEdgeCount > 0) {
+         pair = freeEdges[--freeEdgeCount];
+      } else {
+         if (edgeCount == edges.length) {
+            int capacity = 2 * edges.length;
+            edges = Arrays.copyOf(edges, capacity);
+            origin = Arrays.copyOf(origin, 2 * capacity);
+            next = Arrays.copyOf(next, 2 * capacity);
+            prev = Arrays.copyOf(prev, 2 * capacity);
+            face = Arrays.copyOf(face, 2 * capacity);
+         }
+         pair = edgeCount++;
+      }
+      edges[pair] = edge;
+      return pair << 1;
+   }
+
+   private void freeHalfEdgePair(int halfEdge) {
+      int pair = halfEdge >> 1;
+      edges[pair] = null;
+      for (int itr = pair << 1; itr <= ((pair << 1) | 1); ++itr) {
+         origin[itr] = NONE;
+         next[itr] = NONE;
+         prev[itr] = NONE;
+         face[itr] = NONE;
+      }
+      if (freeEdgeCount == freeEdges.length) {
+         freeEdges = Arrays.copyOf(freeEdges, 2 * freeEdges.length);
+      }
+      freeEdges[freeEdgeCount++] = pair;
+   }
+
+   private int createFace(F faceObject, boolean isBoundary) {
+      int faceId;
+      if (freeFaceCount > 0) {
+         faceId = freeFaces[--freeFaceCount];
+      } else {
+         if (faceCount == faces.length) {
+            int capacity = 2 * faces.length;
+            faces = Arrays.copyOf(faces, capacity);
+            adjacent = Arrays.copyOf(adjacent, capacity);
+            boundary = Arrays.copyOf(boundary, capacity);
+         }
+         faceId = faceCount++;
+      }
+      faces[faceId] = faceObject;
+      adjacent[faceId] = NONE;
+      boundary[faceId] = isBoundary;
+      faceMap.put(faceObject, faceId);
+      return faceId;
+   }
+
+   private void removeFaceHandle(int faceId) {
+      faceMap.remove(getFaceObject(faceId));
+      faces[faceId] = null;
+      adjacent[faceId] = NONE;
+      boundary[faceId] = false;
+      if (freeFaceCount == freeFaces.length) {
+         freeFaces = Arrays.copyOf(freeFaces, 2 * freeFaces.length);
+      }
+      freeFaces[freeFaceCount++] = faceId;
+   }
+
+   private abstract class RotationIterator<T> implements Iterator<T> {
+
+      private final int startEdge;
+      private int nextEdge;
+      private int steps;
+
+      RotationIterator(int startEdge) {
+         this.startEdge = startEdge;
+         this.nextEdge = startEdge;
+      }
+
+      protected abstract T get(int halfEdge);
+
+      @Override
+      public boolean hasNext() {
+         return nextEdge != NONE;
+      }
+
+      @Override
+      public T next() {
+         if (nextEdge == NONE) {
+            throw new NoSuchElementException();
+         }
+         checkWalk(++steps);
+         int current = nextEdge;
+         nextEdge = next[current ^ 1];
+         if (nextEdge == startEdge) {
+            nextEdge = NONE;
+         }
+         return get(current);
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException("Not supported yet.");
+      }
+   }
+
+   private class CompactNeighbourCursor implements NeighbourCursor<V, E> {
+
+      private int start = NONE;
+      private int current = NONE;
+      private int steps;
+
+      @Override
+      public boolean reset(V vertex) {
+         Integer vertexId = vertexMap.get(vertex);
+         start = vertexId == null ? NONE : leaving[vertexId];
+         current = NONE;
+         steps = 0;
+         return vertexId != null;
+      }
+
+      @Override
+      public boolean advance() {
+         if (start == NONE) {
+            return false;
+         }
+         checkWalk(++steps);
+         if (current == NONE) {
+            current = start;
+         } else {
+            current = next[current ^ 1];
+            if (current == start) {
+               start = NONE;
+               current = NONE;
+               return false;
+            }
+         }
+         return true;
+      }
+
+      @Override
+      public V getTarget() {
+         return getVertexObject(origin[current ^ 1]);
+      }
+
+      @Override
+      public E getEdge() {
+         return getEdgeObject(current);
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private V getVertexObject(int vertexId) {
+      return (V) vertices[vertexId];
+   }
+
+   @SuppressWarnings("unchecked")
+   private E getEdgeObject(int halfEdge) {
+      return (E) edges[halfEdge >> 1];
+   }
+
+   @SuppressWarnings("unchecked")
+   private F getFaceObject(int faceId) {
+      return (F) faces[faceId];
+   }
+}
@@ -0,0 +1,261 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+package com.trickl.graph.planar;
+
+import com.trickl.graph.edges.DirectedEdge;
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.jgrapht.EdgeFactory;
+import org.jgrapht.UndirectedGraph;
+
+/**
+ * A planar face graph that may be shared between many reader threads and a
+ * writer thread.
+ * 
+ * Writes are applied to the wrapped graph one at a time, after which an
+ * immutable snapshot is taken and published through a volatile reference.
+ * Reads are answered from the latest snapshot without taking any lock, so
+ * readers never wait for the writer and never observe a partially applied
+ * edit to the faces or rotations. The sets returned are views of a
+ * snapshot, so they are not affected by later writes.
+ * 
+ * Each write takes a snapshot in time proportional to the size of the graph,
+ * so a sequence of edits should be applied together through modify.
+ * All access to the wrapped graph must go through this wrapper.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ * @param <F> Face type
+ */
+public class ConcurrentPlanarFaceGraph<V, E, F> implements PlanarFaceGraph<V, E, F>,
+        UndirectedGraph<V, E> {
+
+   private final DoublyConnectedEdgeList<V, E, F> graph;
+   private volatile FrozenPlanarFaceGraph<V, E, F> snapshot;
+
+   public ConcurrentPlanarFaceGraph(DoublyConnectedEdgeList<V, E, F> graph) {
+      this.graph = graph;
+      this.snapshot = graph.freeze();
+   }
+
+   /**
+    * @return The graph as of the latest completed write, which can be used to
+    * answer several queries consistently
+    */
+   public FrozenPlanarFaceGraph<V, E, F> getSnapshot() {
+      return snapshot;
+   }
+
+   /**
+    * Apply several edits as a single write, publishing one snapshot after
+    * they have all been applied.
+    * @param edits The edits to apply to the wrapped graph
+    */
+   public void modify(Consumer<? super PlanarFaceGraph<V, E, F>> edits) {
+      write(() -> {
+         edits.accept(graph);
+         return null;
+      });
+   }
+
+   private synchronized <T> T write(Supplier<T> writer) {
+      try {
+         return writer.get();
+      } finally {
+         // Publish even if the edit failed part way, so readers see the graph as it is
+         snapshot = graph.freeze();
+      }
+   }
+
+   @Override
+   public Set<F> faceSet() {
+      return snapshot.faceSet();
+   }
+
+   @Override
+   public F getFace(V source, V target) {
+      return snapshot.getFace(source, target);
+   }
+
+   @Override
+   public FaceFactory<V, F> getFaceFactory() {
+      return graph.getFaceFactory();
+   }
+
+   @Override
+   public DirectedEdge<V> getAdjacentEdge(F face) {
+      return snapshot.getAdjacentEdge(face);
+   }
+
+   @Override
+   public boolean replaceFace(F oldFace, F newFace) {
+      return write(() -> graph.replaceFace(oldFace, newFace));
+   }
+
+   @Override
+   public E addEdge(V sourceVertex, V targetVertex, V beforeVertex, V afterVertex) {
+      return write(() -> graph.addEdge(sourceVertex, targetVertex, beforeVertex, afterVertex));
+   }
+
+   @Override
+   public boolean addEdge(V sourceVertex, V targetVertex, V beforeVertex, V afterVertex, E e) {
+      return write(() -> graph.addEdge(sourceVertex, targetVertex, beforeVertex, afterVertex, e));
+   }
+
+   @Override
+   public DirectedEdge<V> getBoundary() {
+      return snapshot.getBoundary();
+   }
+
+   @Override
+   public boolean isBoundary(V source, V target) {
+      return snapshot.isBoundary(source, target);
+   }
+
+   @Override
+   public void setBoundary(V source, V target) {
+      write(() -> {
+         graph.setBoundary(source, target);
+         return null;
+      });
+   }
+
+   @Override
+   public V getNextVertex(V source, V target) {
+      return snapshot.getNextVertex(source, target);
+   }
+
+   @Override
+   public V getPrevVertex(V source, V target) {
+      return snapshot.getPrevVertex(source, target);
+   }
+
+   @Override
+   public Set<E> getAllEdges(V sourceVertex, V targetVertex) {
+      return snapshot.getAllEdges(sourceVertex, targetVertex);
+   }
+
+   @Override
+   public E getEdge(V sourceVertex, V targetVertex) {
+      return snapshot.getEdge(sourceVertex, targetVertex);
+   }
+
+   @Override
+   public EdgeFactory<V, E> getEdgeFactory() {
+      return graph.getEdgeFactory();
+   }
+
+   @Override
+   public E addEdge(V sourceVertex, V targetVertex) {
+      return write(() -> graph.addEdge(sourceVertex, targetVertex));
+   }
+
+   @Override
+   public boolean addEdge(V sourceVertex, V targetVertex, E e) {
+      return write(() -> graph.addEdge(sourceVertex, targetVertex, e));
+   }
+
+   @Override
+   public boolean addVertex(V v) {
+      return write(() -> graph.addVertex(v));
+   }
+
+   @Override
+   public boolean containsEdge(V sourceVertex, V targetVertex) {
+      return snapshot.containsEdge(sourceVertex, targetVertex);
+   }
+
+   @Override
+   public boolean containsEdge(E e) {
+      return snapshot.containsEdge(e);
+   }
+
+   @Override
+   public boolean containsVertex(V v) {
+      return snapshot.containsVertex(v);
+   }
+
+   @Override
+   public Set<E> edgeSet() {
+      return snapshot.edgeSet();
+   }
+
+   @Override
+   public Set<E> edgesOf(V vertex) {
+      return snapshot.edgesOf(vertex);
+   }
+
+   @Override
+   public int degreeOf(V vertex) {
+      return snapshot.degreeOf(vertex);
+   }
+
+   @Override
+   public boolean removeAllEdges(Collection<? extends E> edges) {
+      return write(() -> graph.removeAllEdges(edges));
+   }
+
+   @Override
+   public Set<E> removeAllEdges(V sourceVertex, V targetVertex) {
+      return write(() -> graph.removeAllEdges(sourceVertex, targetVertex));
+   }
+
+   @Override
+   public boolean removeAllVertices(Collection<? extends V> vertices) {
+      return write(() -> graph.removeAllVertices(vertices));
+   }
+
+   @Override
+   public E removeEdge(V sourceVertex, V targetVertex) {
+      return write(() -> graph.removeEdge(sourceVertex, targetVertex));
+   }
+
+   @Override
+   public boolean removeEdge(E e) {
+      return write(() -> graph.removeEdge(e));
+   }
+
+   @Override
+   public boolean removeVertex(V v) {
+      return write(() -> graph.removeVertex(v));
+   }
+
+   @Override
+   public Set<V> vertexSet() {
+      return snapshot.vertexSet();
+   }
+
+   @Override
+   public V getEdgeSource(E e) {
+      return snapshot.getEdgeSource(e);
+   }
+
+   @Override
+   public V getEdgeTarget(E e) {
+      return snapshot.getEdgeTarget(e);
+   }
+
+   @Override
+   public double getEdgeWeight(E e) {
+      return snapshot.getEdgeWeight(e);
+   }
+}
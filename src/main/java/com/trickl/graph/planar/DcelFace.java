@@ -87,6 +87,17 @@ public class DcelFace<V, E, F> implements Serializable {
    }
 
    public void setBoundary(boolean isBoundary) {
+      if (this.isBoundary != isBoundary && adjacent != null) {
+         // Update the boundary counts of the vertices around this face.
+         // Walked by hand as the structure may be partially linked when unmarshalling.
+         DcelHalfEdge<V, E, F> halfEdge = adjacent;
+         do {
+            if (halfEdge.getFace() == this && halfEdge.getOrigin() != null) {
+               halfEdge.getOrigin().adjustEdgeCount(0, isBoundary ? 1 : -1);
+            }
+            halfEdge = halfEdge.getNext();
+         } while (halfEdge != null && halfEdge != adjacent);
+      }
       this.isBoundary = isBoundary;
    }
 
@@ -104,6 +104,11 @@ public class DcelHalfEdge<V, E, F> implements Serializable {
    }
 
    public void setFace(DcelFace<V, E, F> face) {
+      if (origin != null) {
+         int boundaryDelta = (face != null && face.isBoundary() ? 1 : 0)
+                 - (this.face != null && this.face.isBoundary() ? 1 : 0);
+         origin.adjustEdgeCount(0, boundaryDelta);
+      }
       this.face = face;
       if (face != null && face.getAdjacent() == null) {
          face.setAdjacent(this);
@@ -111,9 +116,16 @@ public class DcelHalfEdge<V, E, F> implements Serializable {
    }
 
    public void setOrigin(DcelVertex<V, E, F> origin) {
+      int boundaryCount = (face != null && face.isBoundary()) ? 1 : 0;
+      if (this.origin != null) {
+         this.origin.adjustEdgeCount(-1, -boundaryCount);
+      }
       this.origin = origin;
-      if (origin != null && origin.getLeaving() == null) {
-         origin.setLeaving(this);
+      if (origin != null) {
+         origin.adjustEdgeCount(1, boundaryCount);
+         if (origin.getLeaving() == null) {
+            origin.setLeaving(this);
+         }
       }
    }
 
@@ -219,6 +231,13 @@ public class DcelHalfEdge<V, E, F> implements Serializable {
    }
   
    public void remove() {
+      DcelVertex<V, E, F> source = origin;
+      DcelVertex<V, E, F> target = twin.origin;
+      source.beginRotationChange();
+      target.beginRotationChange();
+      source.unindexHalfEdge(this);
+      target.unindexHalfEdge(twin);
+
       // Check if this edge separates two distinct faces
       if (face != twin.face) {
          // Remove the redundant face, merging the faces
@@ -274,6 +293,9 @@ public class DcelHalfEdge<V, E, F> implements Serializable {
       // Finally invalidate these edges
       twin.invalidate();
       invalidate();
+
+      source.endRotationChange();
+      target.endRotationChange();
    }
 
    @Override
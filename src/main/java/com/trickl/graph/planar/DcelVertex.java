@@ -21,12 +21,16 @@
 package com.trickl.graph.planar;
 
 import java.io.Serializable;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlID;
 import javax.xml.bind.annotation.XmlIDREF;
@@ -37,11 +41,30 @@ import javax.xml.bind.annotation.XmlType;
 public class DcelVertex<V, E, F> implements Serializable {
 
    private final static int ITERATION_LIMIT = 10000;
+   // Degree beyond which half-edges are looked up by hash rather than by scan
+   private final static int INDEX_THRESHOLD = 16;
+   private final static int UNKNOWN = -1;
    private DcelHalfEdge<V, E, F> leaving;
    private V vertex;
+   // Incrementally maintained counts of out half-edges, and those on the boundary
+   private int edgeCount = 0;
+   private int boundaryEdgeCount = 0;
+   // Lazily built map of target vertex to out half-edge, null until required.
+   // The index is only used while its stamp matches the modification count.
+   private transient AtomicReference<StampedIndex<V, E, F>> halfEdgeIndex
+           = new AtomicReference<StampedIndex<V, E, F>>();
+   // The index being kept up to date by the writer during a rotation change
+   private transient Map<V, DcelHalfEdge<V, E, F>> maintainedIndex;
+   // Odd while the rotation is being changed, so a concurrent reader never
+   // publishes an index built from a partially linked rotation
+   private transient volatile int modificationCount;
 
    public DcelVertex() {
       this(null);
+      // Unmarshalled vertices are linked before the structure is complete,
+      // so counts are calculated on first use.
+      edgeCount = UNKNOWN;
+      boundaryEdgeCount = UNKNOWN;
    }
 
    public DcelVertex(V vertex) {
@@ -83,6 +106,7 @@ public class DcelVertex<V, E, F> implements Serializable {
 
    public void invalidate() {
       setLeaving(null);
+      halfEdgeIndex.set(null);
    }
 
    @XmlTransient
@@ -107,46 +131,177 @@ public class DcelVertex<V, E, F> implements Serializable {
 
    @XmlTransient
    public boolean isBoundary() {
-      for (DcelHalfEdge<V, E, F> halfEdge : outHalfEdges()) {
-         if (halfEdge.isBoundary()) {
-            return true;
+      if (boundaryEdgeCount == UNKNOWN) {
+         int count = 0;
+         for (DcelHalfEdge<V, E, F> halfEdge : outHalfEdges()) {
+            if (halfEdge.isBoundary()) {
+               ++count;
+            }
          }
+         boundaryEdgeCount = count;
       }
-      return false;
+      return boundaryEdgeCount > 0;
    }
 
    @XmlTransient
    public int getEdgeCount() {
-      int count = 0;
-      for (DcelHalfEdge<V, E, F> halfEdge : outHalfEdges()) {
-         ++count;
+      if (edgeCount == UNKNOWN) {
+         int count = 0;
+         for (DcelHalfEdge<V, E, F> halfEdge : outHalfEdges()) {
+            ++count;
+         }
+         edgeCount = count;
       }
 
-      return count;
+      return edgeCount;
+   }
+
+   void adjustEdgeCount(int edgeDelta, int boundaryEdgeDelta) {
+      if (edgeCount != UNKNOWN) {
+         edgeCount += edgeDelta;
+      }
+      if (boundaryEdgeCount != UNKNOWN) {
+         boundaryEdgeCount += boundaryEdgeDelta;
+      }
    }
 
    public DcelHalfEdge<V, E, F> getHalfEdge(final V target) {
+      if (target == null) {
+         return null;
+      }
 
+      Map<V, DcelHalfEdge<V, E, F>> index = currentHalfEdgeIndex();
+      if (index != null) {
+         return index.get(target);
+      }
+
+      int scanned = 0;
       for (DcelHalfEdge<V, E, F> halfEdge : outHalfEdges()) {
          if (halfEdge.getNext().getOrigin().getVertex().equals(target)) {
             return halfEdge;
          }
+         if (++scanned == INDEX_THRESHOLD) {
+            // High degree vertex, switch to constant time lookups
+            return buildHalfEdgeIndex().get(target);
+         }
       }
       return null;
    }
 
+   private Map<V, DcelHalfEdge<V, E, F>> currentHalfEdgeIndex() {
+      StampedIndex<V, E, F> stamped = halfEdgeIndex.get();
+      return stamped != null && stamped.stamp == modificationCount ? stamped.index : null;
+   }
+
+   private Map<V, DcelHalfEdge<V, E, F>> buildHalfEdgeIndex() {
+      StampedIndex<V, E, F> previous = halfEdgeIndex.get();
+      int stamp = modificationCount;
+      Map<V, DcelHalfEdge<V, E, F>> index = new ConcurrentHashMap<V, DcelHalfEdge<V, E, F>>();
+      for (DcelHalfEdge<V, E, F> halfEdge : outHalfEdges()) {
+         index.putIfAbsent(halfEdge.getTwin().getOrigin().getVertex(), halfEdge);
+      }
+
+      // Only publish the index if no change to the rotation overlapped the build.
+      // A stale index that slips through is ignored, as its stamp will not match.
+      if ((stamp & 1) == 0 && modificationCount == stamp) {
+         halfEdgeIndex.compareAndSet(previous, new StampedIndex<V, E, F>(stamp, index));
+      }
+      return index;
+   }
+
+   void indexHalfEdge(DcelHalfEdge<V, E, F> halfEdge) {
+      if (maintainedIndex != null) {
+         maintainedIndex.put(halfEdge.getTwin().getOrigin().getVertex(), halfEdge);
+      }
+   }
+
+   void unindexHalfEdge(DcelHalfEdge<V, E, F> halfEdge) {
+      if (maintainedIndex != null) {
+         maintainedIndex.remove(halfEdge.getTwin().getOrigin().getVertex(), halfEdge);
+      }
+   }
+
+   void beginRotationChange() {
+      if ((modificationCount & 1) == 0) {
+         // Keep the current index up to date through the change, rather than
+         // rebuilding it afterwards
+         maintainedIndex = currentHalfEdgeIndex();
+      }
+      ++modificationCount;
+   }
+
+   void endRotationChange() {
+      ++modificationCount;
+      if ((modificationCount & 1) == 0) {
+         // Any index published while the rotation was changing is stale
+         halfEdgeIndex.set(maintainedIndex == null ? null
+                 : new StampedIndex<V, E, F>(modificationCount, maintainedIndex));
+         maintainedIndex = null;
+      }
+   }
+
+   private Object readResolve() {
+      halfEdgeIndex = new AtomicReference<StampedIndex<V, E, F>>();
+      return this;
+   }
+
+   private static final class StampedIndex<V, E, F> {
+
+      private final int stamp;
+      private final Map<V, DcelHalfEdge<V, E, F>> index;
+
+      StampedIndex(int stamp, Map<V, DcelHalfEdge<V, E, F>> index) {
+         this.stamp = stamp;
+         this.index = index;
+      }
+   }
+
+   /**
+    * A live, read-only view of the edges around this vertex in rotation order.
+    * The view is not a copy, so the graph must not be modified while iterating.
+    * @return The edges incident to this vertex
+    */
    @XmlTransient
    public Set<E> getEdges() {
-      final Set<E> edges = new LinkedHashSet<E>(getEdgeCount());
+      return new AbstractSet<E>() {
 
-      for (DcelHalfEdge<V, E, F> halfEdge : outHalfEdges()) {
-         E edge = halfEdge.getEdge();
-         if (edge != null) {
-            edges.add(edge);
+         @Override
+         public Iterator<E> iterator() {
+            return new RotationIterator<E>() {
+
+               @Override
+               protected E get(DcelHalfEdge<V, E, F> halfEdge) {
+                  return halfEdge.getEdge();
+               }
+            };
          }
-      }
 
-      return edges;
+         @Override
+         public int size() {
+            return getEdgeCount();
+         }
+      };
+   }
+
+   /**
+    * A live, read-only view of the neighbouring vertices in rotation order.
+    * @return The vertices adjacent to this vertex
+    */
+   @XmlTransient
+   public Iterable<V> getNeighbours() {
+      return new Iterable<V>() {
+
+         @Override
+         public Iterator<V> iterator() {
+            return new RotationIterator<V>() {
+
+               @Override
+               protected V get(DcelHalfEdge<V, E, F> halfEdge) {
+                  return halfEdge.getTwin().getOrigin().getVertex();
+               }
+            };
+         }
+      };
    }
 
    @XmlTransient
@@ -220,6 +375,44 @@ public class DcelVertex<V, E, F> implements Serializable {
       };
    }
 
+   private abstract class RotationIterator<T> implements Iterator<T> {
+
+      private final DcelHalfEdge<V, E, F> startEdge = leaving;
+      private DcelHalfEdge<V, E, F> nextEdge = leaving;
+      private int iteration = 0;
+
+      protected abstract T get(DcelHalfEdge<V, E, F> halfEdge);
+
+      @Override
+      public boolean hasNext() {
+         return nextEdge != null;
+      }
+
+      @Override
+      public T next() {
+         if (nextEdge == null) {
+            throw new NoSuchElementException();
+         }
+         DcelHalfEdge<V, E, F> current = nextEdge;
+         nextEdge = current.getTwin().getNext();
+         if (nextEdge == startEdge) {
+            nextEdge = null;
+         }
+
+         if (++iteration > ITERATION_LIMIT) {
+            throw new IndexOutOfBoundsException(
+                    "Iteration beyond limit, suggests corrupt structure.");
+         }
+
+         return get(current);
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException("Not supported yet.");
+      }
+   }
+
    // beforeEdge -> newEdge -> afterEdge
    public DcelHalfEdge<V, E, F> addEdge(DcelVertex<V, E, F> target,
            DcelHalfEdge<V, E, F> beforeEdge,
@@ -270,6 +463,8 @@ public class DcelVertex<V, E, F> implements Serializable {
       }
 
       /* Everything seems okay, we should be able to create this edge */
+      beginRotationChange();
+      target.beginRotationChange();
       DcelHalfEdge<V, E, F> createdEdge = new DcelHalfEdge<V, E, F>(e);
       DcelHalfEdge<V, E, F> createdTwin = new DcelHalfEdge<V, E, F>(e);
       createdEdge.setTwin(createdTwin);
@@ -330,6 +525,11 @@ public class DcelVertex<V, E, F> implements Serializable {
       createdTwin.setOrigin(target);
       target.setLeaving(createdTwin);
 
+      indexHalfEdge(createdEdge);
+      target.indexHalfEdge(createdTwin);
+      endRotationChange();
+      target.endRotationChange();
+
       return createdEdge;
    }
 
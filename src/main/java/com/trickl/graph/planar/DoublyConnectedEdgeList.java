@@ -20,7 +20,11 @@
  */
 package com.trickl.graph.planar;
 
+import com.trickl.graph.EdgeIndex;
 import com.trickl.graph.GraphArgumentException;
+import com.trickl.graph.GraphIndices;
+import com.trickl.graph.IndexedGraph;
+import com.trickl.graph.VertexIndex;
 import com.trickl.graph.edges.DirectedEdge;
 import com.trickl.graph.planar.xml.XmlDoublyConnectedEdgeListAdapter;
 import java.io.Serializable;
@@ -34,6 +38,7 @@ import org.jgrapht.graph.ClassBasedEdgeFactory;
 public class DoublyConnectedEdgeList<V, E, F>
         implements PlanarFaceGraph<V, E, F>,
         UndirectedGraph<V, E>,
+        IndexedGraph<V, E>,
         Serializable {
     
    private EdgeFactory<V, E> edgeFactory;
@@ -43,6 +48,10 @@ public class DoublyConnectedEdgeList<V, E, F>
    private Map<V, DcelVertex<V, E, F>> vertexMap;
    private Map<F, DcelFace<V, E, F>> faceMap;
 
+   // Dense indices, built on demand and discarded on any change
+   private transient VertexIndex<V> vertexIndex;
+   private transient EdgeIndex<E> edgeIndex;
+
    private DoublyConnectedEdgeList() {
    }
 
@@ -92,10 +101,72 @@ public class DoublyConnectedEdgeList<V, E, F>
       return vertexMap.containsKey(vertex);
    }
 
+   /**
+    * The edges of a vertex in rotation order, as a live read-only view.
+    * @param vertex The vertex
+    * @return The incident edges, empty if the vertex is not in the graph
+    */
    @Override
    public Set<E> edgesOf(V vertex) {      
       DcelVertex<V, E, F> dcelVertex = vertexMap.get(vertex);
-      return (dcelVertex == null ? new HashSet<E>() : dcelVertex.getEdges());
+      return (dcelVertex == null ? Collections.<E>emptySet() : dcelVertex.getEdges());
+   }
+
+   /**
+    * The neighbours of a vertex in rotation order, as a live read-only view.
+    * @param vertex The vertex
+    * @return The adjacent vertices, empty if the vertex is not in the graph
+    */
+   public Iterable<V> neighboursOf(V vertex) {
+      DcelVertex<V, E, F> dcelVertex = vertexMap.get(vertex);
+      return (dcelVertex == null ? Collections.<V>emptyList() : dcelVertex.getNeighbours());
+   }
+
+   public NeighbourCursor<V, E> neighbourCursor() {
+      return new DcelNeighbourCursor();
+   }
+
+   /**
+    * Take an immutable snapshot of this graph. The snapshot keeps the same
+    * vertices, edges, faces and rotation order, but is not affected by later
+    * changes to this graph and may be shared between threads.
+    * @return A frozen copy of the graph
+    */
+   public FrozenPlanarFaceGraph<V, E, F> freeze() {
+      return new FrozenPlanarFaceGraph<V, E, F>(this);
+   }
+
+   /**
+    * @return An index of the vertices in vertex set order, reused until the
+    * graph is next modified
+    */
+   @Override
+   public VertexIndex<V> getVertexIndex() {
+      VertexIndex<V> index = vertexIndex;
+      if (index == null) {
+         index = GraphIndices.createVertexIndex(vertexMap.keySet());
+         vertexIndex = index;
+      }
+      return index;
+   }
+
+   /**
+    * @return An index of the edges in edge set order, reused until the
+    * graph is next modified
+    */
+   @Override
+   public EdgeIndex<E> getEdgeIndex() {
+      EdgeIndex<E> index = edgeIndex;
+      if (index == null) {
+         index = GraphIndices.createEdgeIndex(edgeMap.keySet());
+         edgeIndex = index;
+      }
+      return index;
+   }
+
+   private void invalidateIndices() {
+      vertexIndex = null;
+      edgeIndex = null;
    }
 
    protected DcelHalfEdge<V, E, F> getHalfEdge(final V source, final V target) {
@@ -123,7 +194,7 @@ public class DoublyConnectedEdgeList<V, E, F>
       HashSet<E> edges = new HashSet<E>();
       E edge = getEdge(source, target);
       if (edge != null) {
-         edges.add(getEdge(source, target));
+         edges.add(edge);
       }
       return edges;
    }
@@ -283,14 +354,15 @@ public class DoublyConnectedEdgeList<V, E, F>
       return edge;
    }
    
+   /**
+    * Get the canonical instance of an edge, as stored in the graph.
+    * The half-edge keyed by the edge holds the instance that was added.
+    * @param e An edge equal to one in the graph
+    * @return The stored edge, or null if there is no equal edge
+    */
    private E getEdge(E e) {
-       if (!edgeMap.containsKey(e)) return null;
-       for (E edge : edgeMap.keySet()) {
-           if (edge.equals(e)) {
-               return edge;
-           }
-       }
-       return null;
+       DcelHalfEdge<V, E, F> halfEdge = edgeMap.get(e);
+       return halfEdge == null ? null : halfEdge.getEdge();
    }
 
     /**
@@ -311,9 +383,10 @@ public class DoublyConnectedEdgeList<V, E, F>
          return false;
       }
       
-      if (edgeMap.containsKey(e)) {                    
+      E existingEdge = getEdge(e);
+      if (existingEdge != null) {                    
           throw new GraphArgumentException(this,
-                  new IllegalArgumentException("Cannot redefine an existing edge" + getEdge(e) + " as " + e.toString()));
+                  new IllegalArgumentException("Cannot redefine an existing edge" + existingEdge + " as " + e.toString()));
       }
 
       addVertex(sourceVertex);
@@ -365,6 +438,7 @@ public class DoublyConnectedEdgeList<V, E, F>
               source.addEdge(target, beforeEdge, afterEdge, boundary, getFaceFactory(), e);
 
       edgeMap.put(e, createdEdge);
+      invalidateIndices();
 
       faceMap.put(createdEdge.getFace().getFace(), createdEdge.getFace());
       faceMap.put(createdEdge.getTwin().getFace().getFace(), createdEdge.getTwin().getFace());
@@ -391,18 +465,146 @@ public class DoublyConnectedEdgeList<V, E, F>
    public boolean addVertex(V vertex) {
       if (!vertexMap.containsKey(vertex)) {
          vertexMap.put(vertex, new DcelVertex<V, E, F>(vertex));
+         invalidateIndices();
          return true;
       }
       return false;
    }
 
+   /**
+    * Build the DCEL from a complete rotation system in a single linear pass,
+    * much quicker than adding each edge in turn for large graphs.
+    * Each vertex lists its neighbours in the order returned by edgesOf, the
+    * lists must be symmetric and may not repeat a neighbour, as parallel
+    * edges are not supported. Every cycle of half-edges becomes a face, with the
+    * cycle containing the supplied directed edge becoming the boundary face,
+    * so the rotation system should describe a connected graph.
+    * @param rotations The neighbours of each vertex in rotation order
+    * @param boundarySource The source of a directed edge on the boundary face
+    * @param boundaryTarget The target of a directed edge on the boundary face
+    */
+   public void addRotationSystem(Map<V, ? extends List<V>> rotations, V boundarySource, V boundaryTarget) {
+      if (!vertexMap.isEmpty()) {
+         throw new IllegalStateException("Rotation system can only be added to an empty graph.");
+      }
+
+      for (V vertex : rotations.keySet()) {
+         addVertex(vertex);
+      }
+
+      // Twins created by an earlier vertex, awaiting the rotation of their origin
+      Map<DirectedEdge<V>, DcelHalfEdge<V, E, F>> pending = new HashMap<>();
+      for (Map.Entry<V, ? extends List<V>> rotation : rotations.entrySet()) {
+         V source = rotation.getKey();
+         DcelVertex<V, E, F> dcelSource = vertexMap.get(source);
+         DcelHalfEdge<V, E, F> firstEdge = null;
+         DcelHalfEdge<V, E, F> prevEdge = null;
+         Set<V> neighbours = new HashSet<>();
+         for (V target : rotation.getValue()) {
+            if (!neighbours.add(target)) {
+               throw new GraphArgumentException(this,
+                       new IllegalArgumentException("Rotation system repeats neighbour at ("
+                               + source.toString() + ") to (" + target + ")"));
+            }
+            DcelHalfEdge<V, E, F> halfEdge = pending.remove(new DirectedEdge<>(source, target));
+            if (halfEdge == null) {
+               DcelVertex<V, E, F> dcelTarget = vertexMap.get(target);
+               if (dcelTarget == null || source.equals(target)) {
+                  throw new GraphArgumentException(this,
+                          new IllegalArgumentException("Rotation system is not symmetric at ("
+                                  + source.toString() + ") to (" + target + ")"));
+               }
+
+               E edge = edgeFactory.createEdge(source, target);
+               halfEdge = new DcelHalfEdge<>(edge);
+               DcelHalfEdge<V, E, F> twin = new DcelHalfEdge<>(edge);
+               halfEdge.setTwin(twin);
+               halfEdge.setOrigin(dcelSource);
+               twin.setOrigin(dcelTarget);
+               pending.put(new DirectedEdge<>(target, source), twin);
+               edgeMap.put(edge, halfEdge);
+               invalidateIndices();
+            }
+
+            // Link the rotation, the next out edge follows the twin of this one
+            if (prevEdge == null) {
+               firstEdge = halfEdge;
+            } else {
+               prevEdge.getTwin().setNext(halfEdge);
+            }
+            prevEdge = halfEdge;
+         }
+
+         if (firstEdge != null) {
+            prevEdge.getTwin().setNext(firstEdge);
+            dcelSource.setLeaving(firstEdge);
+         }
+      }
+
+      if (!pending.isEmpty()) {
+         DirectedEdge<V> missing = pending.keySet().iterator().next();
+         throw new GraphArgumentException(this,
+                 new IllegalArgumentException("Rotation system is not symmetric at ("
+                         + missing.getSource() + ") to (" + missing.getTarget() + ")"));
+      }
+
+      if (edgeMap.isEmpty()) {
+         return;
+      }
+
+      DcelHalfEdge<V, E, F> boundaryEdge = boundarySource == null
+              ? null : getHalfEdge(boundarySource, boundaryTarget);
+      if (boundaryEdge == null) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Boundary edge not found."));
+      }
+      setFace(boundaryEdge, faceMap.get(boundaryFace));
+
+      for (DcelHalfEdge<V, E, F> halfEdge : edgeMap.values()) {
+         createFaceIfMissing(halfEdge);
+         createFaceIfMissing(halfEdge.getTwin());
+      }
+   }
+
+   private void createFaceIfMissing(DcelHalfEdge<V, E, F> halfEdge) {
+      if (halfEdge.getFace() == null) {
+         F face = faceFactory.createFace(halfEdge.getOrigin().getVertex(),
+                 halfEdge.getNext().getOrigin().getVertex(),
+                 false);
+         DcelFace<V, E, F> dcelFace = new DcelFace<>(face);
+         setFace(halfEdge, dcelFace);
+         faceMap.put(face, dcelFace);
+      }
+   }
+
+   private void setFace(DcelHalfEdge<V, E, F> start, DcelFace<V, E, F> dcelFace) {
+      DcelHalfEdge<V, E, F> halfEdge = start;
+      do {
+         halfEdge.setFace(dcelFace);
+         halfEdge = halfEdge.getNext();
+      } while (halfEdge != start);
+   }
+
+   /**
+    * Remove a collection of edges as a batch. The half-edges are unlinked first
+    * and the faces either side merged afterwards in a single walk of the
+    * affected face cycles, rather than once per edge.
+    * @param edges The edges to remove
+    * @return True if any edge was removed
+    */
    @Override
    public boolean removeAllEdges(Collection<? extends E> edges) {
-      boolean changed = false;
+      invalidateIndices();
+      List<DcelHalfEdge<V, E, F>> halfEdges = new ArrayList<>(edges.size());
       for (E edge : edges) {
-         changed = changed || removeEdge(edge);
+         DcelHalfEdge<V, E, F> halfEdge = edgeMap.remove(edge);
+         if (halfEdge != null) {
+            halfEdges.add(halfEdge);
+         }
       }
-      return changed;
+
+      removeHalfEdges(halfEdges);
+      return !halfEdges.isEmpty();
    }
 
    @Override
@@ -410,24 +612,178 @@ public class DoublyConnectedEdgeList<V, E, F>
       throw new UnsupportedOperationException("Not supported yet.");
    }
 
+   /**
+    * Remove a collection of vertices and all their edges as a single batch.
+    * @param vertices The vertices to remove
+    * @return True if any vertex was removed
+    */
    @Override
    public boolean removeAllVertices(Collection<? extends V> vertices) {
+      invalidateIndices();
       boolean changed = false;
+      List<DcelHalfEdge<V, E, F>> halfEdges = new ArrayList<>();
       for (V vertex : vertices) {
-         changed = changed || removeVertex(vertex);
+         DcelVertex<V, E, F> dcelVertex = vertexMap.get(vertex);
+         if (dcelVertex != null) {
+            changed = true;
+            for (DcelHalfEdge<V, E, F> halfEdge : dcelVertex.outHalfEdges()) {
+               // Edges shared by two removed vertices are only taken once
+               if (edgeMap.remove(halfEdge.getEdge()) != null) {
+                  halfEdges.add(halfEdge);
+               }
+            }
+         }
+      }
+
+      removeHalfEdges(halfEdges);
+
+      for (V vertex : vertices) {
+         DcelVertex<V, E, F> dcelVertex = vertexMap.remove(vertex);
+         if (dcelVertex != null) {
+            dcelVertex.invalidate();
+         }
       }
+
       return changed;
    }
 
-   @Override
-   public E removeEdge(V source, V target) {
+   /**
+    * Unlink half-edge pairs already removed from the edge map, then merge
+    * the affected faces and purge any disconnected vertices and faces.
+    */
+   private void removeHalfEdges(List<DcelHalfEdge<V, E, F>> halfEdges) {
+      if (halfEdges.isEmpty()) {
+         return;
+      }
 
+      // Surviving half-edges whose next pointer changed, one on each affected cycle
+      List<DcelHalfEdge<V, E, F>> seeds = new ArrayList<>();
+      // Faces merged away, mapped to the face that absorbed them
+      DcelFace<V, E, F> boundary = faceMap.get(boundaryFace);
+      Map<DcelFace<V, E, F>, DcelFace<V, E, F>> mergedFaces = new IdentityHashMap<>();
+      Set<DcelFace<V, E, F>> affectedFaces = Collections.newSetFromMap(new IdentityHashMap<>());
+      Set<DcelVertex<V, E, F>> affectedVertices = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (DcelHalfEdge<V, E, F> halfEdge : halfEdges) {
+         DcelHalfEdge<V, E, F> twin = halfEdge.getTwin();
+         DcelVertex<V, E, F> source = halfEdge.getOrigin();
+         DcelVertex<V, E, F> target = twin.getOrigin();
+         DcelHalfEdge<V, E, F> next = halfEdge.getNext();
+         DcelHalfEdge<V, E, F> twinNext = twin.getNext();
+         DcelHalfEdge<V, E, F> prev = halfEdge.getPrev();
+         DcelHalfEdge<V, E, F> twinPrev = twin.getPrev();
+
+         affectedFaces.add(halfEdge.getFace());
+         affectedFaces.add(twin.getFace());
+
+         // As for sequential removal, the twin's face is kept unless this side is the boundary
+         DcelFace<V, E, F> face = getMergedFace(mergedFaces, halfEdge.getFace());
+         DcelFace<V, E, F> twinFace = getMergedFace(mergedFaces, twin.getFace());
+         if (face != twinFace) {
+            if (face == boundary) {
+               mergedFaces.put(twinFace, face);
+            } else {
+               mergedFaces.put(face, twinFace);
+            }
+         }
+         affectedVertices.add(source);
+         affectedVertices.add(target);
+         source.beginRotationChange();
+         target.beginRotationChange();
+         source.unindexHalfEdge(halfEdge);
+         target.unindexHalfEdge(twin);
+
+         // Splice the pair out of both rotations, unless the vertex was only connected by this edge
+         if (prev != twin) {
+            prev.setNext(twinNext);
+            seeds.add(prev);
+         }
+         if (twinPrev != halfEdge) {
+            twinPrev.setNext(next);
+            seeds.add(twinPrev);
+         }
 
-      E edge = getEdge(source, target);
-      if (edge != null) {
-         removeEdge(getEdge(source, target));
+         if (source.getLeaving() == halfEdge) {
+            source.setLeaving(twinNext == halfEdge ? null : twinNext);
+         }
+         if (target.getLeaving() == twin) {
+            target.setLeaving(next == twin ? null : next);
+         }
+
+         twin.invalidate();
+         halfEdge.invalidate();
+         source.endRotationChange();
+         target.endRotationChange();
+      }
+
+      // Each remaining cycle takes the face its faces were merged into, so the
+      // boundary face survives even if every half-edge on it was removed
+      Map<DcelFace<V, E, F>, DcelHalfEdge<V, E, F>> keptFaces = new IdentityHashMap<>();
+      Set<DcelHalfEdge<V, E, F>> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (DcelHalfEdge<V, E, F> seed : seeds) {
+         if (seed.getOrigin() == null || visited.contains(seed)) {
+            // Removed later in the batch, or already on a merged cycle
+            continue;
+         }
+
+         DcelFace<V, E, F> face = getMergedFace(mergedFaces, seed.getFace());
+         DcelHalfEdge<V, E, F> halfEdge = seed;
+         do {
+            visited.add(halfEdge);
+            halfEdge = halfEdge.getNext();
+         } while (halfEdge != seed);
+
+         setFace(seed, face);
+         keptFaces.put(face, seed);
       }
 
+      for (Map.Entry<DcelFace<V, E, F>, DcelHalfEdge<V, E, F>> keptFace : keptFaces.entrySet()) {
+         DcelFace<V, E, F> face = keptFace.getKey();
+         DcelHalfEdge<V, E, F> adjacent = face.getAdjacent();
+         if (adjacent == null || adjacent.getFace() != face) {
+            face.setAdjacent(keptFace.getValue());
+         }
+      }
+
+      // Remove any disconnected faces
+      for (DcelFace<V, E, F> face : affectedFaces) {
+         if (!keptFaces.containsKey(face)) {
+            DcelHalfEdge<V, E, F> adjacent = face.getAdjacent();
+            if (adjacent == null || adjacent.getFace() != face) {
+               face.invalidate();
+               if (face != boundary) {
+                  faceMap.remove(face.getFace());
+               }
+            }
+         }
+      }
+
+      // Remove any disconnected vertices
+      for (DcelVertex<V, E, F> vertex : affectedVertices) {
+         if (vertex.getLeaving() == null) {
+            vertexMap.remove(vertex.getVertex());
+         }
+      }
+   }
+
+   private static <V, E, F> DcelFace<V, E, F> getMergedFace(
+           Map<DcelFace<V, E, F>, DcelFace<V, E, F>> mergedFaces, DcelFace<V, E, F> face) {
+      DcelFace<V, E, F> merged = mergedFaces.get(face);
+      while (merged != null) {
+         face = merged;
+         merged = mergedFaces.get(face);
+      }
+      return face;
+   }
+
+   @Override
+   public E removeEdge(V source, V target) {
+      DcelHalfEdge<V, E, F> halfEdge = getHalfEdge(source, target);
+      if (halfEdge == null) {
+         return null;
+      }
+
+      E edge = halfEdge.getEdge();
+      removeEdge(edge);
       return edge;
    }
 
@@ -453,6 +809,7 @@ public class DoublyConnectedEdgeList<V, E, F>
          halfEdge.remove();
       }
       edgeMap.remove(edge);
+      invalidateIndices();
 
       // Remove any disconnected vertices
       if (source.getLeaving() == null) {
@@ -480,26 +837,7 @@ public class DoublyConnectedEdgeList<V, E, F>
 
    @Override
    public boolean removeVertex(V vertex) {
-      DcelVertex<V, E, F> dcelVertex = vertexMap.get(vertex);
-      if (dcelVertex == null) {
-         return false;
-      }
-
-      Set<E> edges = new LinkedHashSet<E>();
-      // Get a copy of the edges as the iterator will be invalidated
-      for (E edge : edgesOf(vertex)) {
-         edges.add(edge);
-      }
-      
-      for (E edge : edges) {
-         removeEdge(edge);
-         edgeMap.remove(edge);
-      }
-
-      dcelVertex.remove();
-      vertexMap.remove(vertex);
-
-      return true;
+      return removeAllVertices(Collections.singleton(vertex));
    }
 
    @Override
@@ -589,5 +927,47 @@ public class DoublyConnectedEdgeList<V, E, F>
    public void setBoundaryFace(F boundaryFace) {
       this.boundaryFace = boundaryFace;
    }
+
+   private class DcelNeighbourCursor implements NeighbourCursor<V, E> {
+
+      private DcelHalfEdge<V, E, F> start;
+      private DcelHalfEdge<V, E, F> current;
+
+      @Override
+      public boolean reset(V vertex) {
+         DcelVertex<V, E, F> dcelVertex = vertexMap.get(vertex);
+         start = dcelVertex == null ? null : dcelVertex.getLeaving();
+         current = null;
+         return dcelVertex != null;
+      }
+
+      @Override
+      public boolean advance() {
+         if (start == null) {
+            return false;
+         }
+         if (current == null) {
+            current = start;
+         } else {
+            current = current.getTwin().getNext();
+            if (current == start) {
+               start = null;
+               current = null;
+               return false;
+            }
+         }
+         return true;
+      }
+
+      @Override
+      public V getTarget() {
+         return current.getTwin().getOrigin().getVertex();
+      }
+
+      @Override
+      public E getEdge() {
+         return current.getEdge();
+      }
+   }
 }
  
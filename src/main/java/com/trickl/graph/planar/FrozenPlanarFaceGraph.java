@@ -0,0 +1,671 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.trickl.graph.EdgeIndex;
+import com.trickl.graph.GraphArgumentException;
+import com.trickl.graph.IndexedGraph;
+import com.trickl.graph.VertexIndex;
+import com.trickl.graph.edges.DirectedEdge;
+import java.io.Serializable;
+import java.util.*;
+import org.jgrapht.EdgeFactory;
+import org.jgrapht.UndirectedGraph;
+
+/**
+ * An immutable snapshot of a planar face graph, with the rotation system
+ * stored in compressed sparse row arrays.
+ *
+ * The half-edges leaving vertex v occupy the contiguous range
+ * offsets[v] to offsets[v + 1] in rotation order, and the twin, next, prev
+ * and face of every half-edge are precomputed. A second copy of each range is
+ * sorted by target so that a half-edge can be found by binary search.
+ * As nothing is modified after construction, a snapshot can be shared freely
+ * between threads. All mutators throw UnsupportedOperationException.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ * @param <F> Face type
+ */
+public class FrozenPlanarFaceGraph<V, E, F>
+        implements PlanarFaceGraph<V, E, F>,
+        UndirectedGraph<V, E>,
+        IndexedGraph<V, E>,
+        Serializable {
+
+   private static final int NONE = -1;
+   private static final String IMMUTABLE_MESSAGE = "Frozen planar graph cannot be modified.";
+
+   private final EdgeFactory<V, E> edgeFactory;
+   private final FaceFactory<V, F> faceFactory;
+
+   private final Map<V, Integer> vertexMap;
+   private final Map<E, Integer> edgeMap;
+   private final Map<F, Integer> faceMap;
+
+   // Vertex arrays, half-edges leaving v are offsets[v] <= h < offsets[v + 1]
+   private final Object[] vertices;
+   private final int[] offsets;
+
+   // Half-edge arrays
+   private final int[] origin;
+   private final int[] target;
+   private final int[] twin;
+   private final int[] next;
+   private final int[] prev;
+   private final int[] face;
+   private final int[] edge;
+
+   // Each vertex range again, ordered by target for binary search
+   private final int[] sortedTarget;
+   private final int[] sortedHalfEdge;
+
+   // Edge arrays, the half-edge whose origin is the edge source
+   private final Object[] edges;
+   private final int[] edgeHalfEdge;
+
+   // Face arrays
+   private final Object[] faces;
+   private final int[] adjacent;
+   private final int boundaryFace;
+
+   FrozenPlanarFaceGraph(DoublyConnectedEdgeList<V, E, F> graph) {
+      this.edgeFactory = graph.getEdgeFactory();
+      this.faceFactory = graph.getFaceFactory();
+
+      Map<V, DcelVertex<V, E, F>> dcelVertices = graph.getVertexMap();
+      int vertexCount = dcelVertices.size();
+      int halfEdgeCount = 2 * graph.getEdgeMap().size();
+
+      vertexMap = new LinkedHashMap<V, Integer>(2 * vertexCount);
+      vertices = new Object[vertexCount];
+      offsets = new int[vertexCount + 1];
+      origin = new int[halfEdgeCount];
+      target = new int[halfEdgeCount];
+      twin = new int[halfEdgeCount];
+      next = new int[halfEdgeCount];
+      prev = new int[halfEdgeCount];
+      face = new int[halfEdgeCount];
+      edge = new int[halfEdgeCount];
+      sortedTarget = new int[halfEdgeCount];
+      sortedHalfEdge = new int[halfEdgeCount];
+
+      // Number the half-edges in rotation order around each vertex
+      List<DcelHalfEdge<V, E, F>> dcelHalfEdges = new ArrayList<DcelHalfEdge<V, E, F>>(halfEdgeCount);
+      Map<DcelHalfEdge<V, E, F>, Integer> halfEdgeIds = new IdentityHashMap<DcelHalfEdge<V, E, F>, Integer>(halfEdgeCount);
+      int vertexId = 0;
+      for (Map.Entry<V, DcelVertex<V, E, F>> entry : dcelVertices.entrySet()) {
+         vertexMap.put(entry.getKey(), vertexId);
+         vertices[vertexId] = entry.getKey();
+         offsets[vertexId] = dcelHalfEdges.size();
+         if (entry.getValue().getLeaving() != null) {
+            for (DcelHalfEdge<V, E, F> dcelHalfEdge : entry.getValue().outHalfEdges()) {
+               origin[dcelHalfEdges.size()] = vertexId;
+               halfEdgeIds.put(dcelHalfEdge, dcelHalfEdges.size());
+               dcelHalfEdges.add(dcelHalfEdge);
+            }
+         }
+         ++vertexId;
+      }
+      offsets[vertexCount] = dcelHalfEdges.size();
+
+      Map<F, DcelFace<V, E, F>> dcelFaces = graph.getFaceMap();
+      faceMap = new LinkedHashMap<F, Integer>(2 * dcelFaces.size());
+      faces = new Object[dcelFaces.size()];
+      adjacent = new int[dcelFaces.size()];
+      Map<DcelFace<V, E, F>, Integer> faceIds = new IdentityHashMap<DcelFace<V, E, F>, Integer>(dcelFaces.size());
+      int faceId = 0;
+      for (Map.Entry<F, DcelFace<V, E, F>> entry : dcelFaces.entrySet()) {
+         faceMap.put(entry.getKey(), faceId);
+         faceIds.put(entry.getValue(), faceId);
+         faces[faceId] = entry.getKey();
+         DcelHalfEdge<V, E, F> dcelAdjacent = entry.getValue().getAdjacent();
+         adjacent[faceId] = dcelAdjacent == null ? NONE : halfEdgeIds.get(dcelAdjacent);
+         ++faceId;
+      }
+      Integer boundaryFaceId = graph.getBoundaryFace() == null ? null : faceMap.get(graph.getBoundaryFace());
+      boundaryFace = boundaryFaceId == null ? NONE : boundaryFaceId;
+
+      Map<E, DcelHalfEdge<V, E, F>> dcelEdges = graph.getEdgeMap();
+      edgeMap = new LinkedHashMap<E, Integer>(2 * dcelEdges.size());
+      edges = new Object[dcelEdges.size()];
+      edgeHalfEdge = new int[dcelEdges.size()];
+      int edgeId = 0;
+      for (Map.Entry<E, DcelHalfEdge<V, E, F>> entry : dcelEdges.entrySet()) {
+         edgeMap.put(entry.getKey(), edgeId);
+         edges[edgeId] = entry.getKey();
+         edgeHalfEdge[edgeId] = halfEdgeIds.get(entry.getValue());
+         ++edgeId;
+      }
+
+      for (int halfEdge = 0; halfEdge < halfEdgeCount; ++halfEdge) {
+         DcelHalfEdge<V, E, F> dcelHalfEdge = dcelHalfEdges.get(halfEdge);
+         twin[halfEdge] = halfEdgeIds.get(dcelHalfEdge.getTwin());
+         target[halfEdge] = origin[twin[halfEdge]];
+         next[halfEdge] = halfEdgeIds.get(dcelHalfEdge.getNext());
+         prev[next[halfEdge]] = halfEdge;
+         Integer halfEdgeFace = faceIds.get(dcelHalfEdge.getFace());
+         face[halfEdge] = halfEdgeFace == null ? NONE : halfEdgeFace;
+         edge[halfEdge] = edgeMap.get(dcelHalfEdge.getEdge());
+      }
+
+      // Pack (target, half-edge) pairs into longs so each range sorts without boxing
+      for (vertexId = 0; vertexId < vertexCount; ++vertexId) {
+         int start = offsets[vertexId];
+         int end = offsets[vertexId + 1];
+         long[] keys = new long[end - start];
+         for (int halfEdge = start; halfEdge < end; ++halfEdge) {
+            keys[halfEdge - start] = ((long) target[halfEdge] << 32) | halfEdge;
+         }
+         Arrays.sort(keys);
+         for (int i = 0; i < keys.length; ++i) {
+            sortedTarget[start + i] = (int) (keys[i] >>> 32);
+            sortedHalfEdge[start + i] = (int) keys[i];
+         }
+      }
+   }
+
+   /**
+    * Find the half-edge from source to target by binary search over the
+    * sorted targets of the source.
+    * @param source The source vertex
+    * @param target The target vertex
+    * @return The half-edge, or -1 if there is no such edge
+    */
+   private int getHalfEdge(V source, V target) {
+      Integer sourceId = vertexMap.get(source);
+      Integer targetId = vertexMap.get(target);
+      if (sourceId == null || targetId == null) {
+         return NONE;
+      }
+      int index = Arrays.binarySearch(sortedTarget, offsets[sourceId], offsets[sourceId + 1], targetId);
+      return index < 0 ? NONE : sortedHalfEdge[index];
+   }
+
+   private int getExistingHalfEdge(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Edge not found."));
+      }
+      return halfEdge;
+   }
+
+   private int getExistingVertex(V vertex) {
+      Integer vertexId = vertexMap.get(vertex);
+      if (vertexId == null) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Vertex not found."));
+      }
+      return vertexId;
+   }
+
+   @Override
+   public EdgeFactory<V, E> getEdgeFactory() {
+      return edgeFactory;
+   }
+
+   @Override
+   public FaceFactory<V, F> getFaceFactory() {
+      return faceFactory;
+   }
+
+   @Override
+   public boolean containsEdge(V source, V target) {
+      return getHalfEdge(source, target) != NONE;
+   }
+
+   @Override
+   public boolean containsEdge(E edge) {
+      return edgeMap.containsKey(edge);
+   }
+
+   @Override
+   public boolean containsVertex(V vertex) {
+      return vertexMap.containsKey(vertex);
+   }
+
+   /**
+    * The edges of a vertex in rotation order.
+    * @param vertex The vertex
+    * @return The incident edges, empty if the vertex is not in the graph
+    */
+   @Override
+   public Set<E> edgesOf(V vertex) {
+      final Integer vertexId = vertexMap.get(vertex);
+      if (vertexId == null) {
+         return Collections.<E>emptySet();
+      }
+
+      return new AbstractSet<E>() {
+
+         @Override
+         public Iterator<E> iterator() {
+            return new RangeIterator<E>(offsets[vertexId], offsets[vertexId + 1]) {
+
+               @Override
+               protected E get(int halfEdge) {
+                  return getEdgeObject(edge[halfEdge]);
+               }
+            };
+         }
+
+         @Override
+         public int size() {
+            return offsets[vertexId + 1] - offsets[vertexId];
+         }
+      };
+   }
+
+   /**
+    * The neighbours of a vertex in rotation order.
+    * @param vertex The vertex
+    * @return The adjacent vertices, empty if the vertex is not in the graph
+    */
+   public Iterable<V> neighboursOf(V vertex) {
+      final Integer vertexId = vertexMap.get(vertex);
+      if (vertexId == null) {
+         return Collections.<V>emptyList();
+      }
+
+      return new Iterable<V>() {
+
+         @Override
+         public Iterator<V> iterator() {
+            return new RangeIterator<V>(offsets[vertexId], offsets[vertexId + 1]) {
+
+               @Override
+               protected V get(int halfEdge) {
+                  return getVertexObject(target[halfEdge]);
+               }
+            };
+         }
+      };
+   }
+
+   public NeighbourCursor<V, E> neighbourCursor() {
+      return new FrozenNeighbourCursor();
+   }
+
+   /**
+    * Get the dense index of a vertex, for use with the primitive accessors.
+    * @param vertex The vertex
+    * @return The index, or -1 if the vertex is not in the graph
+    */
+   public int indexOf(V vertex) {
+      Integer vertexId = vertexMap.get(vertex);
+      return vertexId == null ? NONE : vertexId;
+   }
+
+   public V getVertex(int vertexIndex) {
+      return getVertexObject(vertexIndex);
+   }
+
+   /**
+    * @return The vertex numbering used by the primitive accessors
+    */
+   @Override
+   public VertexIndex<V> getVertexIndex() {
+      return new FrozenVertexIndex();
+   }
+
+   @Override
+   public EdgeIndex<E> getEdgeIndex() {
+      return new FrozenEdgeIndex();
+   }
+
+   /**
+    * @param vertexIndex The vertex index
+    * @return The first half-edge leaving the vertex, the others follow
+    * contiguously up to (but excluding) the first half-edge of the next vertex.
+    */
+   public int getFirstHalfEdge(int vertexIndex) {
+      return offsets[vertexIndex];
+   }
+
+   public int getEndHalfEdge(int vertexIndex) {
+      return offsets[vertexIndex + 1];
+   }
+
+   public int getHalfEdgeTarget(int halfEdge) {
+      return target[halfEdge];
+   }
+
+   public E getHalfEdgeEdge(int halfEdge) {
+      return getEdgeObject(edge[halfEdge]);
+   }
+
+   @Override
+   public int degreeOf(V vertex) {
+      int vertexId = getExistingVertex(vertex);
+      return offsets[vertexId + 1] - offsets[vertexId];
+   }
+
+   @Override
+   public Set<E> getAllEdges(V source, V target) {
+      HashSet<E> allEdges = new HashSet<E>();
+      E existingEdge = getEdge(source, target);
+      if (existingEdge != null) {
+         allEdges.add(existingEdge);
+      }
+      return allEdges;
+   }
+
+   @Override
+   public E getEdge(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE) {
+         return null;
+      }
+      return getEdgeObject(edge[halfEdge]);
+   }
+
+   @Override
+   public Set<E> edgeSet() {
+      return Collections.unmodifiableSet(edgeMap.keySet());
+   }
+
+   @Override
+   public Set<V> vertexSet() {
+      return Collections.unmodifiableSet(vertexMap.keySet());
+   }
+
+   @Override
+   public Set<F> faceSet() {
+      return Collections.unmodifiableSet(faceMap.keySet());
+   }
+
+   @Override
+   public V getEdgeSource(E e) {
+      Integer edgeId = edgeMap.get(e);
+      if (edgeId == null) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Edge not found."));
+      }
+      return getVertexObject(origin[edgeHalfEdge[edgeId]]);
+   }
+
+   @Override
+   public V getEdgeTarget(E e) {
+      Integer edgeId = edgeMap.get(e);
+      if (edgeId == null) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Edge not found."));
+      }
+      return getVertexObject(target[edgeHalfEdge[edgeId]]);
+   }
+
+   @Override
+   public double getEdgeWeight(E e) {
+      return 1.0;
+   }
+
+   @Override
+   public DirectedEdge<V> getBoundary() {
+      int boundaryAdjacent = boundaryFace == NONE ? NONE : adjacent[boundaryFace];
+      if (boundaryAdjacent == NONE) {
+         // Graph contains zero edges
+         if (vertices.length == 0) {
+            return new DirectedEdge<V>(null, null);
+         } else {
+            return new DirectedEdge<V>(getVertexObject(0), null);
+         }
+      }
+      return new DirectedEdge<V>(getVertexObject(origin[boundaryAdjacent]),
+              getVertexObject(target[boundaryAdjacent]));
+   }
+
+   @Override
+   public V getNextVertex(V source, V target) {
+      int halfEdge = getExistingHalfEdge(source, target);
+      return getVertexObject(this.target[next[halfEdge]]);
+   }
+
+   @Override
+   public V getPrevVertex(V source, V target) {
+      int halfEdge = getExistingHalfEdge(source, target);
+      return getVertexObject(origin[prev[halfEdge]]);
+   }
+
+   @Override
+   public boolean isBoundary(V source, V target) {
+      int halfEdge = getExistingHalfEdge(source, target);
+      return face[halfEdge] != NONE && face[halfEdge] == boundaryFace;
+   }
+
+   public boolean isVertexBoundary(V vertex) {
+      int vertexId = getExistingVertex(vertex);
+      for (int halfEdge = offsets[vertexId]; halfEdge < offsets[vertexId + 1]; ++halfEdge) {
+         if (face[halfEdge] != NONE && face[halfEdge] == boundaryFace) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   @Override
+   public F getFace(V source, V target) {
+      int halfEdge = getHalfEdge(source, target);
+      if (halfEdge == NONE || face[halfEdge] == NONE) {
+         return null;
+      }
+      return getFaceObject(face[halfEdge]);
+   }
+
+   @Override
+   public DirectedEdge<V> getAdjacentEdge(F f) {
+      Integer faceId = faceMap.get(f);
+      if (faceId == null) {
+         throw new NoSuchElementException("Face not found.");
+      }
+
+      int halfEdge = adjacent[faceId];
+      return new DirectedEdge<V>(getVertexObject(origin[halfEdge]), getVertexObject(target[halfEdge]));
+   }
+
+   @Override
+   public E addEdge(V sourceVertex, V targetVertex) {
+      throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+   }
+
+   @Override
+   public boolean addEdge(V sourceVertex, V targetVertex, E e) {
+      throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+   }
+
+   @Override
+   public E addEdge(V sourceVertex, V targetVertex, V beforeVertex, V afterVertex) {
+      throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+   }
+
+   @Override
+   public boolean addEdge(V sourceVertex, V targetVertex, V beforeVertex, V afterVertex, E e) {
+      throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+   }
+
+   @Override
+   public boolean addVertex(V vertex) {
+      throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+   }
+
+   @Override
+   public boolean removeAllEdges(Collection<? extends E> edges) {
+      throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+   }
+
+   @Override
+   public Set<E> removeAllEdges(V sourceVertex, V targetVertex) {
+      throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+   }
+
+   @Override
+   public boolean removeAllVertices(Collection<? extends V> vertices) {
+      throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+   }
+
+   @Override
+   public E removeEdge(V sourceVertex, V targetVertex) {
+      throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+   }
+
+   @Override
+   public boolean removeEdge(E e) {
+      throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+   }
+
+   @Override
+   public boolean removeVertex(V vertex) {
+      throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+   }
+
+   @Override
+   public void setBoundary(V source, V target) {
+      throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+   }
+
+   @Override
+   public boolean replaceFace(F oldFace, F newFace) {
+      throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+   }
+
+   private abstract class RangeIterator<T> implements Iterator<T> {
+
+      private int nextEdge;
+      private final int endEdge;
+
+      RangeIterator(int startEdge, int endEdge) {
+         this.nextEdge = startEdge;
+         this.endEdge = endEdge;
+      }
+
+      protected abstract T get(int halfEdge);
+
+      @Override
+      public boolean hasNext() {
+         return nextEdge < endEdge;
+      }
+
+      @Override
+      public T next() {
+         if (nextEdge >= endEdge) {
+            throw new NoSuchElementException();
+         }
+         return get(nextEdge++);
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException(IMMUTABLE_MESSAGE);
+      }
+   }
+
+   private class FrozenVertexIndex implements VertexIndex<V> {
+
+      @Override
+      public int getVertexCount() {
+         return vertices.length;
+      }
+
+      @Override
+      public int getIndex(V vertex) {
+         return indexOf(vertex);
+      }
+
+      @Override
+      public V getVertex(int index) {
+         return getVertexObject(index);
+      }
+   }
+
+   private class FrozenEdgeIndex implements EdgeIndex<E> {
+
+      @Override
+      public int getEdgeCount() {
+         return edges.length;
+      }
+
+      @Override
+      public int getIndex(E e) {
+         Integer edgeId = edgeMap.get(e);
+         return edgeId == null ? NONE : edgeId;
+      }
+
+      @Override
+      public E getEdge(int index) {
+         return getEdgeObject(index);
+      }
+   }
+
+   private class FrozenNeighbourCursor implements NeighbourCursor<V, E> {
+
+      private int current = NONE;
+      private int end = NONE;
+
+      @Override
+      public boolean reset(V vertex) {
+         Integer vertexId = vertexMap.get(vertex);
+         if (vertexId == null) {
+            current = NONE;
+            end = NONE;
+            return false;
+         }
+         current = offsets[vertexId] - 1;
+         end = offsets[vertexId + 1];
+         return true;
+      }
+
+      @Override
+      public boolean advance() {
+         if (current + 1 >= end) {
+            current = NONE;
+            end = NONE;
+            return false;
+         }
+         ++current;
+         return true;
+      }
+
+      @Override
+      public V getTarget() {
+         return getVertexObject(target[current]);
+      }
+
+      @Override
+      public E getEdge() {
+         return getEdgeObject(edge[current]);
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private V getVertexObject(int vertexId) {
+      return (V) vertices[vertexId];
+   }
+
+   @SuppressWarnings("unchecked")
+   private E getEdgeObject(int edgeId) {
+      return (E) edges[edgeId];
+   }
+
+   @SuppressWarnings("unchecked")
+   private F getFaceObject(int faceId) {
+      return (F) faces[faceId];
+   }
+}
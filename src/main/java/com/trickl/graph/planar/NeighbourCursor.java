@@ -0,0 +1,49 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+/**
+ * A reusable cursor over the neighbours of a vertex, in rotation order.
+ * Intended for hot loops, a single cursor can be reset to visit each
+ * vertex in turn without allocating per vertex.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public interface NeighbourCursor<V, E> {
+
+   /**
+    * Position the cursor before the first neighbour of a vertex.
+    * @param vertex The vertex whose neighbours are visited
+    * @return False if the vertex is not in the graph
+    */
+   boolean reset(V vertex);
+
+   /**
+    * Move to the next neighbour.
+    * @return False once every neighbour has been visited
+    */
+   boolean advance();
+
+   V getTarget();
+
+   E getEdge();
+}
@@ -23,12 +23,14 @@ package com.trickl.graph.planar;
 import com.trickl.graph.CopyEdgeFactory;
 import com.trickl.graph.CopyVertexFactory;
 import com.trickl.graph.EdgeVisitor;
+import com.trickl.graph.ParallelBreadthFirstSearch;
 import com.trickl.graph.edges.DirectedEdge;
 import com.vividsolutions.jts.algorithm.Angle;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.LineSegment;
 import com.vividsolutions.jts.geom.LinearRing;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import org.jgrapht.Graphs;
 import org.jgrapht.VertexFactory;
@@ -67,6 +69,27 @@ public final class PlanarGraphs {
       }
    }
 
+   /**
+    * Hop counts from the boundary, computed with a parallel breadth first search.
+    * Gives the same counts as boundaryHops(graph, hops).
+    * @param <V>
+    * @param <E>
+    * @param graph
+    * @param hops Output map of vertex hop counts
+    * @param pool The pool used to expand each level of the search
+    */
+   static public <V, E> void boundaryHops(PlanarGraph<V, E> graph, Map<V, Integer> hops, ForkJoinPool pool) {
+      Set<V> boundaryVertices = new LinkedHashSet<>();
+      for (E edge : getBoundaryEdges(graph)) {
+         boundaryVertices.add(graph.getEdgeSource(edge));
+         boundaryVertices.add(graph.getEdgeTarget(edge));
+      }
+
+      ParallelBreadthFirstSearch<V, E> search = new ParallelBreadthFirstSearch<>(graph, pool);
+      search.traverse(boundaryVertices);
+      hops.putAll(search.getVertexHopCounts());
+   }
+
    static public <V1, E1, V2, E2> Map<V1, Set<DirectedEdge<V2>>> delaunayToVoronoi(PlanarGraph<V1, E1> delaunay,
                                                PlanarLayout<V1> delaunayLocations,
                                                PlanarGraph<V2, E2> voronoi,
@@ -186,13 +209,15 @@ public final class PlanarGraphs {
     */
    static public <V, E> void removeEdgesInsideBoundary(PlanarGraph<V, E> graph, List<V> boundary, EdgeVisitor<E> removeEdgeVisitor) {
 
-       getEdgesInsideBoundary(graph, boundary).stream().map((edge) -> {
-           if (removeEdgeVisitor != null) {
+       Set<E> edges = getEdgesInsideBoundary(graph, boundary);
+       if (removeEdgeVisitor != null) {
+           edges.forEach((edge) -> {
                removeEdgeVisitor.onEdge(edge);
-           } return edge;
-       }).forEach((edge) -> {
-           graph.removeEdge(edge);
-       });
+           });
+       }
+
+       // Remove as a batch, so faces are merged once for the whole region
+       graph.removeAllEdges(edges);
    }
 
    static public <V, E> void triangulateFace(PlanarGraph<V, E> graph, V source, V target, EdgeVisitor<E> addEdgeVisitor) {
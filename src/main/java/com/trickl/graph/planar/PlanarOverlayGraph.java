@@ -0,0 +1,662 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.trickl.graph.GraphArgumentException;
+import com.trickl.graph.edges.DirectedEdge;
+import java.util.*;
+import java.util.stream.Stream;
+import org.jgrapht.EdgeFactory;
+import org.jgrapht.Graphs;
+
+/**
+ * A planar graph that records edits as a delta over a base planar graph,
+ * leaving the base untouched.
+ *
+ * Vertices keep reading through to the base until they are first edited, at
+ * which point only the rotation of that vertex is copied. Face membership is
+ * not copied either, only half-edges whose boundary status differs from the
+ * base are recorded. Running an algorithm such as MaximalPlanar on an overlay
+ * therefore costs time and memory in proportion to the edits and the faces
+ * they touch, rather than the size of the whole graph.
+ *
+ * Edges are added with the same rotation and face conventions as
+ * DoublyConnectedEdgeList, so the same sequence of additions gives the
+ * same embedding. The base graph must not be modified while the overlay is in use.
+ * @author tgee
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public class PlanarOverlayGraph<V, E> implements PlanarGraph<V, E> {
+
+   private static class Rotation<V, E> {
+
+      final Map<V, V> next = new HashMap<>();
+      final Map<V, V> prev = new HashMap<>();
+      final Map<V, E> edges = new HashMap<>();
+      V leaving;
+   }
+
+   private final PlanarGraph<V, E> graph;
+
+   // The delta over the base graph
+   private final Map<V, Rotation<V, E>> rotations = new HashMap<>();
+   private final Set<V> addedVertices = new LinkedHashSet<>();
+   private final Set<V> removedVertices = new HashSet<>();
+   private final Map<E, DirectedEdge<V>> addedEdges = new LinkedHashMap<>();
+   private final Set<E> removedEdges = new HashSet<>();
+   private final Map<DirectedEdge<V>, Boolean> boundaryOverrides = new HashMap<>();
+   private DirectedEdge<V> boundary;
+   private boolean boundaryOverridden = false;
+
+   public PlanarOverlayGraph(PlanarGraph<V, E> graph) {
+      this.graph = graph;
+   }
+
+   public PlanarGraph<V, E> getBaseGraph() {
+      return graph;
+   }
+
+   /**
+    * @return The edges added by this overlay, that are not in the base graph
+    */
+   public Set<E> getAddedEdges() {
+      return Collections.unmodifiableSet(addedEdges.keySet());
+   }
+
+   /**
+    * @return The base graph edges removed by this overlay
+    */
+   public Set<E> getRemovedEdges() {
+      return Collections.unmodifiableSet(removedEdges);
+   }
+
+   private Rotation<V, E> touch(V vertex) {
+      Rotation<V, E> rotation = rotations.get(vertex);
+      if (rotation == null) {
+         rotation = new Rotation<>();
+         if (graph.containsVertex(vertex) && !removedVertices.contains(vertex)) {
+            Iterator<E> edgeItr = graph.edgesOf(vertex).iterator();
+            if (edgeItr.hasNext()) {
+               V first = Graphs.getOppositeVertex(graph, edgeItr.next(), vertex);
+               rotation.leaving = first;
+               V current = first;
+               do {
+                  V next = graph.getNextVertex(current, vertex);
+                  rotation.next.put(current, next);
+                  rotation.prev.put(next, current);
+                  rotation.edges.put(current, graph.getEdge(vertex, current));
+                  current = next;
+               } while (!current.equals(first));
+            }
+         }
+         rotations.put(vertex, rotation);
+      }
+      return rotation;
+   }
+
+   /**
+    * @param vertex The vertex
+    * @param neighbour A neighbour of the vertex
+    * @return The neighbour following in the rotation about the vertex
+    */
+   private V getRotationNext(V vertex, V neighbour) {
+      Rotation<V, E> rotation = rotations.get(vertex);
+      return rotation == null ? graph.getNextVertex(neighbour, vertex) : rotation.next.get(neighbour);
+   }
+
+   private V getRotationPrev(V vertex, V neighbour) {
+      Rotation<V, E> rotation = rotations.get(vertex);
+      return rotation == null ? graph.getPrevVertex(vertex, neighbour) : rotation.prev.get(neighbour);
+   }
+
+   private List<DirectedEdge<V>> getFaceCycle(V source, V target) {
+      List<DirectedEdge<V>> cycle = new ArrayList<>();
+      V currentSource = source;
+      V currentTarget = target;
+      do {
+         cycle.add(new DirectedEdge<>(currentSource, currentTarget));
+         V next = getRotationNext(currentTarget, currentSource);
+         currentSource = currentTarget;
+         currentTarget = next;
+      } while (!currentSource.equals(source) || !currentTarget.equals(target));
+      return cycle;
+   }
+
+   @Override
+   public E addEdge(V sourceVertex, V targetVertex) {
+      return addEdge(sourceVertex, targetVertex, (V) null, (V) null);
+   }
+
+   @Override
+   public boolean addEdge(V sourceVertex, V targetVertex, E e) {
+      return addEdge(sourceVertex, targetVertex, null, null, e);
+   }
+
+   @Override
+   public E addEdge(V sourceVertex, V targetVertex, V beforeVertex, V afterVertex) {
+      E edge = getEdgeFactory().createEdge(sourceVertex, targetVertex);
+      addEdge(sourceVertex, targetVertex, beforeVertex, afterVertex, edge);
+      return edge;
+   }
+
+   @Override
+   public boolean addEdge(V sourceVertex, V targetVertex, V beforeVertex, V afterVertex, E e) {
+      if (containsEdge(sourceVertex, targetVertex)) {
+         return false;
+      }
+
+      if (containsEdge(e)) {
+         throw new GraphArgumentException(this,
+                 new IllegalArgumentException("Cannot redefine an existing edge " + e.toString()));
+      }
+
+      addVertex(sourceVertex);
+      addVertex(targetVertex);
+
+      if (beforeVertex != null && !containsEdge(beforeVertex, sourceVertex)) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Before ("
+                         + beforeVertex.toString()
+                         + ") to ("
+                         + sourceVertex.toString()
+                         + ") source edge not found"));
+      }
+
+      if (afterVertex != null && !containsEdge(targetVertex, afterVertex)) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Target ("
+                         + targetVertex.toString()
+                         + ") to ("
+                         + afterVertex.toString()
+                         + ") after edge not found"));
+      }
+
+      Rotation<V, E> source = touch(sourceVertex);
+      Rotation<V, E> target = touch(targetVertex);
+
+      boolean isBeforeSupplied = beforeVertex != null;
+      if (source.leaving != null && beforeVertex == null) {
+         // Source has edges, insert after the leaving edge
+         beforeVertex = source.leaving;
+      }
+
+      // The face the edge is added within
+      Set<DirectedEdge<V>> beforeCycle = beforeVertex == null ? Collections.<DirectedEdge<V>>emptySet()
+              : new HashSet<>(getFaceCycle(beforeVertex, sourceVertex));
+      boolean isBeforeBoundary = beforeVertex == null || isBoundary(beforeVertex, sourceVertex);
+
+      if (target.leaving != null && afterVertex == null) {
+         if (beforeVertex == null) {
+            afterVertex = target.leaving;
+         } else {
+            V neighbour = target.leaving;
+            do {
+               if (isOnFace(targetVertex, neighbour, beforeCycle, isBeforeBoundary)) {
+                  afterVertex = neighbour;
+                  break;
+               }
+               neighbour = target.next.get(neighbour);
+            } while (!neighbour.equals(target.leaving));
+
+            if (afterVertex == null) {
+               // Must maintain planarity
+               throw new NoSuchElementException("Target, source and before must share a face.");
+            }
+         }
+      } else if (afterVertex != null && isBeforeSupplied
+              && !isOnFace(targetVertex, afterVertex, beforeCycle, isBeforeBoundary)) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Before ("
+                         + beforeVertex.toString()
+                         + ") and ("
+                         + afterVertex.toString()
+                         + ") after edges must share a face"));
+      }
+      boolean isAfterBoundary = afterVertex == null ? isBeforeBoundary : isBoundary(targetVertex, afterVertex);
+
+      // A new face is closed off if the before and after edges are on the same cycle
+      boolean isFaceCreated = afterVertex != null
+              && beforeCycle.contains(new DirectedEdge<>(targetVertex, afterVertex));
+
+      // Splice into the source rotation after the before vertex
+      if (beforeVertex == null) {
+         source.next.put(targetVertex, targetVertex);
+         source.prev.put(targetVertex, targetVertex);
+      } else {
+         V beforeNext = source.next.get(beforeVertex);
+         source.next.put(beforeVertex, targetVertex);
+         source.prev.put(targetVertex, beforeVertex);
+         source.next.put(targetVertex, beforeNext);
+         source.prev.put(beforeNext, targetVertex);
+      }
+
+      // And into the target rotation before the after vertex
+      if (afterVertex == null) {
+         target.next.put(sourceVertex, sourceVertex);
+         target.prev.put(sourceVertex, sourceVertex);
+      } else {
+         V afterPrev = target.prev.get(afterVertex);
+         target.next.put(afterPrev, sourceVertex);
+         target.prev.put(sourceVertex, afterPrev);
+         target.next.put(sourceVertex, afterVertex);
+         target.prev.put(afterVertex, sourceVertex);
+      }
+
+      source.edges.put(targetVertex, e);
+      target.edges.put(sourceVertex, e);
+      source.leaving = targetVertex;
+      target.leaving = sourceVertex;
+      addedEdges.put(e, new DirectedEdge<>(sourceVertex, targetVertex));
+
+      // By convention, the before -> edge -> after cycle is the new face,
+      // the twin stays on the face of the after edge
+      DirectedEdge<V> createdEdge = new DirectedEdge<>(sourceVertex, targetVertex);
+      DirectedEdge<V> createdTwin = new DirectedEdge<>(targetVertex, sourceVertex);
+      boolean isEdgeBoundary = isFaceCreated ? false
+              : beforeVertex == null ? isAfterBoundary : isBeforeBoundary;
+      if (isFaceCreated && isAfterBoundary) {
+         for (DirectedEdge<V> halfEdge : getFaceCycle(sourceVertex, targetVertex)) {
+            boundaryOverrides.put(halfEdge, false);
+         }
+      }
+      boundaryOverrides.put(createdEdge, isEdgeBoundary);
+      boundaryOverrides.put(createdTwin, isAfterBoundary);
+
+      // Track the boundary edge reported by the equivalent DCEL
+      if (isAfterBoundary) {
+         boundary = createdTwin;
+         boundaryOverridden = true;
+      }
+      if (beforeVertex != null && afterVertex != null && !isFaceCreated && isEdgeBoundary) {
+         boundary = createdEdge;
+         boundaryOverridden = true;
+      }
+
+      return true;
+   }
+
+   private boolean isOnFace(V source, V target, Set<DirectedEdge<V>> cycle, boolean isFaceBoundary) {
+      // Separate components inside the boundary face share it, without sharing a cycle
+      return cycle.contains(new DirectedEdge<>(source, target))
+              || (isFaceBoundary && isBoundary(source, target));
+   }
+
+   @Override
+   public boolean addVertex(V vertex) {
+      if (containsVertex(vertex)) {
+         return false;
+      }
+
+      if (removedVertices.remove(vertex)) {
+         rotations.put(vertex, new Rotation<>());
+      } else {
+         addedVertices.add(vertex);
+      }
+      return true;
+   }
+
+   @Override
+   public E removeEdge(V sourceVertex, V targetVertex) {
+      E edge = getEdge(sourceVertex, targetVertex);
+      if (edge == null) {
+         return null;
+      }
+
+      DirectedEdge<V> currentBoundary = getBoundary();
+      boolean isSourceBoundary = isBoundary(sourceVertex, targetVertex);
+      boolean isTargetBoundary = isBoundary(targetVertex, sourceVertex);
+      Rotation<V, E> source = touch(sourceVertex);
+      Rotation<V, E> target = touch(targetVertex);
+
+      // Surviving half-edges that precede the removed pair on each cycle
+      List<DirectedEdge<V>> seeds = new ArrayList<>();
+      V sourcePrev = unlink(source, targetVertex);
+      if (sourcePrev != null) {
+         seeds.add(new DirectedEdge<>(sourcePrev, sourceVertex));
+      }
+      V targetPrev = unlink(target, sourceVertex);
+      if (targetPrev != null) {
+         seeds.add(new DirectedEdge<>(targetPrev, targetVertex));
+      }
+
+      boundaryOverrides.remove(new DirectedEdge<>(sourceVertex, targetVertex));
+      boundaryOverrides.remove(new DirectedEdge<>(targetVertex, sourceVertex));
+      if (addedEdges.remove(edge) == null) {
+         removedEdges.add(edge);
+      }
+
+      // Merged faces keep the boundary if either side was on it
+      if (isSourceBoundary != isTargetBoundary) {
+         Set<DirectedEdge<V>> visited = new HashSet<>();
+         for (DirectedEdge<V> seed : seeds) {
+            if (!visited.contains(seed)) {
+               for (DirectedEdge<V> halfEdge : getFaceCycle(seed.getSource(), seed.getTarget())) {
+                  boundaryOverrides.put(halfEdge, true);
+                  visited.add(halfEdge);
+               }
+            }
+         }
+      }
+
+      if (currentBoundary.equals(new DirectedEdge<>(sourceVertex, targetVertex))
+              || currentBoundary.equals(new DirectedEdge<>(targetVertex, sourceVertex))) {
+         boundary = seeds.isEmpty() ? null : seeds.get(0);
+         boundaryOverridden = true;
+      }
+
+      // Remove any disconnected vertices
+      if (source.leaving == null) {
+         removeDisconnectedVertex(sourceVertex);
+      }
+      if (target.leaving == null) {
+         removeDisconnectedVertex(targetVertex);
+      }
+
+      return edge;
+   }
+
+   /**
+    * Splice a neighbour out of a rotation.
+    * @return The previous neighbour in the rotation, or null if none remain
+    */
+   private V unlink(Rotation<V, E> rotation, V neighbour) {
+      V prev = rotation.prev.remove(neighbour);
+      V next = rotation.next.remove(neighbour);
+      rotation.edges.remove(neighbour);
+      if (neighbour.equals(next)) {
+         rotation.leaving = null;
+         return null;
+      }
+
+      rotation.next.put(prev, next);
+      rotation.prev.put(next, prev);
+      if (neighbour.equals(rotation.leaving)) {
+         rotation.leaving = next;
+      }
+      return prev;
+   }
+
+   private void removeDisconnectedVertex(V vertex) {
+      rotations.remove(vertex);
+      if (!addedVertices.remove(vertex)) {
+         removedVertices.add(vertex);
+      }
+   }
+
+   @Override
+   public boolean removeEdge(E e) {
+      if (!containsEdge(e)) {
+         return false;
+      }
+      return removeEdge(getEdgeSource(e), getEdgeTarget(e)) != null;
+   }
+
+   @Override
+   public boolean removeAllEdges(Collection<? extends E> edges) {
+      boolean removed = false;
+      for (E edge : new ArrayList<E>(edges)) {
+         removed |= removeEdge(edge);
+      }
+      return removed;
+   }
+
+   @Override
+   public Set<E> removeAllEdges(V sourceVertex, V targetVertex) {
+      Set<E> removed = new HashSet<>();
+      E edge = removeEdge(sourceVertex, targetVertex);
+      if (edge != null) {
+         removed.add(edge);
+      }
+      return removed;
+   }
+
+   @Override
+   public boolean removeVertex(V vertex) {
+      if (!containsVertex(vertex)) {
+         return false;
+      }
+
+      for (E edge : new ArrayList<E>(edgesOf(vertex))) {
+         removeEdge(edge);
+      }
+      if (containsVertex(vertex)) {
+         removeDisconnectedVertex(vertex);
+      }
+      return true;
+   }
+
+   @Override
+   public boolean removeAllVertices(Collection<? extends V> vertices) {
+      boolean removed = false;
+      for (V vertex : new ArrayList<V>(vertices)) {
+         removed |= removeVertex(vertex);
+      }
+      return removed;
+   }
+
+   @Override
+   public DirectedEdge<V> getBoundary() {
+      if (!boundaryOverridden) {
+         return graph.getBoundary();
+      }
+
+      if (boundary == null) {
+         // Graph contains zero edges
+         Iterator<V> vertexItr = vertexSet().iterator();
+         return new DirectedEdge<>(vertexItr.hasNext() ? vertexItr.next() : null, null);
+      }
+      return boundary;
+   }
+
+   @Override
+   public boolean isBoundary(V source, V target) {
+      if (!containsEdge(source, target)) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Edge not found."));
+      }
+
+      Boolean isBoundary = boundaryOverrides.get(new DirectedEdge<>(source, target));
+      return isBoundary == null ? graph.isBoundary(source, target) : isBoundary;
+   }
+
+   @Override
+   public void setBoundary(V source, V target) {
+      if (!containsEdge(source, target)) {
+         throw new NoSuchElementException("Edge not found.");
+      }
+
+      DirectedEdge<V> oldBoundary = getBoundary();
+      if (oldBoundary.getTarget() != null) {
+         for (DirectedEdge<V> halfEdge : getFaceCycle(oldBoundary.getSource(), oldBoundary.getTarget())) {
+            boundaryOverrides.put(halfEdge, false);
+         }
+      }
+      for (DirectedEdge<V> halfEdge : getFaceCycle(source, target)) {
+         boundaryOverrides.put(halfEdge, true);
+      }
+      boundary = new DirectedEdge<>(source, target);
+      boundaryOverridden = true;
+   }
+
+   @Override
+   public V getNextVertex(V source, V target) {
+      if (!containsEdge(source, target)) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Edge not found."));
+      }
+      return getRotationNext(target, source);
+   }
+
+   @Override
+   public V getPrevVertex(V source, V target) {
+      if (!containsEdge(source, target)) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Edge not found."));
+      }
+      return getRotationPrev(source, target);
+   }
+
+   @Override
+   public Set<E> getAllEdges(V sourceVertex, V targetVertex) {
+      Set<E> edges = new HashSet<>();
+      E edge = getEdge(sourceVertex, targetVertex);
+      if (edge != null) {
+         edges.add(edge);
+      }
+      return edges;
+   }
+
+   @Override
+   public E getEdge(V sourceVertex, V targetVertex) {
+      Rotation<V, E> rotation = rotations.get(sourceVertex);
+      if (rotation != null) {
+         return rotation.edges.get(targetVertex);
+      }
+      return removedVertices.contains(sourceVertex) ? null : graph.getEdge(sourceVertex, targetVertex);
+   }
+
+   @Override
+   public EdgeFactory<V, E> getEdgeFactory() {
+      return graph.getEdgeFactory();
+   }
+
+   @Override
+   public boolean containsEdge(V sourceVertex, V targetVertex) {
+      Rotation<V, E> rotation = rotations.get(sourceVertex);
+      if (rotation != null) {
+         return rotation.edges.containsKey(targetVertex);
+      }
+      return !removedVertices.contains(sourceVertex) && graph.containsEdge(sourceVertex, targetVertex);
+   }
+
+   @Override
+   public boolean containsEdge(E e) {
+      return addedEdges.containsKey(e) || (!removedEdges.contains(e) && graph.containsEdge(e));
+   }
+
+   @Override
+   public boolean containsVertex(V v) {
+      return addedVertices.contains(v) || (!removedVertices.contains(v) && graph.containsVertex(v));
+   }
+
+   @Override
+   public Set<E> edgeSet() {
+      return new AbstractSet<E>() {
+
+         @Override
+         public Iterator<E> iterator() {
+            return Stream.concat(graph.edgeSet().stream()
+                    .filter(edge -> !removedEdges.contains(edge) && !addedEdges.containsKey(edge)),
+                    addedEdges.keySet().stream()).iterator();
+         }
+
+         @Override
+         public boolean contains(Object edge) {
+            return addedEdges.containsKey(edge)
+                    || (!removedEdges.contains(edge) && graph.edgeSet().contains(edge));
+         }
+
+         @Override
+         public int size() {
+            return graph.edgeSet().size() - removedEdges.size() + addedEdges.size();
+         }
+      };
+   }
+
+   /**
+    * The edges of a vertex, in rotation order from its most recently added edge.
+    * @param vertex The vertex
+    * @return The incident edges, empty if the vertex is not in the graph
+    */
+   @Override
+   public Set<E> edgesOf(V vertex) {
+      Rotation<V, E> rotation = rotations.get(vertex);
+      if (rotation == null) {
+         return containsVertex(vertex) ? graph.edgesOf(vertex) : Collections.<E>emptySet();
+      }
+
+      Set<E> edges = new LinkedHashSet<>();
+      if (rotation.leaving != null) {
+         V neighbour = rotation.leaving;
+         do {
+            edges.add(rotation.edges.get(neighbour));
+            neighbour = rotation.next.get(neighbour);
+         } while (!neighbour.equals(rotation.leaving));
+      }
+      return edges;
+   }
+
+   @Override
+   public Set<V> vertexSet() {
+      return new AbstractSet<V>() {
+
+         @Override
+         public Iterator<V> iterator() {
+            return Stream.concat(graph.vertexSet().stream()
+                    .filter(vertex -> !removedVertices.contains(vertex)),
+                    addedVertices.stream()).iterator();
+         }
+
+         @Override
+         public boolean contains(Object vertex) {
+            return addedVertices.contains(vertex)
+                    || (!removedVertices.contains(vertex) && graph.vertexSet().contains(vertex));
+         }
+
+         @Override
+         public int size() {
+            return graph.vertexSet().size() - removedVertices.size() + addedVertices.size();
+         }
+      };
+   }
+
+   @Override
+   public V getEdgeSource(E e) {
+      DirectedEdge<V> addedEdge = addedEdges.get(e);
+      if (addedEdge != null) {
+         return addedEdge.getSource();
+      }
+      if (removedEdges.contains(e) || !graph.containsEdge(e)) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Edge not found."));
+      }
+      return graph.getEdgeSource(e);
+   }
+
+   @Override
+   public V getEdgeTarget(E e) {
+      DirectedEdge<V> addedEdge = addedEdges.get(e);
+      if (addedEdge != null) {
+         return addedEdge.getTarget();
+      }
+      if (removedEdges.contains(e) || !graph.containsEdge(e)) {
+         throw new GraphArgumentException(this,
+                 new NoSuchElementException("Edge not found."));
+      }
+      return graph.getEdgeTarget(e);
+   }
+
+   @Override
+   public double getEdgeWeight(E e) {
+      return addedEdges.containsKey(e) ? 1.0 : graph.getEdgeWeight(e);
+   }
+}
@@ -21,6 +21,7 @@
 package com.trickl.graph.planar;
 
 import com.trickl.graph.edges.DirectedEdge;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -177,11 +178,13 @@ public class PlanarSubGraph<V, E> implements PlanarGraph<V, E> {
 
    @Override
    public boolean removeAllEdges(Collection<? extends E> edges) {
-      boolean removed = false;
+      List<E> containedEdges = new ArrayList<E>();
       for (E edge : edges) {
-         removed = removed && removeEdge(edge);
+         if (containsEdge(edge)) {
+            containedEdges.add(edge);
+         }
       }
-      return removed;
+      return graph.removeAllEdges(containedEdges);
    }
 
    @Override
@@ -196,11 +199,13 @@ public class PlanarSubGraph<V, E> implements PlanarGraph<V, E> {
 
    @Override
    public boolean removeAllVertices(Collection<? extends V> vertices) {
-      boolean removed = false;
+      List<V> containedVertices = new ArrayList<V>();
       for (V vertex : vertices) {
-         removed = removed && removeVertex(vertex);
+         if (this.vertices.remove(vertex)) {
+            containedVertices.add(vertex);
+         }
       }
-      return removed;
+      return graph.removeAllVertices(containedVertices);
    }
 
    @Override
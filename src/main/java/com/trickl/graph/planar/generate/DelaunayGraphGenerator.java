@@ -183,8 +183,9 @@ public class DelaunayGraphGenerator<V, E> implements PlanarGraphGenerator<V, E,
    }
 
    private void removeBounds(PlanarGraph<Integer, UndirectedIdEdge<Integer>> graph) {      
-      for (Integer vertex : PlanarGraphs.getBoundaryVertices(graph)) {
-         graph.removeVertex(vertex);
+      List<Integer> boundaryVertices = PlanarGraphs.getBoundaryVertices(graph);
+      graph.removeAllVertices(boundaryVertices);
+      for (Integer vertex : boundaryVertices) {
          indexToCoordinate.remove(vertex);
       }
    }
@@ -24,7 +24,10 @@ import com.trickl.graph.Biconnectivity;
 import org.jgrapht.Graph;
 import org.jgrapht.graph.SimpleGraph;
 import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.Pseudograph;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 import org.junit.Test;
@@ -79,4 +82,72 @@ public class BiconnectivityTest {
       assertEquals(1, articulationPoints.size());
       assertEquals(2, (int) articulationPoints.get(0));
    }
+
+   @Test
+   public void bridgesAndBlockCutTree() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < 8; ++i) graph.addVertex(i);
+      graph.addEdge(0, 1);
+      graph.addEdge(1, 2);
+      graph.addEdge(2, 0);
+      DefaultEdge firstBridge = graph.addEdge(2, 3);
+      graph.addEdge(3, 4);
+      graph.addEdge(4, 5);
+      graph.addEdge(5, 3);
+      DefaultEdge secondBridge = graph.addEdge(5, 6);
+
+      Biconnectivity<Integer, DefaultEdge> connectivity = new Biconnectivity<Integer, DefaultEdge>(graph);
+      assertEquals(4, connectivity.getComponents());
+      assertEquals(new HashSet<Integer>(Arrays.asList(2, 3, 5)),
+              new HashSet<Integer>(connectivity.getArticulationPoints()));
+      assertEquals(new HashSet<DefaultEdge>(Arrays.asList(firstBridge, secondBridge)),
+              new HashSet<DefaultEdge>(connectivity.getBridges()));
+      assertEquals(connectivity.getComponent(graph.getEdge(0, 1)), connectivity.getComponent(graph.getEdge(2, 0)));
+      assertTrue(connectivity.getComponent(firstBridge) != connectivity.getComponent(graph.getEdge(3, 4)));
+
+      BlockCutTree<Integer> blockCutTree = connectivity.getBlockCutTree();
+      assertEquals(4, blockCutTree.getBlockCount());
+      int triangle = connectivity.getComponent(graph.getEdge(3, 4));
+      assertEquals(new HashSet<Integer>(Arrays.asList(3, 4, 5)),
+              new HashSet<Integer>(blockCutTree.getBlockVertices(triangle)));
+      assertEquals(new HashSet<Integer>(Arrays.asList(3, 5)),
+              new HashSet<Integer>(blockCutTree.getArticulationPoints(triangle)));
+      assertEquals(2, blockCutTree.getBlocks(3).size());
+      assertEquals(1, blockCutTree.getBlocks(4).size());
+      assertTrue(blockCutTree.getBlocks(7).isEmpty());
+      assertTrue(blockCutTree.isArticulationPoint(5));
+      assertFalse(blockCutTree.isArticulationPoint(6));
+   }
+
+   @Test(expected = GraphArgumentException.class)
+   public void selfLoopHasNoComponent() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new Pseudograph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < 2; ++i) graph.addVertex(i);
+      graph.addEdge(0, 1);
+      DefaultEdge loop = graph.addEdge(1, 1);
+
+      new Biconnectivity<Integer, DefaultEdge>(graph).getComponent(loop);
+   }
+
+   @Test(expected = GraphArgumentException.class)
+   public void blocksOfMissingVertex() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < 2; ++i) graph.addVertex(i);
+      graph.addEdge(0, 1);
+
+      new Biconnectivity<Integer, DefaultEdge>(graph).getBlockCutTree().getBlocks(2);
+   }
+
+   @Test
+   public void longPath() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      int length = 100000;
+      for (int i = 0; i < length; ++i) graph.addVertex(i);
+      for (int i = 1; i < length; ++i) graph.addEdge(i - 1, i);
+
+      Biconnectivity<Integer, DefaultEdge> connectivity = new Biconnectivity<Integer, DefaultEdge>(graph);
+      assertEquals(length - 1, connectivity.getComponents());
+      assertEquals(length - 1, connectivity.getBridges().size());
+      assertEquals(length - 2, connectivity.getArticulationPoints().size());
+   }
 }
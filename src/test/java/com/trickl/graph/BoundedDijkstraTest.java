@@ -0,0 +1,120 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import com.trickl.graph.neighbourhood.GaussianNeighbourhoodFunction;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import org.jgrapht.UndirectedGraph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleGraph;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class BoundedDijkstraTest {
+
+   private static final double TOLERANCE = 1e-12;
+
+   @Test
+   public void equalDistancesAreKept() throws Exception {
+      UndirectedGraph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      graph.addVertex(0);
+      for (int i = 1; i <= 6; ++i) {
+         graph.addVertex(i);
+         graph.addEdge(0, i);
+      }
+
+      NeighbourhoodFunction neighbourhoodFunction = new GaussianNeighbourhoodFunction();
+      Map<Integer, Double> weights = Graphs.getNeighbourhoodWeights(graph, 0, neighbourhoodFunction, 0.01);
+      assertEquals(7, weights.size());
+      for (int i = 1; i <= 6; ++i) {
+         assertEquals(neighbourhoodFunction.evaluate(1.), weights.get(i), TOLERANCE);
+      }
+      assertEquals(weights, new BoundedDijkstra<Integer, DefaultEdge>(graph)
+              .getNeighbourhoodWeights(0, neighbourhoodFunction, 0.01));
+   }
+
+   @Test
+   public void matchesSingleSourceSearch() throws Exception {
+      UndirectedGraph<Integer, DefaultEdge> graph = createGrid(12);
+      NeighbourhoodFunction neighbourhoodFunction = new GaussianNeighbourhoodFunction();
+      neighbourhoodFunction.setNeighbourhoodWidth(2);
+
+      BoundedDijkstra<Integer, DefaultEdge> dijkstra = new BoundedDijkstra<Integer, DefaultEdge>(graph);
+      dijkstra.setGrainSize(8);
+      Map<Integer, Map<Integer, Double>> all = dijkstra.getAllNeighbourhoodWeights(
+              neighbourhoodFunction, 0.05, new ForkJoinPool(4));
+      assertEquals(graph.vertexSet().size(), all.size());
+
+      for (Integer vertex : graph.vertexSet()) {
+         Map<Integer, Double> expected = Graphs.getNeighbourhoodWeights(graph, vertex, neighbourhoodFunction, 0.05);
+         assertWeightsEqual(expected, dijkstra.getNeighbourhoodWeights(vertex, neighbourhoodFunction, 0.05));
+         assertWeightsEqual(expected, all.get(vertex));
+      }
+   }
+
+   @Test
+   public void multipleSources() throws Exception {
+      UndirectedGraph<Integer, DefaultEdge> graph = createGrid(10);
+      NeighbourhoodFunction neighbourhoodFunction = new GaussianNeighbourhoodFunction();
+      neighbourhoodFunction.setNeighbourhoodWidth(1.5);
+
+      BoundedDijkstra<Integer, DefaultEdge> dijkstra = new BoundedDijkstra<Integer, DefaultEdge>(graph);
+      Map<Integer, Double> weights = dijkstra.getNeighbourhoodWeights(Arrays.asList(0, 99),
+              neighbourhoodFunction, 0.1);
+      Map<Integer, Double> first = dijkstra.getNeighbourhoodWeights(0, neighbourhoodFunction, 0.1);
+      Map<Integer, Double> second = dijkstra.getNeighbourhoodWeights(99, neighbourhoodFunction, 0.1);
+
+      // The neighbourhoods are disjoint, so the union is their combination
+      assertEquals(first.size() + second.size(), weights.size());
+      for (Map.Entry<Integer, Double> entry : weights.entrySet()) {
+         Double expected = first.containsKey(entry.getKey()) ? first.get(entry.getKey()) : second.get(entry.getKey());
+         assertEquals(expected, entry.getValue(), TOLERANCE);
+      }
+   }
+
+   @Test(expected = GraphArgumentException.class)
+   public void missingSource() throws Exception {
+      new BoundedDijkstra<Integer, DefaultEdge>(createGrid(3))
+              .getNeighbourhoodWeights(42, new GaussianNeighbourhoodFunction(), 0.1);
+   }
+
+   private static UndirectedGraph<Integer, DefaultEdge> createGrid(int size) {
+      UndirectedGraph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < size * size; ++i) graph.addVertex(i);
+      for (int row = 0; row < size; ++row) {
+         for (int column = 0; column < size; ++column) {
+            int vertex = row * size + column;
+            if (column + 1 < size) graph.addEdge(vertex, vertex + 1);
+            if (row + 1 < size) graph.addEdge(vertex, vertex + size);
+         }
+      }
+      return graph;
+   }
+
+   private static <V> void assertWeightsEqual(Map<V, Double> expected, Map<V, Double> actual) {
+      assertEquals(expected.keySet(), actual.keySet());
+      for (Map.Entry<V, Double> entry : expected.entrySet()) {
+         assertEquals(entry.getValue(), actual.get(entry.getKey()), TOLERANCE);
+      }
+   }
+}
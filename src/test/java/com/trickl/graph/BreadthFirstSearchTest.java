@@ -23,11 +23,15 @@ package com.trickl.graph;
 import com.trickl.graph.BreadthFirstSearch;
 import com.trickl.graph.SpanningSearchVisitor;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.jgrapht.Graph;
 import org.jgrapht.graph.DefaultEdge;
 import org.jgrapht.graph.SimpleDirectedGraph;
+import org.jgrapht.graph.SimpleGraph;
 
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -119,4 +123,203 @@ public class BreadthFirstSearchTest {
       assertEquals(4, (int) indexer.getOrder().get(6));
       assertEquals(7, (int) indexer.getOrder().get(7));
    }
+
+   @Test
+   public void undirectedGraphEvents() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 1; i <= 4; ++i) graph.addVertex(i);
+      graph.addEdge(1, 2);
+      graph.addEdge(1, 3);
+      graph.addEdge(2, 3);
+      BreadthFirstSearch<Integer, DefaultEdge> search = new BreadthFirstSearch<Integer, DefaultEdge>(graph);
+      final List<String> events = new ArrayList<String>();
+      search.traverse(new AbstractSpanningSearchVisitor<Integer, DefaultEdge>() {
+
+         @Override
+         public void startVertex(Integer u) {
+            events.add("start " + u);
+         }
+
+         @Override
+         public void treeEdge(Integer source, Integer target) {
+            events.add("tree " + source + "-" + target);
+         }
+
+         @Override
+         public void backEdge(Integer source, Integer target) {
+            events.add("back " + source + "-" + target);
+         }
+
+         @Override
+         public void forwardOrCrossEdge(Integer source, Integer target) {
+            events.add("cross " + source + "-" + target);
+         }
+
+         @Override
+         public void finishVertex(Integer u) {
+            events.add("finish " + u);
+         }
+      });
+
+      assertEquals("[start 1, tree 1-2, tree 1-3, finish 1, cross 2-1, back 2-3, finish 2, "
+              + "cross 3-1, cross 3-2, finish 3, start 4, finish 4]", events.toString());
+   }
+
+   @Test
+   public void iteratorMatchesSearchOrder() throws Exception {
+      Graph<Integer, DefaultEdge> graph = createClockwiseGraph();
+      BreadthFirstSearchIterator<Integer, DefaultEdge> iterator
+              = new BreadthFirstSearch<Integer, DefaultEdge>(graph).iterator(1);
+      List<String> order = new ArrayList<String>();
+      while (iterator.hasNext()) {
+         Integer vertex = iterator.next();
+         order.add(vertex + ":" + iterator.getHopCount());
+      }
+
+      assertEquals("[1:0, 2:1, 5:1, 8:1, 3:2, 6:2, 4:3, 7:3]", order.toString());
+   }
+
+   @Test
+   public void iteratorStopsEarly() throws Exception {
+      CountingGraph graph = new CountingGraph(1000);
+      Integer found = new BreadthFirstSearch<Integer, DefaultEdge>(graph).stream(0)
+              .filter(vertex -> vertex == 3)
+              .findFirst().get();
+
+      assertEquals(3, (int) found);
+      assertEquals(3, graph.getEdgesOfCount());
+   }
+
+   @Test
+   public void hopLimitedSingleComponent() throws Exception {
+      CountingGraph graph = new CountingGraph(1000);
+      BreadthFirstSearch<Integer, DefaultEdge> search = new BreadthFirstSearch<Integer, DefaultEdge>(graph);
+      search.setSingleComponent(true);
+      Map<Integer, Integer> hopCounts = new HashMap<Integer, Integer>();
+      search.traverse(500, new HopCountVisitor<Integer, DefaultEdge>(hopCounts, 2));
+
+      assertEquals(5, hopCounts.size());
+      assertEquals(2, (int) hopCounts.get(498));
+      assertEquals(2, (int) hopCounts.get(502));
+      // Only the vertices within one hop are expanded
+      assertEquals(3, graph.getEdgesOfCount());
+   }
+
+   @Test
+   public void hopLimitedAllComponents() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < 4; ++i) graph.addVertex(i);
+      graph.addEdge(0, 1);
+      graph.addEdge(1, 2);
+      graph.addEdge(2, 3);
+      Map<Integer, Integer> hopCounts = new HashMap<Integer, Integer>();
+      new BreadthFirstSearch<Integer, DefaultEdge>(graph).traverse(0,
+              new HopCountVisitor<Integer, DefaultEdge>(hopCounts, 1));
+
+      // Vertices beyond the limit are not restarted from at zero hops
+      assertEquals(2, hopCounts.size());
+      assertEquals(0, (int) hopCounts.get(0));
+      assertEquals(1, (int) hopCounts.get(1));
+   }
+
+   @Test
+   public void terminateStopsSearch() throws Exception {
+      Graph<Integer, DefaultEdge> graph = createClockwiseGraph();
+      graph.addVertex(9);
+      final List<Integer> discovered = new ArrayList<Integer>();
+      final List<Integer> finished = new ArrayList<Integer>();
+      new BreadthFirstSearch<Integer, DefaultEdge>(graph).traverse(1, new ControlledVisitor(discovered, finished) {
+
+         @Override
+         public SearchControl controlVertex(Integer u) {
+            return u == 8 ? SearchControl.TERMINATE : SearchControl.CONTINUE;
+         }
+      });
+
+      assertEquals("[1, 2, 5, 8]", discovered.toString());
+      assertTrue(finished.isEmpty());
+   }
+
+   @Test
+   public void skipChildrenPrunesSubtree() throws Exception {
+      Graph<Integer, DefaultEdge> graph = createClockwiseGraph();
+      final List<Integer> discovered = new ArrayList<Integer>();
+      final List<Integer> finished = new ArrayList<Integer>();
+      BreadthFirstSearch<Integer, DefaultEdge> search = new BreadthFirstSearch<Integer, DefaultEdge>(graph);
+      search.setSingleComponent(true);
+      search.traverse(1, new ControlledVisitor(discovered, finished) {
+
+         @Override
+         public SearchControl controlVertex(Integer u) {
+            return u == 5 ? SearchControl.SKIP_CHILDREN : SearchControl.CONTINUE;
+         }
+      });
+
+      // 6 and 7 are only reachable through 5
+      assertEquals("[1, 2, 5, 8, 3, 4]", discovered.toString());
+      assertEquals("[5, 1, 2, 8, 3, 4]", finished.toString());
+   }
+
+   static class ControlledVisitor extends AbstractSpanningSearchVisitor<Integer, DefaultEdge>
+           implements ControlledSpanningSearchVisitor<Integer, DefaultEdge> {
+
+      private final List<Integer> discovered;
+      private final List<Integer> finished;
+
+      ControlledVisitor(List<Integer> discovered, List<Integer> finished) {
+         this.discovered = discovered;
+         this.finished = finished;
+      }
+
+      @Override
+      public void discoverVertex(Integer u) {
+         discovered.add(u);
+      }
+
+      @Override
+      public void finishVertex(Integer u) {
+         finished.add(u);
+      }
+   }
+
+   static Graph<Integer, DefaultEdge> createClockwiseGraph() {
+      Graph<Integer, DefaultEdge> graph = new SimpleDirectedGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 1; i <= 8; ++i) graph.addVertex(i);
+      graph.addEdge(1, 2);
+      graph.addEdge(1, 5);
+      graph.addEdge(1, 8);
+      graph.addEdge(2, 3);
+      graph.addEdge(3, 4);
+      graph.addEdge(4, 2);
+      graph.addEdge(5, 6);
+      graph.addEdge(6, 3);
+      graph.addEdge(6, 7);
+      graph.addEdge(6, 8);
+      return graph;
+   }
+
+   /**
+    * A path graph that counts the vertices whose edges have been listed.
+    */
+   static class CountingGraph extends SimpleGraph<Integer, DefaultEdge> {
+
+      private int edgesOfCount;
+
+      CountingGraph(int length) {
+         super(DefaultEdge.class);
+         for (int i = 0; i < length; ++i) addVertex(i);
+         for (int i = 1; i < length; ++i) addEdge(i - 1, i);
+         edgesOfCount = 0;
+      }
+
+      @Override
+      public Set<DefaultEdge> edgesOf(Integer vertex) {
+         ++edgesOfCount;
+         return super.edgesOf(vertex);
+      }
+
+      int getEdgesOfCount() {
+         return edgesOfCount;
+      }
+   }
 }
@@ -28,6 +28,7 @@ import java.util.List;
 import org.jgrapht.Graph;
 import org.jgrapht.graph.DefaultEdge;
 import org.jgrapht.graph.SimpleDirectedGraph;
+import org.jgrapht.graph.SimpleGraph;
 
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -112,6 +113,110 @@ public class DepthFirstSearchTest {
       assertList(indexer.getOrder(), "4,3,2,7,8,6,5,1");
    }
 
+   @Test
+   public void undirectedGraphEvents() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 1; i <= 4; ++i) graph.addVertex(i);
+      graph.addEdge(1, 2);
+      graph.addEdge(1, 3);
+      graph.addEdge(2, 3);
+      DepthFirstSearch<Integer, DefaultEdge> search = new DepthFirstSearch<Integer, DefaultEdge>(graph);
+      final List<String> events = new ArrayList<String>();
+      search.traverse(new AbstractSpanningSearchVisitor<Integer, DefaultEdge>() {
+
+         @Override
+         public void startVertex(Integer u) {
+            events.add("start " + u);
+         }
+
+         @Override
+         public void treeEdge(Integer source, Integer target) {
+            events.add("tree " + source + "-" + target);
+         }
+
+         @Override
+         public void backEdge(Integer source, Integer target) {
+            events.add("back " + source + "-" + target);
+         }
+
+         @Override
+         public void forwardOrCrossEdge(Integer source, Integer target) {
+            events.add("cross " + source + "-" + target);
+         }
+
+         @Override
+         public void finishVertex(Integer u) {
+            events.add("finish " + u);
+         }
+      });
+
+      assertEquals("[start 1, tree 1-2, back 2-1, tree 2-3, back 3-1, back 3-2, finish 3, finish 2, "
+              + "cross 1-3, finish 1, start 4, finish 4]", events.toString());
+   }
+
+   @Test
+   public void iteratorMatchesSearchOrder() throws Exception {
+      Graph<Integer, DefaultEdge> graph = BreadthFirstSearchTest.createClockwiseGraph();
+      DepthFirstSearchIterator<Integer, DefaultEdge> iterator
+              = new DepthFirstSearch<Integer, DefaultEdge>(graph).iterator(1);
+      List<String> order = new ArrayList<String>();
+      while (iterator.hasNext()) {
+         Integer vertex = iterator.next();
+         order.add(vertex + ":" + iterator.getHopCount());
+      }
+
+      assertEquals("[1:0, 2:1, 3:2, 4:3, 5:1, 6:2, 7:3, 8:3]", order.toString());
+   }
+
+   @Test
+   public void iteratorStopsEarly() throws Exception {
+      BreadthFirstSearchTest.CountingGraph graph = new BreadthFirstSearchTest.CountingGraph(1000);
+      Integer found = new DepthFirstSearch<Integer, DefaultEdge>(graph).stream(0)
+              .filter(vertex -> vertex == 3)
+              .findFirst().get();
+
+      assertEquals(3, (int) found);
+      assertEquals(3, graph.getEdgesOfCount());
+   }
+
+   @Test
+   public void terminateStopsSearch() throws Exception {
+      Graph<Integer, DefaultEdge> graph = BreadthFirstSearchTest.createClockwiseGraph();
+      final List<Integer> discovered = new ArrayList<Integer>();
+      final List<Integer> finished = new ArrayList<Integer>();
+      new DepthFirstSearch<Integer, DefaultEdge>(graph).traverse(1,
+              new BreadthFirstSearchTest.ControlledVisitor(discovered, finished) {
+
+         @Override
+         public SearchControl controlEdge(Integer source, Integer target) {
+            return target == 6 ? SearchControl.TERMINATE : SearchControl.CONTINUE;
+         }
+      });
+
+      assertEquals("[1, 2, 3, 4, 5]", discovered.toString());
+      assertEquals("[4, 3, 2]", finished.toString());
+   }
+
+   @Test
+   public void skipChildrenSingleComponent() throws Exception {
+      Graph<Integer, DefaultEdge> graph = BreadthFirstSearchTest.createClockwiseGraph();
+      graph.addVertex(9);
+      final List<Integer> discovered = new ArrayList<Integer>();
+      final List<Integer> finished = new ArrayList<Integer>();
+      DepthFirstSearch<Integer, DefaultEdge> search = new DepthFirstSearch<Integer, DefaultEdge>(graph);
+      search.setSingleComponent(true);
+      search.traverse(1, new BreadthFirstSearchTest.ControlledVisitor(discovered, finished) {
+
+         @Override
+         public SearchControl controlVertex(Integer u) {
+            return u == 2 ? SearchControl.SKIP_CHILDREN : SearchControl.CONTINUE;
+         }
+      });
+
+      assertEquals("[1, 2, 5, 6, 3, 4, 7, 8]", discovered.toString());
+      assertEquals("[2, 4, 3, 7, 8, 6, 5, 1]", finished.toString());
+   }
+
       static private <V> void assertList(List<V> list, String str) {
 
       StringBuffer idString = new StringBuffer();
@@ -0,0 +1,116 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import org.jgrapht.ListenableGraph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.ListenableUndirectedGraph;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class IncrementalConnectivityTest {
+
+   @Test
+   public void emptyGraph() throws Exception {
+      ListenableGraph<Integer, DefaultEdge> graph = new ListenableUndirectedGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      IncrementalConnectivity<Integer, DefaultEdge> connectivity = new IncrementalConnectivity<Integer, DefaultEdge>(graph);
+      assertEquals(0, connectivity.getComponents());
+      assertFalse(connectivity.isConnected());
+   }
+
+   @Test
+   public void tracksEdgeAdditions() throws Exception {
+      ListenableGraph<Integer, DefaultEdge> graph = new ListenableUndirectedGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      IncrementalConnectivity<Integer, DefaultEdge> connectivity = new IncrementalConnectivity<Integer, DefaultEdge>(graph);
+      graph.addGraphListener(connectivity);
+
+      for (int i = 0; i < 8; ++i) graph.addVertex(i);
+      assertEquals(8, connectivity.getComponents());
+
+      // First Part
+      graph.addEdge(1, 2);
+      graph.addEdge(2, 3);
+      graph.addEdge(3, 1);
+      assertEquals(6, connectivity.getComponents());
+      assertTrue(connectivity.isConnected(1, 3));
+
+      // Second Part
+      graph.addEdge(0, 7);
+      graph.addEdge(0, 4);
+      graph.addEdge(4, 5);
+      graph.addEdge(5, 7);
+      graph.addEdge(5, 6);
+      assertEquals(2, connectivity.getComponents());
+      assertFalse(connectivity.isConnected(1, 6));
+      assertComponentsMatch(graph, connectivity);
+
+      graph.addEdge(5, 2);
+      assertTrue(connectivity.isConnected());
+      assertComponentsMatch(graph, connectivity);
+   }
+
+   @Test
+   public void rebuildsAfterRemoval() throws Exception {
+      ListenableGraph<Integer, DefaultEdge> graph = new ListenableUndirectedGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < 6; ++i) graph.addVertex(i);
+      for (int i = 0; i < 5; ++i) graph.addEdge(i, i + 1);
+
+      IncrementalConnectivity<Integer, DefaultEdge> connectivity = new IncrementalConnectivity<Integer, DefaultEdge>(graph);
+      graph.addGraphListener(connectivity);
+      assertTrue(connectivity.isConnected());
+
+      graph.removeEdge(2, 3);
+      assertEquals(2, connectivity.getComponents());
+      assertComponentsMatch(graph, connectivity);
+
+      graph.removeVertex(1);
+      assertEquals(3, connectivity.getComponents());
+      assertComponentsMatch(graph, connectivity);
+
+      graph.addEdge(0, 5);
+      assertEquals(2, connectivity.getComponents());
+      assertComponentsMatch(graph, connectivity);
+   }
+
+   @Test
+   public void makeConnected() throws Exception {
+      ListenableGraph<Integer, DefaultEdge> graph = new ListenableUndirectedGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < 7; ++i) graph.addVertex(i);
+      graph.addEdge(0, 3);
+      graph.addEdge(1, 4);
+
+      IncrementalConnectivity<Integer, DefaultEdge> connectivity = new IncrementalConnectivity<Integer, DefaultEdge>(graph);
+      graph.addGraphListener(connectivity);
+      assertEquals(5, connectivity.getComponents());
+      assertEquals(4, connectivity.makeConnected().size());
+      assertTrue(connectivity.isConnected());
+      assertTrue(new Connectivity<Integer, DefaultEdge>(graph).isConnected());
+   }
+
+   private static void assertComponentsMatch(ListenableGraph<Integer, DefaultEdge> graph,
+           IncrementalConnectivity<Integer, DefaultEdge> connectivity) {
+      Connectivity<Integer, DefaultEdge> expected = new Connectivity<Integer, DefaultEdge>(graph);
+      assertEquals(expected.getComponents(), connectivity.getComponents());
+      for (Integer vertex : graph.vertexSet()) {
+         assertEquals(expected.getComponent(vertex), connectivity.getComponent(vertex));
+      }
+   }
+}
@@ -0,0 +1,201 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import cern.colt.matrix.impl.DenseDoubleMatrix1D;
+import java.util.concurrent.ForkJoinPool;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.Pseudograph;
+import org.jgrapht.graph.SimpleGraph;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class LaplacianGeneratorTest {
+
+   private static final double EPSILON = 1e-12;
+
+   @Test
+   public void weightedTriangleWithTail() throws Exception {
+      SimpleWeightedGraph<Integer, DefaultWeightedEdge> graph
+              = new SimpleWeightedGraph<Integer, DefaultWeightedEdge>(DefaultWeightedEdge.class);
+      for (int i = 0; i < 4; ++i) graph.addVertex(i);
+      graph.setEdgeWeight(graph.addEdge(0, 1), 2);
+      graph.setEdgeWeight(graph.addEdge(1, 2), 3);
+      graph.setEdgeWeight(graph.addEdge(2, 0), 4);
+      graph.setEdgeWeight(graph.addEdge(2, 3), 5);
+
+      LaplacianGenerator<Integer, DefaultWeightedEdge> generator
+              = new LaplacianGenerator<Integer, DefaultWeightedEdge>(graph);
+      DoubleMatrix2D laplacian = generator.getLaplacian();
+      assertEquals(4, laplacian.rows());
+      assertEquals(12, generator.getCompressedLaplacian().getNonZeroCount());
+
+      int a = generator.getIndex(0);
+      int b = generator.getIndex(1);
+      int c = generator.getIndex(2);
+      int d = generator.getIndex(3);
+      assertEquals(6, laplacian.getQuick(a, a), EPSILON);
+      assertEquals(12, laplacian.getQuick(c, c), EPSILON);
+      assertEquals(-2, laplacian.getQuick(a, b), EPSILON);
+      assertEquals(-2, laplacian.getQuick(b, a), EPSILON);
+      assertEquals(-5, laplacian.getQuick(d, c), EPSILON);
+      assertEquals(0, laplacian.getQuick(a, d), EPSILON);
+      assertRowsSumToZero(laplacian);
+
+      // Views and products see the same entries
+      assertEquals(-5, laplacian.viewDice().getQuick(c, d), EPSILON);
+      assertEquals(-4, laplacian.viewRow(c).getQuick(a), EPSILON);
+      DoubleMatrix1D ones = new DenseDoubleMatrix1D(4).assign(1);
+      assertEquals(0, laplacian.zMult(ones, null).zSum(), EPSILON);
+   }
+
+   @Test
+   public void parallelEdgesAndSelfLoops() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new Pseudograph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < 3; ++i) graph.addVertex(i);
+      graph.addEdge(0, 1);
+      graph.addEdge(1, 0);
+      graph.addEdge(1, 2);
+      graph.addEdge(2, 2);
+
+      LaplacianGenerator<Integer, DefaultEdge> generator = new LaplacianGenerator<Integer, DefaultEdge>(graph);
+      DoubleMatrix2D laplacian = generator.getLaplacian();
+      int a = generator.getIndex(0);
+      int b = generator.getIndex(1);
+      int c = generator.getIndex(2);
+      assertEquals(-2, laplacian.getQuick(a, b), EPSILON);
+      assertEquals(3, laplacian.getQuick(b, b), EPSILON);
+      assertEquals(-1, laplacian.getQuick(c, b), EPSILON);
+      // The self-loop cancels in D - A
+      assertEquals(1, laplacian.getQuick(c, c), EPSILON);
+      assertEquals(7, generator.getCompressedLaplacian().getNonZeroCount());
+
+      // Constant vectors are in the null space of both unnormalized operators
+      double[] ones = {1, 1, 1};
+      for (LaplacianType type : new LaplacianType[]{LaplacianType.COMBINATORIAL, LaplacianType.RANDOM_WALK}) {
+         double[] y = generator.getLaplacianOperator(type).operate(new ArrayRealVector(ones)).toArray();
+         for (int i = 0; i < 3; ++i) {
+            assertEquals(0, y[i], EPSILON);
+         }
+      }
+   }
+
+   @Test
+   public void normalizedOperators() throws Exception {
+      SimpleWeightedGraph<Integer, DefaultWeightedEdge> graph
+              = new SimpleWeightedGraph<Integer, DefaultWeightedEdge>(DefaultWeightedEdge.class);
+      for (int i = 0; i < 5; ++i) graph.addVertex(i);
+      graph.setEdgeWeight(graph.addEdge(0, 1), 2);
+      graph.setEdgeWeight(graph.addEdge(1, 2), 3);
+      graph.setEdgeWeight(graph.addEdge(2, 0), 4);
+      graph.setEdgeWeight(graph.addEdge(2, 3), 5);
+
+      LaplacianGenerator<Integer, DefaultWeightedEdge> generator
+              = new LaplacianGenerator<Integer, DefaultWeightedEdge>(graph);
+      DoubleMatrix2D laplacian = generator.getLaplacian();
+      LaplacianOperator symmetric = generator.getLaplacianOperator(LaplacianType.SYMMETRIC_NORMALIZED);
+      LaplacianOperator randomWalk = generator.getLaplacianOperator(LaplacianType.RANDOM_WALK);
+      LaplacianOperator combinatorial = generator.getLaplacianOperator(LaplacianType.COMBINATORIAL);
+
+      int n = laplacian.rows();
+      double[] x = {0.5, -1, 2, 0.25, 3};
+      double[] ySymmetric = symmetric.operate(new ArrayRealVector(x)).toArray();
+      double[] yRandomWalk = randomWalk.operate(new ArrayRealVector(x)).toArray();
+      double[] yRandomWalkTranspose = randomWalk.operateTranspose(new ArrayRealVector(x)).toArray();
+      double[] yCombinatorial = combinatorial.operate(new ArrayRealVector(x)).toArray();
+      for (int i = 0; i < n; ++i) {
+         double di = laplacian.getQuick(i, i);
+         double expectedSymmetric = 0;
+         double expectedRandomWalk = 0;
+         double expectedRandomWalkTranspose = 0;
+         double expectedCombinatorial = 0;
+         for (int j = 0; j < n; ++j) {
+            double dj = laplacian.getQuick(j, j);
+            double lij = laplacian.getQuick(i, j);
+            expectedCombinatorial += lij * x[j];
+            if (di > 0 && dj > 0) {
+               expectedSymmetric += lij * x[j] / Math.sqrt(di * dj);
+               expectedRandomWalkTranspose += lij * x[j] / dj;
+            }
+            if (di > 0) {
+               expectedRandomWalk += lij * x[j] / di;
+            }
+         }
+         assertEquals(expectedSymmetric, ySymmetric[i], EPSILON);
+         assertEquals(expectedRandomWalk, yRandomWalk[i], EPSILON);
+         assertEquals(expectedRandomWalkTranspose, yRandomWalkTranspose[i], EPSILON);
+         assertEquals(expectedCombinatorial, yCombinatorial[i], EPSILON);
+      }
+
+      // Constant vectors are in the kernel of the random walk Laplacian
+      double[] ones = {1, 1, 1, 1, 1};
+      double[] y = new double[n];
+      randomWalk.operate(ones, y);
+      for (int i = 0; i < n; ++i) {
+         assertEquals(0, y[i], EPSILON);
+      }
+
+      // The isolated vertex has an empty row
+      assertEquals(0, symmetric.getDegree(generator.getIndex(4)), EPSILON);
+      assertEquals(0, ySymmetric[generator.getIndex(4)], EPSILON);
+   }
+
+   @Test
+   public void parallelMatchesSequential() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      int width = 40;
+      for (int i = 0; i < width * width; ++i) graph.addVertex(i);
+      for (int i = 0; i < width; ++i) {
+         for (int j = 0; j < width; ++j) {
+            if (i + 1 < width) graph.addEdge(i * width + j, (i + 1) * width + j);
+            if (j + 1 < width) graph.addEdge(i * width + j, i * width + j + 1);
+         }
+      }
+
+      CompressedRowMatrix sequential = new LaplacianGenerator<Integer, DefaultEdge>(graph).getCompressedLaplacian();
+      LaplacianGenerator<Integer, DefaultEdge> generator
+              = new LaplacianGenerator<Integer, DefaultEdge>(graph, new ForkJoinPool(4));
+      generator.setGrainSize(16);
+      CompressedRowMatrix parallel = generator.getCompressedLaplacian();
+
+      assertEquals(sequential.getNonZeroCount(), parallel.getNonZeroCount());
+      for (int i = 0; i < sequential.rows(); ++i) {
+         assertEquals(sequential.getRowStart(i), parallel.getRowStart(i));
+         for (int k = sequential.getRowStart(i); k < sequential.getRowEnd(i); ++k) {
+            assertEquals(sequential.getColumnIndex(k), parallel.getColumnIndex(k));
+            assertEquals(sequential.getValue(k), parallel.getValue(k), EPSILON);
+         }
+      }
+      assertRowsSumToZero(parallel);
+   }
+
+   private static void assertRowsSumToZero(DoubleMatrix2D laplacian) {
+      for (int i = 0; i < laplacian.rows(); ++i) {
+         assertEquals(0, laplacian.viewRow(i).zSum(), EPSILON);
+      }
+   }
+}
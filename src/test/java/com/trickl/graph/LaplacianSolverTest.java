@@ -0,0 +1,169 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import cern.colt.matrix.DoubleMatrix2D;
+import cern.colt.matrix.impl.DenseDoubleMatrix2D;
+import cern.colt.matrix.linalg.Algebra;
+import cern.jet.random.engine.MersenneTwister;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.Pseudograph;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class LaplacianSolverTest {
+
+   private static final double EPSILON = 1e-6;
+
+   @Test
+   public void solveMatchesPseudoInverse() throws Exception {
+      CompressedRowMatrix laplacian = new LaplacianGenerator<Integer, DefaultWeightedEdge>(createWeightedGraph())
+              .getCompressedLaplacian();
+      DoubleMatrix2D pseudoInverse = pseudoInverse(laplacian);
+
+      LaplacianSolver solver = new LaplacianSolver(laplacian);
+      assertEquals(1, solver.getComponentCount());
+      int n = laplacian.rows();
+      double[] x = new double[n];
+      for (int j = 0; j < n; ++j) {
+         double[] b = new double[n];
+         b[j] = 1;
+         solver.solve(b, x);
+         for (int i = 0; i < n; ++i) {
+            assertEquals(pseudoInverse.getQuick(i, j), x[i], EPSILON);
+         }
+      }
+   }
+
+   @Test
+   public void disconnectedComponentsSolvedSeparately() throws Exception {
+      SimpleWeightedGraph<Integer, DefaultWeightedEdge> graph = createWeightedGraph();
+      for (int i = 6; i < 9; ++i) graph.addVertex(i);
+      graph.addEdge(6, 7);
+      graph.addEdge(7, 8);
+
+      LaplacianGenerator<Integer, DefaultWeightedEdge> generator
+              = new LaplacianGenerator<Integer, DefaultWeightedEdge>(graph);
+      LaplacianSolver solver = new LaplacianSolver(generator.getCompressedLaplacian());
+      assertEquals(2, solver.getComponentCount());
+      assertEquals(solver.getComponent(generator.getIndex(6)), solver.getComponent(generator.getIndex(8)));
+      assertTrue(solver.getComponent(generator.getIndex(0)) != solver.getComponent(generator.getIndex(8)));
+
+      double[] b = new double[9];
+      b[generator.getIndex(6)] = 1;
+      b[generator.getIndex(8)] = -1;
+      double[] x = new double[9];
+      solver.solve(b, x);
+      for (int i = 0; i < 6; ++i) {
+         assertEquals(0, x[generator.getIndex(i)], EPSILON);
+      }
+
+      // Unit current across two unit resistors in series
+      assertEquals(2, x[generator.getIndex(6)] - x[generator.getIndex(8)], EPSILON);
+      assertEquals(0, x[generator.getIndex(6)] + x[generator.getIndex(7)] + x[generator.getIndex(8)], EPSILON);
+   }
+
+   @Test
+   public void embeddingApproximatesCommuteTimes() throws Exception {
+      CompressedRowMatrix laplacian = new LaplacianGenerator<Integer, DefaultWeightedEdge>(createWeightedGraph())
+              .getCompressedLaplacian();
+      DoubleMatrix2D pseudoInverse = pseudoInverse(laplacian);
+
+      CommuteTimeEmbedding embedding = new CommuteTimeEmbedding(new LaplacianSolver(laplacian),
+              2000, new MersenneTwister(42));
+      assertEquals(36, embedding.getVolume(), EPSILON);
+      int n = laplacian.rows();
+      for (int i = 0; i < n; ++i) {
+         for (int j = i + 1; j < n; ++j) {
+            double exact = embedding.getVolume() * (pseudoInverse.getQuick(i, i)
+                    + pseudoInverse.getQuick(j, j) - 2 * pseudoInverse.getQuick(i, j));
+            assertEquals(exact, embedding.getCommuteTime(i, j), 0.15 * exact);
+         }
+      }
+   }
+
+   @Test
+   public void selfLoopsIgnored() throws Exception {
+      Pseudograph<Integer, DefaultEdge> graph = new Pseudograph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < 3; ++i) graph.addVertex(i);
+      graph.addEdge(0, 1);
+      graph.addEdge(1, 0);
+      graph.addEdge(1, 2);
+      graph.addEdge(2, 2);
+      CompressedRowMatrix laplacian = new LaplacianGenerator<Integer, DefaultEdge>(graph)
+              .getCompressedLaplacian();
+
+      // The Laplacian of the same graph without its self-loop
+      graph.removeEdge(2, 2);
+      DoubleMatrix2D pseudoInverse = pseudoInverse(new LaplacianGenerator<Integer, DefaultEdge>(graph)
+              .getCompressedLaplacian());
+
+      LaplacianSolver solver = new LaplacianSolver(laplacian);
+      double[] x = new double[3];
+      for (int j = 0; j < 3; ++j) {
+         double[] b = new double[3];
+         b[j] = 1;
+         solver.solve(b, x);
+         for (int i = 0; i < 3; ++i) {
+            assertEquals(pseudoInverse.getQuick(i, j), x[i], EPSILON);
+         }
+      }
+
+      CommuteTimeEmbedding embedding = new CommuteTimeEmbedding(solver, 10, new MersenneTwister(42));
+      assertEquals(6, embedding.getVolume(), EPSILON);
+   }
+
+   private static SimpleWeightedGraph<Integer, DefaultWeightedEdge> createWeightedGraph() {
+      SimpleWeightedGraph<Integer, DefaultWeightedEdge> graph
+              = new SimpleWeightedGraph<Integer, DefaultWeightedEdge>(DefaultWeightedEdge.class);
+      for (int i = 0; i < 6; ++i) graph.addVertex(i);
+      graph.setEdgeWeight(graph.addEdge(0, 1), 2);
+      graph.setEdgeWeight(graph.addEdge(1, 2), 1);
+      graph.setEdgeWeight(graph.addEdge(2, 0), 3);
+      graph.setEdgeWeight(graph.addEdge(2, 3), 4);
+      graph.setEdgeWeight(graph.addEdge(3, 4), 1);
+      graph.setEdgeWeight(graph.addEdge(4, 5), 2);
+      graph.setEdgeWeight(graph.addEdge(5, 3), 5);
+      return graph;
+   }
+
+   /**
+    * For a connected graph L+ = (L + J/n)^-1 - J/n, where J is all ones.
+    */
+   private static DoubleMatrix2D pseudoInverse(DoubleMatrix2D laplacian) {
+      int n = laplacian.rows();
+      DoubleMatrix2D shifted = new DenseDoubleMatrix2D(n, n);
+      for (int i = 0; i < n; ++i) {
+         for (int j = 0; j < n; ++j) {
+            shifted.setQuick(i, j, laplacian.getQuick(i, j) + 1.0 / n);
+         }
+      }
+      DoubleMatrix2D inverse = Algebra.DEFAULT.inverse(shifted);
+      for (int i = 0; i < n; ++i) {
+         for (int j = 0; j < n; ++j) {
+            inverse.setQuick(i, j, inverse.getQuick(i, j) - 1.0 / n);
+         }
+      }
+      return inverse;
+   }
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import cern.colt.matrix.DoubleMatrix2D;
+import cern.colt.matrix.impl.DenseDoubleMatrix2D;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class MatrixBlocksTest {
+
+   @Test
+   public void blocksCoverMatrix() throws Exception {
+      final DoubleMatrix2D matrix = new DenseDoubleMatrix2D(11, 7);
+      for (int i = 0; i < matrix.rows(); ++i) {
+         for (int j = 0; j < matrix.columns(); ++j) {
+            matrix.setQuick(i, j, i * 100 + j);
+         }
+      }
+      assertEquals(6, MatrixBlocks.getBlockCount(matrix, 4));
+
+      final AtomicIntegerArray visits = new AtomicIntegerArray(matrix.rows() * matrix.columns());
+      MatrixBlockVisitor visitor = (rowStart, columnStart, block) -> {
+         assertTrue(block.rows() <= 4 && block.columns() <= 4);
+         for (int i = 0; i < block.rows(); ++i) {
+            for (int j = 0; j < block.columns(); ++j) {
+               assertEquals(matrix.getQuick(rowStart + i, columnStart + j), block.getQuick(i, j), 0);
+               visits.incrementAndGet((rowStart + i) * matrix.columns() + columnStart + j);
+            }
+         }
+      };
+      MatrixBlocks.forEachBlock(matrix, 4, visitor);
+      MatrixBlocks.forEachBlock(matrix, 4, visitor, new ForkJoinPool(4));
+      for (int cell = 0; cell < visits.length(); ++cell) {
+         assertEquals(2, visits.get(cell));
+      }
+   }
+
+   @Test
+   public void mergedVarianceMatchesTwoPass() throws Exception {
+      Random random = new Random(11);
+      double[] values = new double[1000];
+      double sum = 0;
+      for (int i = 0; i < values.length; ++i) {
+         values[i] = 1e6 + random.nextGaussian();
+         sum += values[i];
+      }
+      double mean = sum / values.length;
+      double sumOfSquares = 0;
+      for (double value : values) {
+         sumOfSquares += (value - mean) * (value - mean);
+      }
+
+      RunningVariance first = new RunningVariance();
+      RunningVariance second = new RunningVariance();
+      for (int i = 0; i < values.length; ++i) {
+         (i < 300 ? first : second).add(values[i]);
+      }
+      first.merge(second);
+      first.merge(new RunningVariance());
+
+      assertEquals(values.length, first.getCount());
+      assertEquals(mean, first.getMean(), 1e-9);
+      assertEquals(sumOfSquares / (values.length - 1), first.getVariance(), 1e-9);
+   }
+}
@@ -0,0 +1,135 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import com.trickl.graph.edges.IntegerEdgeFactory;
+import com.trickl.graph.planar.DoublyConnectedEdgeList;
+import com.trickl.graph.planar.PlanarGraphs;
+import com.trickl.graph.planar.generate.PlanarCircleGraphGenerator;
+import com.trickl.graph.vertices.IntegerVertexFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.jgrapht.graph.SimpleGraph;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class ParallelBreadthFirstSearchTest {
+
+   @Test
+   public void circleGraph() throws Exception {
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(500).generateGraph(graph, new IntegerVertexFactory(), null);
+
+      // Starting at the hub switches to bottom up on the first level
+      assertMatchesSequential(graph, 0, 8);
+      assertMatchesSequential(graph, 7, 8);
+   }
+
+   @Test
+   public void disconnectedGrid() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      int size = 30;
+      for (int i = 0; i < size * size; ++i) graph.addVertex(i);
+      for (int row = 0; row < size; ++row) {
+         for (int column = 0; column < size; ++column) {
+            int vertex = row * size + column;
+            if (column + 1 < size) graph.addEdge(vertex, vertex + 1);
+            if (row + 1 < size) graph.addEdge(vertex, vertex + size);
+         }
+      }
+
+      // A separate path component
+      for (int i = 0; i < 5; ++i) graph.addVertex(size * size + i);
+      for (int i = 0; i < 4; ++i) graph.addEdge(size * size + i, size * size + i + 1);
+
+      assertMatchesSequential(graph, 0, 16);
+      assertMatchesSequential(graph, size * size + 2, 16);
+   }
+
+   @Test
+   public void directedGraph() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleDirectedGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 1; i <= 8; ++i) graph.addVertex(i);
+      graph.addEdge(1, 2);
+      graph.addEdge(1, 5);
+      graph.addEdge(1, 8);
+      graph.addEdge(2, 3);
+      graph.addEdge(3, 4);
+      graph.addEdge(4, 2);
+      graph.addEdge(5, 6);
+      graph.addEdge(6, 7);
+      graph.addEdge(6, 3);
+      graph.addEdge(6, 8);
+
+      assertMatchesSequential(graph, 1, 1);
+      assertMatchesSequential(graph, 6, 1);
+   }
+
+   @Test
+   public void boundaryHops() throws Exception {
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(50).generateGraph(graph, new IntegerVertexFactory(), null);
+
+      Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+      PlanarGraphs.boundaryHops(graph, expected);
+      Map<Integer, Integer> actual = new HashMap<Integer, Integer>();
+      ForkJoinPool pool = new ForkJoinPool(4);
+      try {
+         PlanarGraphs.boundaryHops(graph, actual, pool);
+      } finally {
+         pool.shutdown();
+      }
+      assertEquals(expected, actual);
+      assertEquals(Integer.valueOf(1), actual.get(0));
+   }
+
+   private static <V, E> void assertMatchesSequential(Graph<V, E> graph, V startVertex, int grainSize) {
+      Map<V, Integer> expectedHopCounts = new HashMap<V, Integer>();
+      final Map<V, V> expectedParents = new HashMap<V, V>();
+      HopCountVisitor<V, E> hopCountVisitor = new HopCountVisitor<V, E>(expectedHopCounts) {
+
+         @Override
+         public void treeEdge(V source, V target) {
+            expectedParents.put(target, source);
+         }
+      };
+      new BreadthFirstSearch<V, E>(graph).traverse(startVertex, hopCountVisitor);
+
+      ForkJoinPool pool = new ForkJoinPool(4);
+      try {
+         ParallelBreadthFirstSearch<V, E> search = new ParallelBreadthFirstSearch<V, E>(graph, pool);
+         search.setGrainSize(grainSize);
+         search.traverse(startVertex);
+
+         assertEquals(expectedHopCounts, search.getVertexHopCounts());
+         assertEquals(expectedParents, search.getParents());
+         assertEquals(hopCountVisitor.getMaxHopCount(), search.getMaxHopCount());
+      } finally {
+         pool.shutdown();
+      }
+   }
+}
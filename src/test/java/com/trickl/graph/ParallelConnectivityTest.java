@@ -0,0 +1,108 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleGraph;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class ParallelConnectivityTest {
+
+   @Test
+   public void emptyGraph() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+
+      ParallelConnectivity<Integer, DefaultEdge> connectivity = new ParallelConnectivity<Integer, DefaultEdge>(graph);
+      assertEquals(0, connectivity.getComponents());
+   }
+
+   @Test
+   public void minimalConnectedGraph() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < 8; ++i) graph.addVertex(i);
+      graph.addEdge(0, 1);
+      graph.addEdge(1, 2);
+      graph.addEdge(2, 3);
+      graph.addEdge(3, 1);
+      graph.addEdge(0, 7);
+      graph.addEdge(0, 4);
+      graph.addEdge(4, 5);
+      graph.addEdge(5, 7);
+      graph.addEdge(5, 6);
+      graph.addEdge(5, 2);
+
+      ParallelConnectivity<Integer, DefaultEdge> connectivity = new ParallelConnectivity<Integer, DefaultEdge>(graph);
+      assertTrue(connectivity.isConnected());
+      assertEquals(1, connectivity.getComponents());
+   }
+
+   @Test
+   public void minimalTwoComponentGraph() throws Exception {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < 8; ++i) graph.addVertex(i);
+      // First Part
+      graph.addEdge(1, 2);
+      graph.addEdge(2, 3);
+      graph.addEdge(3, 1);
+
+      // Second Part
+      graph.addEdge(0, 7);
+      graph.addEdge(0, 4);
+      graph.addEdge(4, 5);
+      graph.addEdge(5, 7);
+      graph.addEdge(5, 6);
+
+      ParallelConnectivity<Integer, DefaultEdge> connectivity = new ParallelConnectivity<Integer, DefaultEdge>(graph);
+      assertFalse(connectivity.isConnected());
+      assertEquals(2, connectivity.getComponents());
+      assertEquals(1, connectivity.getComponent(0));
+      assertEquals(2, connectivity.getComponent(3));
+   }
+
+   @Test
+   public void randomSparseGraph() throws Exception {
+      Graph<Integer, DefaultEdge> graph = createRandomGraph(5000, 3000, new Random(11));
+
+      ParallelConnectivity<Integer, DefaultEdge> connectivity
+              = new ParallelConnectivity<Integer, DefaultEdge>(graph, new ForkJoinPool(4));
+      connectivity.setGrainSize(64);
+      Connectivity<Integer, DefaultEdge> expected = new Connectivity<Integer, DefaultEdge>(graph);
+      assertEquals(expected.getComponents(), connectivity.getComponents());
+      for (Integer vertex : graph.vertexSet()) {
+         assertEquals(expected.getComponent(vertex), connectivity.getComponent(vertex));
+      }
+   }
+
+   static Graph<Integer, DefaultEdge> createRandomGraph(int vertexCount, int edgeCount, Random random) {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < vertexCount; ++i) graph.addVertex(i);
+      for (int i = 0; i < edgeCount; ++i) {
+         int u = random.nextInt(vertexCount);
+         int v = random.nextInt(vertexCount);
+         if (u != v) graph.addEdge(u, v);
+      }
+      return graph;
+   }
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import cern.colt.function.IntIntDoubleFunction;
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.impl.DenseDoubleMatrix1D;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleGraph;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class RatioCutKernelGeneratorTest {
+
+   private static final double EPSILON = 1e-12;
+
+   @Test
+   public void kernelIsShiftedLaplacian() throws Exception {
+      Graph<Integer, DefaultEdge> graph = createGraph();
+      RatioCutKernelGenerator<Integer, DefaultEdge> generator = new RatioCutKernelGenerator<Integer, DefaultEdge>();
+      ShiftedLaplacianKernel kernel = generator.getKernel(graph);
+
+      // The maximum degree is 3, at vertex 2
+      assertEquals(4, kernel.getShift(), EPSILON);
+      int n = kernel.rows();
+      for (int i = 0; i < n; ++i) {
+         Integer u = generator.getVertex(i);
+         assertEquals(4 - graph.edgesOf(u).size(), kernel.getQuick(i, i), EPSILON);
+         for (int j = 0; j < n; ++j) {
+            if (i != j) {
+               Integer v = generator.getVertex(j);
+               assertEquals(graph.containsEdge(u, v) ? 1 : 0, kernel.getQuick(i, j), EPSILON);
+            }
+         }
+      }
+
+      // Every vertex and every edge in each direction is visited
+      final int[] visits = new int[1];
+      kernel.forEachNonZero(new IntIntDoubleFunction() {
+
+         @Override
+         public double apply(int i, int j, double value) {
+            ++visits[0];
+            return value;
+         }
+      });
+      assertEquals(n + 2 * graph.edgeSet().size(), visits[0]);
+   }
+
+   @Test
+   public void productsMatchEntries() throws Exception {
+      ShiftedLaplacianKernel kernel = new RatioCutKernelGenerator<Integer, DefaultEdge>().getKernel(createGraph());
+
+      int n = kernel.rows();
+      double[] x = {1, -2, 0.5, 3, -1};
+      DoubleMatrix1D z = new DenseDoubleMatrix1D(n).assign(1);
+      kernel.zMult(new DenseDoubleMatrix1D(x), z, 2, 3, false);
+      double[] y = kernel.getOperator().operate(new ArrayRealVector(x)).toArray();
+      for (int i = 0; i < n; ++i) {
+         double expected = 0;
+         for (int j = 0; j < n; ++j) {
+            expected += kernel.getQuick(i, j) * x[j];
+         }
+         assertEquals(expected, y[i], EPSILON);
+         assertEquals(2 * expected + 3, z.getQuick(i), EPSILON);
+      }
+   }
+
+   private static Graph<Integer, DefaultEdge> createGraph() {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < 5; ++i) graph.addVertex(i);
+      graph.addEdge(0, 1);
+      graph.addEdge(1, 2);
+      graph.addEdge(2, 0);
+      graph.addEdge(2, 3);
+      return graph;
+   }
+}
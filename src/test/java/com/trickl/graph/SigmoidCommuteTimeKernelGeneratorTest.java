@@ -0,0 +1,99 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph;
+
+import cern.colt.matrix.DoubleMatrix2D;
+import cern.jet.random.engine.MersenneTwister;
+import java.util.concurrent.ForkJoinPool;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleGraph;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class SigmoidCommuteTimeKernelGeneratorTest {
+
+   private static final double EPSILON = 1e-12;
+
+   @Test
+   public void lazyKernelMatchesDense() throws Exception {
+      Graph<Integer, DefaultEdge> graph = createGraph();
+
+      SigmoidCommuteTimeKernelGenerator<Integer, DefaultEdge> denseGenerator = createGenerator(null);
+      DoubleMatrix2D dense = denseGenerator.getKernel(graph);
+      SigmoidCommuteTimeKernelGenerator<Integer, DefaultEdge> lazyGenerator = createGenerator(null);
+      lazyGenerator.setLazy(true);
+      DoubleMatrix2D lazy = lazyGenerator.getKernel(graph);
+
+      assertTrue(lazy instanceof LazyKernelMatrix);
+      assertEquals(dense.rows(), lazy.rows());
+      for (int i = 0; i < dense.rows(); ++i) {
+         for (int j = 0; j < dense.columns(); ++j) {
+            assertEquals(dense.getQuick(i, j), lazy.getQuick(i, j), EPSILON);
+            assertEquals(lazy.getQuick(i, j), lazy.getQuick(j, i), EPSILON);
+            assertTrue(lazy.getQuick(i, j) > 0 && lazy.getQuick(i, j) < 1);
+         }
+      }
+   }
+
+   @Test
+   public void blockSizeDoesNotChangeKernel() throws Exception {
+      Graph<Integer, DefaultEdge> graph = createGraph();
+
+      DoubleMatrix2D kernel = createGenerator(null).getKernel(graph);
+      SigmoidCommuteTimeKernelGenerator<Integer, DefaultEdge> generator = createGenerator(new ForkJoinPool(4));
+      generator.setBlockSize(3);
+      DoubleMatrix2D blockedKernel = generator.getKernel(graph);
+
+      for (int i = 0; i < kernel.rows(); ++i) {
+         for (int j = 0; j < kernel.columns(); ++j) {
+            assertEquals(kernel.getQuick(i, j), blockedKernel.getQuick(i, j), EPSILON);
+         }
+      }
+   }
+
+   private static SigmoidCommuteTimeKernelGenerator<Integer, DefaultEdge> createGenerator(ForkJoinPool pool) {
+      SigmoidCommuteTimeKernelGenerator<Integer, DefaultEdge> generator = pool == null
+              ? new SigmoidCommuteTimeKernelGenerator<Integer, DefaultEdge>()
+              : new SigmoidCommuteTimeKernelGenerator<Integer, DefaultEdge>(pool);
+      generator.setEmbeddingDimension(50);
+      generator.setRandomEngine(new MersenneTwister(7));
+      return generator;
+   }
+
+   private static Graph<Integer, DefaultEdge> createGraph() {
+      Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < 10; ++i) graph.addVertex(i);
+      graph.addEdge(0, 1);
+      graph.addEdge(1, 2);
+      graph.addEdge(2, 0);
+      graph.addEdge(2, 3);
+      graph.addEdge(3, 4);
+      graph.addEdge(4, 5);
+      graph.addEdge(5, 3);
+      graph.addEdge(5, 6);
+      graph.addEdge(6, 7);
+      graph.addEdge(7, 8);
+      graph.addEdge(8, 9);
+      graph.addEdge(9, 6);
+      return graph;
+   }
+}
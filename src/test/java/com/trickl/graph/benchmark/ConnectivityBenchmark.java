@@ -0,0 +1,96 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.benchmark;
+
+import com.trickl.graph.Connectivity;
+import com.trickl.graph.ParallelConnectivity;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the depth first Connectivity with ParallelConnectivity on random
+ * sparse graphs. Run the main method from the test classpath.
+ * @author tgee
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConnectivityBenchmark {
+
+   @Param({"100000", "1000000"})
+   private int vertexCount;
+
+   // Average degree, below and above the giant component threshold
+   @Param({"1", "4"})
+   private int degree;
+
+   private Graph<Integer, DefaultEdge> graph;
+
+   @Setup
+   public void setUp() {
+      Random random = new Random(7);
+      graph = new SimpleGraph<Integer, DefaultEdge>(DefaultEdge.class);
+      for (int i = 0; i < vertexCount; ++i) graph.addVertex(i);
+      for (long i = 0; i < (long) vertexCount * degree / 2; ++i) {
+         int u = random.nextInt(vertexCount);
+         int v = random.nextInt(vertexCount);
+         if (u != v) graph.addEdge(u, v);
+      }
+   }
+
+   @Benchmark
+   public int depthFirst() {
+      return new Connectivity<Integer, DefaultEdge>(graph).getComponents();
+   }
+
+   @Benchmark
+   public int parallel() {
+      return new ParallelConnectivity<Integer, DefaultEdge>(graph).getComponents();
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      Options options = new OptionsBuilder()
+              .include(ConnectivityBenchmark.class.getSimpleName())
+              .build();
+      new Runner(options).run();
+   }
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.trickl.graph.edges.DirectedEdge;
+import com.trickl.graph.edges.IntegerEdgeFactory;
+import com.trickl.graph.planar.generate.PlanarCircleGraphGenerator;
+import com.trickl.graph.vertices.IntegerVertexFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author tgee
+ */
+public class CompactDoublyConnectedEdgeListTest {
+
+   public CompactDoublyConnectedEdgeListTest() {
+   }
+
+   @Test
+   public void testMatchesDoublyConnectedEdgeList() {
+      System.out.println("matchesDoublyConnectedEdgeList");
+      DoublyConnectedEdgeList<Integer, Integer, Object> expected
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      CompactDoublyConnectedEdgeList<Integer, Integer, Object> actual
+              = new CompactDoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+
+      new PlanarCircleGraphGenerator<Integer, Integer>(11).generateGraph(expected, new IntegerVertexFactory(), null);
+      new PlanarCircleGraphGenerator<Integer, Integer>(11).generateGraph(actual, new IntegerVertexFactory(), null);
+
+      assertEquivalent(expected, actual);
+   }
+
+   @Test
+   public void testRemoveEdges() {
+      System.out.println("removeEdges");
+      DoublyConnectedEdgeList<Integer, Integer, Object> expected
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      CompactDoublyConnectedEdgeList<Integer, Integer, Object> actual
+              = new CompactDoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+
+      new PlanarCircleGraphGenerator<Integer, Integer>(9).generateGraph(expected, new IntegerVertexFactory(), null);
+      new PlanarCircleGraphGenerator<Integer, Integer>(9).generateGraph(actual, new IntegerVertexFactory(), null);
+
+      expected.removeEdge(0, 3);
+      actual.removeEdge(0, 3);
+      expected.removeEdge(4, 5);
+      actual.removeEdge(4, 5);
+      assertEquivalent(expected, actual);
+
+      expected.removeVertex(0);
+      actual.removeVertex(0);
+      assertEquivalent(expected, actual);
+
+      // Re-adding edges must reuse the released slots consistently
+      expected.addEdge(1, 3);
+      actual.addEdge(1, 3);
+      expected.addEdge(4, 5, 3, null);
+      actual.addEdge(4, 5, 3, null);
+      assertEquivalent(expected, actual);
+   }
+
+   @Test
+   public void testRemoveAllVertices() {
+      System.out.println("removeAllVertices");
+      CompactDoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new CompactDoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(7).generateGraph(graph, new IntegerVertexFactory(), null);
+
+      assertTrue(graph.removeAllVertices(Arrays.asList(1, 2, 3)));
+      assertEquals(4, graph.vertexSet().size());
+      assertEquals(5, graph.edgeSet().size());
+      assertEquals(3, graph.faceSet().size());
+      assertTrue(graph.isVertexBoundary(0));
+   }
+
+   @Test
+   public void testNeighbourCursor() {
+      System.out.println("neighbourCursor");
+      DoublyConnectedEdgeList<Integer, Integer, Object> expected
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      CompactDoublyConnectedEdgeList<Integer, Integer, Object> actual
+              = new CompactDoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+
+      new PlanarCircleGraphGenerator<Integer, Integer>(7).generateGraph(expected, new IntegerVertexFactory(), null);
+      new PlanarCircleGraphGenerator<Integer, Integer>(7).generateGraph(actual, new IntegerVertexFactory(), null);
+
+      NeighbourCursor<Integer, Integer> expectedCursor = expected.neighbourCursor();
+      NeighbourCursor<Integer, Integer> actualCursor = actual.neighbourCursor();
+      for (Integer vertex : expected.vertexSet()) {
+         List<Integer> neighbours = new ArrayList<Integer>();
+         for (Integer neighbour : expected.neighboursOf(vertex)) {
+            neighbours.add(neighbour);
+         }
+         assertEquals(PlanarGraphs.getConnectedVertices(expected, vertex).size(), neighbours.size());
+
+         assertTrue(expectedCursor.reset(vertex));
+         assertTrue(actualCursor.reset(vertex));
+         for (Integer neighbour : neighbours) {
+            assertTrue(expectedCursor.advance());
+            assertTrue(actualCursor.advance());
+            assertEquals(neighbour, expectedCursor.getTarget());
+            assertEquals(neighbour, actualCursor.getTarget());
+            assertEquals(expectedCursor.getEdge(), actualCursor.getEdge());
+         }
+         assertFalse(expectedCursor.advance());
+         assertFalse(actualCursor.advance());
+      }
+      assertFalse(actualCursor.reset(99));
+   }
+
+   private static <V, E, F> void assertEquivalent(DoublyConnectedEdgeList<V, E, F> expected,
+           CompactDoublyConnectedEdgeList<V, E, F> actual) {
+      assertEquals(expected.vertexSet().toString(), actual.vertexSet().toString());
+      assertEquals(expected.edgeSet().size(), actual.edgeSet().size());
+      assertEquals(expected.faceSet().size(), actual.faceSet().size());
+      // Either structure may pick a different edge on the same boundary face
+      DirectedEdge<V> boundary = actual.getBoundary();
+      if (boundary.getTarget() != null) {
+         assertTrue(expected.isBoundary(boundary.getSource(), boundary.getTarget()));
+      }
+
+      for (V vertex : expected.vertexSet()) {
+         assertEquals(expected.degreeOf(vertex), actual.degreeOf(vertex));
+         assertEquals(expected.edgesOf(vertex).toString(), actual.edgesOf(vertex).toString());
+         assertEquals(expected.isVertexBoundary(vertex), actual.isVertexBoundary(vertex));
+      }
+
+      for (E edge : expected.edgeSet()) {
+         V source = expected.getEdgeSource(edge);
+         V target = expected.getEdgeTarget(edge);
+         assertEquals(expected.getNextVertex(source, target), actual.getNextVertex(source, target));
+         assertEquals(expected.getPrevVertex(source, target), actual.getPrevVertex(source, target));
+         assertEquals(expected.getNextVertex(target, source), actual.getNextVertex(target, source));
+         assertEquals(expected.isBoundary(source, target), actual.isBoundary(source, target));
+         assertEquals(expected.isBoundary(target, source), actual.isBoundary(target, source));
+      }
+   }
+}
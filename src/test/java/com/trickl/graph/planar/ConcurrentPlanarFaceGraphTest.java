@@ -0,0 +1,116 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.trickl.graph.edges.IntegerEdgeFactory;
+import com.trickl.graph.planar.generate.PlanarCircleGraphGenerator;
+import com.trickl.graph.vertices.IntegerVertexFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author tgee
+ */
+public class ConcurrentPlanarFaceGraphTest {
+
+   public ConcurrentPlanarFaceGraphTest() {
+   }
+
+   @Test
+   public void testReadersDuringWrites() throws Exception {
+      System.out.println("readersDuringWrites");
+      DoublyConnectedEdgeList<Integer, Integer, Object> dcel
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(41).generateGraph(dcel, new IntegerVertexFactory(), null);
+      final ConcurrentPlanarFaceGraph<Integer, Integer, Object> graph
+              = new ConcurrentPlanarFaceGraph<Integer, Integer, Object>(dcel);
+      final int faceCount = graph.faceSet().size();
+      final Integer next12 = graph.getNextVertex(1, 2);
+      final boolean boundary12 = graph.isBoundary(1, 2);
+
+      final AtomicBoolean writing = new AtomicBoolean(true);
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      List<Future<?>> readers = new ArrayList<Future<?>>();
+      for (int i = 0; i < 3; ++i) {
+         readers.add(executor.submit(() -> {
+            while (writing.get()) {
+               // The rim is never edited, so these answers are stable
+               assertEquals(next12, graph.getNextVertex(1, 2));
+               assertEquals(boundary12, graph.isBoundary(1, 2));
+               assertEquals(3, graph.degreeOf(35));
+               int faces = graph.faceSet().size();
+               assertTrue(faces == faceCount || faces == faceCount - 1);
+            }
+            return null;
+         }));
+      }
+
+      Future<?> writer = executor.submit(() -> {
+         try {
+            for (int i = 0; i < 2000; ++i) {
+               int spoke = 3 + (i % 30);
+               graph.removeEdge(0, spoke);
+               graph.addEdge(0, spoke, spoke + 1, null);
+            }
+         } finally {
+            writing.set(false);
+         }
+         return null;
+      });
+
+      writer.get(60, TimeUnit.SECONDS);
+      for (Future<?> reader : readers) {
+         reader.get(60, TimeUnit.SECONDS);
+      }
+      executor.shutdown();
+
+      assertEquals(faceCount, graph.faceSet().size());
+      assertEquals(40, graph.degreeOf(0));
+   }
+
+   @Test
+   public void testSnapshotUnaffectedByWrites() {
+      System.out.println("snapshotUnaffectedByWrites");
+      DoublyConnectedEdgeList<Integer, Integer, Object> dcel
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(7).generateGraph(dcel, new IntegerVertexFactory(), null);
+      final ConcurrentPlanarFaceGraph<Integer, Integer, Object> graph
+              = new ConcurrentPlanarFaceGraph<Integer, Integer, Object>(dcel);
+
+      FrozenPlanarFaceGraph<Integer, Integer, Object> before = graph.getSnapshot();
+      graph.modify(edits -> {
+         edits.removeEdge(0, 1);
+         edits.removeEdge(0, 2);
+      });
+
+      assertTrue(before.containsEdge(0, 1));
+      assertEquals(6, before.degreeOf(0));
+      assertFalse(graph.containsEdge(0, 1));
+      assertFalse(graph.containsEdge(0, 2));
+      assertEquals(4, graph.degreeOf(0));
+      assertEquals(before.faceSet().size() - 2, graph.faceSet().size());
+   }
+}
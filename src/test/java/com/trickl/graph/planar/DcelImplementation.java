@@ -0,0 +1,64 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.jgrapht.EdgeFactory;
+
+/**
+ * The doubly connected edge list implementations, so that planar tests can
+ * be run against each of them as JUnit parameters.
+ */
+public enum DcelImplementation {
+
+   LINKED {
+      @Override
+      public <V, E, F> PlanarFaceGraph<V, E, F> createGraph(EdgeFactory<V, E> edgeFactory,
+                                                            FaceFactory<V, F> faceFactory) {
+         return new DoublyConnectedEdgeList<V, E, F>(edgeFactory, faceFactory);
+      }
+   },
+   COMPACT {
+      @Override
+      public <V, E, F> PlanarFaceGraph<V, E, F> createGraph(EdgeFactory<V, E> edgeFactory,
+                                                            FaceFactory<V, F> faceFactory) {
+         return new CompactDoublyConnectedEdgeList<V, E, F>(edgeFactory, faceFactory);
+      }
+   };
+
+   public abstract <V, E, F> PlanarFaceGraph<V, E, F> createGraph(EdgeFactory<V, E> edgeFactory,
+                                                                  FaceFactory<V, F> faceFactory);
+
+   public <V, E, F> PlanarFaceGraph<V, E, F> createGraph(EdgeFactory<V, E> edgeFactory,
+                                                         Class<? extends F> faceClass) {
+      return createGraph(edgeFactory, new ClassBasedFaceFactory<V, F>(faceClass));
+   }
+
+   public static Collection<Object[]> parameters() {
+      List<Object[]> parameters = new ArrayList<Object[]>();
+      for (DcelImplementation implementation : values()) {
+         parameters.add(new Object[]{implementation});
+      }
+      return parameters;
+   }
+}
@@ -24,6 +24,9 @@ import com.trickl.graph.vertices.IdVertex;
 import com.trickl.graph.vertices.IdVertexFactory;
 import com.trickl.graph.edges.UndirectedIdEdge;
 import com.trickl.graph.edges.UndirectedIdEdgeFactory;
+import com.trickl.graph.edges.IntegerEdgeFactory;
+import com.trickl.graph.planar.generate.PlanarCircleGraphGenerator;
+import com.trickl.graph.vertices.IntegerVertexFactory;
 import com.trickl.graph.planar.DoublyConnectedEdgeList;
 import com.trickl.graph.planar.PlanarGraph;
 import org.junit.Test;
@@ -84,4 +87,59 @@ public class DcelVertexTest {
 
       assertEquals(9, graph.edgeSet().size());
    }
-}
\ No newline at end of file
+
+   /**
+    * Test edge lookups on a hub vertex, where half-edges are indexed
+    */
+   @Test
+   public void testGetHalfEdgeHighDegree() {
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(41).generateGraph(graph, new IntegerVertexFactory(), null);
+
+      DcelVertex<Integer, Integer, Object> hub = graph.getVertexMap().get(0);
+      for (int i = 1; i <= 40; ++i) {
+         assertEquals(Integer.valueOf(i), hub.getHalfEdge(i).getTwin().getOrigin().getVertex());
+      }
+      assertNull(hub.getHalfEdge(41));
+
+      graph.removeEdge(0, 20);
+      assertFalse(graph.containsEdge(0, 20));
+      assertFalse(graph.containsEdge(20, 0));
+      assertTrue(graph.containsEdge(0, 21));
+
+      graph.addEdge(0, 20, 21, null);
+      assertTrue(graph.containsEdge(0, 20));
+      assertEquals(Integer.valueOf(20), hub.getHalfEdge(20).getTwin().getOrigin().getVertex());
+      assertEquals(40, graph.degreeOf(0));
+   }
+
+   /**
+    * Test the cached degree and boundary flags follow edits to the graph
+    */
+   @Test
+   public void testDegreeAndBoundaryMaintained() {
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(7).generateGraph(graph, new IntegerVertexFactory(), null);
+
+      assertEquals(6, graph.degreeOf(0));
+      assertEquals(3, graph.degreeOf(1));
+      assertFalse(graph.isVertexBoundary(0));
+      assertTrue(graph.isVertexBoundary(1));
+
+      graph.removeEdge(1, 2);
+      assertEquals(2, graph.degreeOf(1));
+      assertEquals(2, graph.degreeOf(2));
+      assertTrue(graph.isVertexBoundary(0));
+
+      graph.setBoundary(0, 3);
+      assertTrue(graph.isVertexBoundary(0));
+      assertTrue(graph.isVertexBoundary(3));
+      assertFalse(graph.isVertexBoundary(6));
+
+      graph.removeVertex(0);
+      assertEquals(1, graph.degreeOf(1));
+      assertEquals(2, graph.degreeOf(4));
+   }
+}
@@ -0,0 +1,296 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.trickl.graph.EdgeIndex;
+import com.trickl.graph.GraphArgumentException;
+import com.trickl.graph.VertexIndex;
+import com.trickl.graph.edges.DirectedEdge;
+import com.trickl.graph.edges.IntegerEdgeFactory;
+import com.trickl.graph.planar.generate.PlanarCircleGraphGenerator;
+import com.trickl.graph.vertices.IntegerVertexFactory;
+import java.util.*;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author tgee
+ */
+public class DoublyConnectedEdgeListTest {
+
+   public DoublyConnectedEdgeListTest() {
+   }
+
+   @Test
+   public void testAddRotationSystem() {
+      System.out.println("addRotationSystem");
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(9).generateGraph(graph, new IntegerVertexFactory(), null);
+
+      Map<Integer, List<Integer>> rotations = new LinkedHashMap<Integer, List<Integer>>();
+      for (Integer vertex : graph.vertexSet()) {
+         List<Integer> neighbours = new ArrayList<Integer>();
+         for (Integer neighbour : graph.neighboursOf(vertex)) {
+            neighbours.add(neighbour);
+         }
+         rotations.put(vertex, neighbours);
+      }
+      DirectedEdge<Integer> boundary = graph.getBoundary();
+
+      DoublyConnectedEdgeList<Integer, Integer, Object> copy
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      copy.addRotationSystem(rotations, boundary.getSource(), boundary.getTarget());
+
+      assertEquals(graph.vertexSet().size(), copy.vertexSet().size());
+      assertEquals(graph.edgeSet().size(), copy.edgeSet().size());
+      assertEquals(graph.faceSet().size(), copy.faceSet().size());
+      for (Integer vertex : graph.vertexSet()) {
+         assertEquals(rotations.get(vertex).toString(), toList(copy.neighboursOf(vertex)).toString());
+         assertEquals(graph.degreeOf(vertex), copy.degreeOf(vertex));
+         assertEquals(graph.isVertexBoundary(vertex), copy.isVertexBoundary(vertex));
+         for (Integer neighbour : rotations.get(vertex)) {
+            assertEquals(graph.getNextVertex(vertex, neighbour), copy.getNextVertex(vertex, neighbour));
+            assertEquals(graph.isBoundary(vertex, neighbour), copy.isBoundary(vertex, neighbour));
+         }
+      }
+
+      // The copy must remain editable
+      copy.removeEdge(0, 4);
+      assertEquals(graph.faceSet().size() - 1, copy.faceSet().size());
+   }
+
+   @Test(expected = GraphArgumentException.class)
+   public void testAddRotationSystemAsymmetric() {
+      System.out.println("addRotationSystemAsymmetric");
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+
+      Map<Integer, List<Integer>> rotations = new LinkedHashMap<Integer, List<Integer>>();
+      rotations.put(0, Arrays.asList(1, 2));
+      rotations.put(1, Arrays.asList(2, 0));
+      rotations.put(2, Arrays.asList(0));
+      graph.addRotationSystem(rotations, 0, 1);
+   }
+
+   @Test
+   public void testAddRotationSystemRepeatedNeighbour() {
+      System.out.println("addRotationSystemRepeatedNeighbour");
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+
+      // A parallel edge between 0 and 1, listed symmetrically
+      Map<Integer, List<Integer>> rotations = new LinkedHashMap<Integer, List<Integer>>();
+      rotations.put(0, Arrays.asList(1, 2, 1));
+      rotations.put(1, Arrays.asList(0, 2, 0));
+      rotations.put(2, Arrays.asList(0, 1));
+      try {
+         graph.addRotationSystem(rotations, 0, 1);
+         fail("Repeated neighbour not rejected.");
+      } catch (GraphArgumentException ex) {
+         assertTrue(ex.getCause() instanceof IllegalArgumentException);
+      }
+   }
+
+   @Test
+   public void testRemoveAllBoundaryEdges() {
+      System.out.println("removeAllBoundaryEdges");
+      DoublyConnectedEdgeList<Integer, Integer, Object> batch
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      DoublyConnectedEdgeList<Integer, Integer, Object> sequential
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(7).generateGraph(batch, new IntegerVertexFactory(), null);
+      new PlanarCircleGraphGenerator<Integer, Integer>(7).generateGraph(sequential, new IntegerVertexFactory(), null);
+
+      // Every rim edge, so no surviving half-edge was on the boundary face
+      List<Integer> edges = new ArrayList<Integer>();
+      for (Integer edge : batch.edgeSet()) {
+         if (batch.isBoundary(batch.getEdgeSource(edge), batch.getEdgeTarget(edge))
+                 || batch.isBoundary(batch.getEdgeTarget(edge), batch.getEdgeSource(edge))) {
+            edges.add(edge);
+         }
+      }
+      Object boundaryFace = batch.getBoundaryFace();
+
+      assertTrue(batch.removeAllEdges(edges));
+      for (Integer edge : edges) {
+         assertTrue(sequential.removeEdge(edge));
+      }
+
+      assertEquals(sequential.edgeSet(), batch.edgeSet());
+      assertEquals(1, batch.faceSet().size());
+      assertSame(boundaryFace, batch.getBoundaryFace());
+      assertTrue(batch.faceSet().contains(boundaryFace));
+      DirectedEdge<Integer> boundary = batch.getBoundary();
+      assertNotNull(boundary);
+      assertTrue(batch.isBoundary(boundary.getSource(), boundary.getTarget()));
+      for (Integer edge : batch.edgeSet()) {
+         Integer source = batch.getEdgeSource(edge);
+         Integer target = batch.getEdgeTarget(edge);
+         assertTrue(batch.isBoundary(source, target));
+         assertTrue(batch.isBoundary(target, source));
+         assertEquals(sequential.getNextVertex(source, target), batch.getNextVertex(source, target));
+      }
+   }
+
+   @Test
+   public void testRemoveAllBoundaryVertices() {
+      System.out.println("removeAllBoundaryVertices");
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(19).generateGraph(graph, new IntegerVertexFactory(), null);
+      Object boundaryFace = graph.getBoundaryFace();
+
+      // As DelaunayGraphGenerator does to remove its bounds
+      List<Integer> boundaryVertices = PlanarGraphs.getBoundaryVertices(graph);
+      assertTrue(graph.removeAllVertices(boundaryVertices));
+      assertFalse(graph.edgeSet().isEmpty());
+
+      assertSame(boundaryFace, graph.getBoundaryFace());
+      assertTrue(graph.faceSet().contains(boundaryFace));
+      DirectedEdge<Integer> boundary = graph.getBoundary();
+      assertNotNull(boundary);
+      assertTrue(graph.isBoundary(boundary.getSource(), boundary.getTarget()));
+      assertFalse(graph.isBoundary(boundary.getTarget(), boundary.getSource()));
+      List<Integer> remainingBoundary = PlanarGraphs.getBoundaryVertices(graph);
+      assertFalse(remainingBoundary.isEmpty());
+      for (Integer vertex : remainingBoundary) {
+         assertFalse(boundaryVertices.contains(vertex));
+         assertTrue(graph.isVertexBoundary(vertex));
+      }
+   }
+
+   @Test
+   public void testRemoveAllEdgesMatchesSequentialRemoval() {
+      System.out.println("removeAllEdgesMatchesSequentialRemoval");
+      DoublyConnectedEdgeList<Integer, Integer, Object> batch
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      DoublyConnectedEdgeList<Integer, Integer, Object> sequential
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(13).generateGraph(batch, new IntegerVertexFactory(), null);
+      new PlanarCircleGraphGenerator<Integer, Integer>(13).generateGraph(sequential, new IntegerVertexFactory(), null);
+
+      // Spokes and a rim edge, merging several interior faces into the boundary
+      List<Integer> edges = new ArrayList<Integer>();
+      for (int i = 1; i <= 6; ++i) {
+         edges.add(batch.getEdge(0, i));
+      }
+      edges.add(batch.getEdge(3, 4));
+
+      assertTrue(batch.removeAllEdges(edges));
+      for (Integer edge : edges) {
+         assertTrue(sequential.removeEdge(edge));
+      }
+
+      assertEquals(sequential.vertexSet(), batch.vertexSet());
+      assertEquals(sequential.edgeSet(), batch.edgeSet());
+      assertEquals(sequential.faceSet().size(), batch.faceSet().size());
+      for (Integer vertex : sequential.vertexSet()) {
+         assertEquals(toList(sequential.neighboursOf(vertex)).toString(), toList(batch.neighboursOf(vertex)).toString());
+         assertEquals(sequential.degreeOf(vertex), batch.degreeOf(vertex));
+         assertEquals(sequential.isVertexBoundary(vertex), batch.isVertexBoundary(vertex));
+         for (Integer neighbour : sequential.neighboursOf(vertex)) {
+            assertEquals(sequential.isBoundary(vertex, neighbour), batch.isBoundary(vertex, neighbour));
+            assertEquals(sequential.getNextVertex(vertex, neighbour), batch.getNextVertex(vertex, neighbour));
+         }
+      }
+      DirectedEdge<Integer> boundary = batch.getBoundary();
+      assertTrue(batch.isBoundary(boundary.getSource(), boundary.getTarget()));
+   }
+
+   @Test
+   public void testRemoveAllVertices() {
+      System.out.println("removeAllVertices");
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(7).generateGraph(graph, new IntegerVertexFactory(), null);
+
+      assertTrue(graph.removeAllVertices(Arrays.asList(1, 2, 3)));
+      assertFalse(graph.removeAllVertices(Arrays.asList(1, 2, 3)));
+      assertEquals(4, graph.vertexSet().size());
+      assertEquals(5, graph.edgeSet().size());
+      assertEquals(3, graph.faceSet().size());
+      assertTrue(graph.isVertexBoundary(0));
+      assertEquals(3, graph.degreeOf(0));
+   }
+
+   @Test
+   public void testCanonicalEdges() {
+      System.out.println("canonicalEdges");
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      Integer edge = new Integer(1000);
+      assertTrue(graph.addEdge(0, 1, edge));
+      graph.addEdge(1, 2, 0, null);
+
+      try {
+         graph.addEdge(2, 0, new Integer(1000));
+         fail("Expected an existing edge to be rejected");
+      } catch (GraphArgumentException ex) {
+         assertTrue(ex.getCause() instanceof IllegalArgumentException);
+      }
+
+      assertSame(edge, graph.removeEdge(1, 0));
+      assertNull(graph.removeEdge(1, 0));
+      assertFalse(graph.containsEdge(edge));
+   }
+
+   @Test
+   public void testIndicesInvalidatedOnMutation() {
+      System.out.println("indicesInvalidatedOnMutation");
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(8).generateGraph(graph, new IntegerVertexFactory(), null);
+
+      VertexIndex<Integer> vertexIndex = graph.getVertexIndex();
+      EdgeIndex<Integer> edgeIndex = graph.getEdgeIndex();
+      assertSame(vertexIndex, graph.getVertexIndex());
+      assertSame(edgeIndex, graph.getEdgeIndex());
+      assertEquals(graph.vertexSet().size(), vertexIndex.getVertexCount());
+      assertEquals(graph.edgeSet().size(), edgeIndex.getEdgeCount());
+      int i = 0;
+      for (Integer vertex : graph.vertexSet()) {
+         assertEquals(i, vertexIndex.getIndex(vertex));
+         assertEquals(vertex, vertexIndex.getVertex(i++));
+      }
+      for (Integer edge : graph.edgeSet()) {
+         assertEquals(edge, edgeIndex.getEdge(edgeIndex.getIndex(edge)));
+      }
+      assertEquals(-1, vertexIndex.getIndex(99));
+
+      Integer removed = graph.removeEdge(0, 3);
+      assertNotSame(edgeIndex, graph.getEdgeIndex());
+      assertEquals(-1, graph.getEdgeIndex().getIndex(removed));
+
+      graph.addVertex(99);
+      assertNotSame(vertexIndex, graph.getVertexIndex());
+      assertEquals(graph.vertexSet().size() - 1, graph.getVertexIndex().getIndex(99));
+   }
+
+   private static <V> List<V> toList(Iterable<V> iterable) {
+      List<V> list = new ArrayList<V>();
+      for (V value : iterable) {
+         list.add(value);
+      }
+      return list;
+   }
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.trickl.graph.edges.DirectedEdge;
+import com.trickl.graph.edges.IntegerEdgeFactory;
+import com.trickl.graph.planar.generate.PlanarCircleGraphGenerator;
+import com.trickl.graph.vertices.IntegerVertexFactory;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author tgee
+ */
+public class FrozenPlanarFaceGraphTest {
+
+   public FrozenPlanarFaceGraphTest() {
+   }
+
+   @Test
+   public void testMatchesDoublyConnectedEdgeList() {
+      System.out.println("matchesDoublyConnectedEdgeList");
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(11).generateGraph(graph, new IntegerVertexFactory(), null);
+      FrozenPlanarFaceGraph<Integer, Integer, Object> frozen = graph.freeze();
+
+      assertEquals(graph.vertexSet().toString(), frozen.vertexSet().toString());
+      assertEquals(graph.edgeSet().toString(), frozen.edgeSet().toString());
+      assertEquals(graph.faceSet().size(), frozen.faceSet().size());
+      assertEquals(graph.getBoundary(), frozen.getBoundary());
+
+      for (Integer vertex : graph.vertexSet()) {
+         assertEquals(graph.degreeOf(vertex), frozen.degreeOf(vertex));
+         assertEquals(graph.edgesOf(vertex).toString(), frozen.edgesOf(vertex).toString());
+         assertEquals(graph.isVertexBoundary(vertex), frozen.isVertexBoundary(vertex));
+      }
+
+      for (Integer edge : graph.edgeSet()) {
+         Integer source = graph.getEdgeSource(edge);
+         Integer target = graph.getEdgeTarget(edge);
+         assertEquals(source, frozen.getEdgeSource(edge));
+         assertEquals(target, frozen.getEdgeTarget(edge));
+         assertEquals(edge, frozen.getEdge(source, target));
+         assertEquals(edge, frozen.getEdge(target, source));
+         assertEquals(graph.getNextVertex(source, target), frozen.getNextVertex(source, target));
+         assertEquals(graph.getPrevVertex(source, target), frozen.getPrevVertex(source, target));
+         assertEquals(graph.getNextVertex(target, source), frozen.getNextVertex(target, source));
+         assertEquals(graph.isBoundary(source, target), frozen.isBoundary(source, target));
+         assertEquals(graph.isBoundary(target, source), frozen.isBoundary(target, source));
+         assertSame(graph.getFace(source, target), frozen.getFace(source, target));
+      }
+      assertFalse(frozen.containsEdge(1, 5));
+      assertNull(frozen.getFace(1, 5));
+   }
+
+   @Test
+   public void testTraversalMatches() {
+      System.out.println("traversalMatches");
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(9).generateGraph(graph, new IntegerVertexFactory(), null);
+      FrozenPlanarFaceGraph<Integer, Integer, Object> frozen = graph.freeze();
+
+      assertEquals(traverseEdges(new BreadthFirstPlanarFaceTraversal<Integer, Integer>(graph)),
+              traverseEdges(new BreadthFirstPlanarFaceTraversal<Integer, Integer>(frozen)));
+      assertEquals(traverseEdges(new CanonicalPlanarFaceTraversal<Integer, Integer>(graph)),
+              traverseEdges(new CanonicalPlanarFaceTraversal<Integer, Integer>(frozen)));
+   }
+
+   @Test
+   public void testSnapshotIsIndependent() {
+      System.out.println("snapshotIsIndependent");
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(7).generateGraph(graph, new IntegerVertexFactory(), null);
+      FrozenPlanarFaceGraph<Integer, Integer, Object> frozen = graph.freeze();
+      int faceCount = frozen.faceSet().size();
+
+      graph.removeVertex(0);
+
+      assertTrue(frozen.containsVertex(0));
+      assertEquals(6, frozen.degreeOf(0));
+      assertEquals(faceCount, frozen.faceSet().size());
+      assertTrue(frozen.containsEdge(0, 3));
+   }
+
+   @Test(expected = UnsupportedOperationException.class)
+   public void testImmutable() {
+      System.out.println("immutable");
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(5).generateGraph(graph, new IntegerVertexFactory(), null);
+      graph.freeze().removeEdge(0, 1);
+   }
+
+   private static List<DirectedEdge<Integer>> traverseEdges(PlanarFaceTraversal<Integer, Integer> traversal) {
+      final List<DirectedEdge<Integer>> visitedEdges = new ArrayList<DirectedEdge<Integer>>();
+      traversal.traverse(new AbstractPlanarFaceTraversalVisitor<Integer, Integer>() {
+
+         @Override
+         public void nextEdge(Integer source, Integer target) {
+            visitedEdges.add(new DirectedEdge<Integer>(source, target));
+         }
+      });
+      return visitedEdges;
+   }
+}
@@ -25,13 +25,18 @@ import com.trickl.graph.edges.IntegerEdgeFactory;
 import com.trickl.graph.planar.generate.PlanarCircleGraphGenerator;
 import com.trickl.graph.vertices.IntegerVertexFactory;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import org.junit.AfterClass;
 import static org.junit.Assert.assertEquals;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
 
+@RunWith(Parameterized.class)
 public class PlanarFaceTraversalTest {
 
    private class HistoryVisitor<V, E> implements PlanarFaceTraversalVisitor<V, E> {
@@ -86,7 +91,15 @@ public class PlanarFaceTraversalTest {
       }
    }
 
-   public PlanarFaceTraversalTest() {
+   private final DcelImplementation implementation;
+
+   @Parameters
+   public static Collection<Object[]> implementations() {
+      return DcelImplementation.parameters();
+   }
+
+   public PlanarFaceTraversalTest(DcelImplementation implementation) {
+      this.implementation = implementation;
    }
 
    @BeforeClass
@@ -101,9 +114,7 @@ public class PlanarFaceTraversalTest {
    public void testBreadthFirstTraverse() {
       System.out.println("breadthFirstTraverse");
       PlanarGraph<Integer, Integer> graph
-              = new DoublyConnectedEdgeList<Integer,
-              Integer,
-              Object>(new IntegerEdgeFactory(), Object.class);
+              = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -125,7 +136,7 @@ public class PlanarFaceTraversalTest {
    public void testCanonicalTraverse() {
       System.out.println("canonicalTraverse");
       PlanarGraph<Integer, Integer> graph
-              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+              = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -53,22 +53,33 @@ import static org.hamcrest.CoreMatchers.is;
 import org.jgraph.JGraph;
 import static org.junit.Assert.*;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
 
 /**
  *
  * @author tgee
  */
+@RunWith(Parameterized.class)
 public class PlanarGraphsTest {
 
-   public PlanarGraphsTest() {
+   private final DcelImplementation implementation;
+
+   @Parameters
+   public static Collection<Object[]> implementations() {
+      return DcelImplementation.parameters();
    }
 
+   public PlanarGraphsTest(DcelImplementation implementation) {
+      this.implementation = implementation;
+   }
 
    @Test
    public void testAggregation() {
       System.out.println("aggregation");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
-      PlanarGraph<Integer, Integer> subgraph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> subgraph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -108,7 +119,7 @@ public class PlanarGraphsTest {
    @Test
    public void testBoundaryHops() {
       System.out.println("boundaryHops");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -128,7 +139,7 @@ public class PlanarGraphsTest {
    @Test
    public void testConnectedVertices() {
       System.out.println("connectedVertices");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -166,7 +177,7 @@ public class PlanarGraphsTest {
    @Test
    public void testVerticesOnFace() {
       System.out.println("verticesOnFace");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -205,8 +216,8 @@ public class PlanarGraphsTest {
    @Test
    public void testSubgraphDegreeTwo() {
       System.out.println("subgraph");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
-      PlanarGraph<Integer, Integer> subgraph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> subgraph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -236,8 +247,8 @@ public class PlanarGraphsTest {
    @Test
    public void testSubgraphDegreeHigherThanTwo() {
       System.out.println("subgraph");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
-      PlanarGraph<Integer, Integer> subgraph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> subgraph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -268,8 +279,8 @@ public class PlanarGraphsTest {
    @Test
    public void testDualGraph() {
       System.out.println("dualgraph");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
-      PlanarGraph<Integer, Integer> dualGraph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> dualGraph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -294,8 +305,8 @@ public class PlanarGraphsTest {
    @Test
    public void testDualGraphLarge() {
       System.out.println("dualgraphlarge");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<>(new IntegerEdgeFactory(), Object.class);
-      PlanarGraph<Integer, Integer> dualGraph = new DoublyConnectedEdgeList<>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> dualGraph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator generator =
@@ -310,7 +321,7 @@ public class PlanarGraphsTest {
    @Test
    public void testDelaunayVoronoiMedium() throws Exception {
       System.out.println("delaunayVoronoiMedium");
-      PlanarGraph<Integer, Integer> delaunayGraph = new DoublyConnectedEdgeList<>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> delaunayGraph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       PlanarCircleGraphGenerator<Integer, Integer> generator =
@@ -333,7 +344,7 @@ public class PlanarGraphsTest {
    @Test
    public void testDelaunayVoronoiTiny() throws Exception {
       System.out.println("delaunayVoronoiTiny");
-      PlanarGraph<Integer, Integer> delaunayGraph = new DoublyConnectedEdgeList<>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> delaunayGraph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       for (int i = 0; i < 5; ++i) {
@@ -367,7 +378,7 @@ public class PlanarGraphsTest {
    @Test
    public void testDelaunayVoronoiBoundaryConditions() throws Exception {
       System.out.println("delaunayVoronoiBoundaryConditions");
-      PlanarGraph<Integer, Integer> delaunayGraph = new DoublyConnectedEdgeList<>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> delaunayGraph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory  vertexFactory = new IntegerVertexFactory();
       for (int i = 0; i < 6; ++i) {         
@@ -433,8 +444,8 @@ public class PlanarGraphsTest {
 */    
    private <V, E> Map<V, Set<DirectedEdge<IdCoordinateVertex>>>
          runDelaunayVoronoi(PlanarGraph<V, E> delaunayGraph, PlanarLayout<V> delaunayLayout, final LinearRing boundary) throws Exception {
-      final DoublyConnectedEdgeList<IdCoordinateVertex, UndirectedIdEdge<IdCoordinateVertex>, IdFace> voronoiGraph
-               = new DoublyConnectedEdgeList<>(new UndirectedIdEdgeFactory<>(), new IdFaceFactory());
+      final PlanarFaceGraph<IdCoordinateVertex, UndirectedIdEdge<IdCoordinateVertex>, IdFace> voronoiGraph
+               = implementation.createGraph(new UndirectedIdEdgeFactory<IdCoordinateVertex>(), new IdFaceFactory<IdCoordinateVertex>());
 
        int coordinatePrecision = 5;
        IdCoordinateVertexFactory voronoiVertexFactory = new IdCoordinateVertexFactory(new MathContext(coordinatePrecision));
@@ -461,7 +472,7 @@ public class PlanarGraphsTest {
    @Test
    public void testRemoveEdgesWithinBoundary() {
       System.out.println("removeEdgesWithinBoundary");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       for (int i = 0; i < 5; ++i) {
@@ -495,7 +506,7 @@ public class PlanarGraphsTest {
    @Test
    public void testRemoveEdgesWithinBoundaryCaseTwo() {
       System.out.println("removeEdgesWithinBoundaryCaseTwo");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
       for (int i = 0; i < 8; ++i) {
@@ -530,7 +541,7 @@ public class PlanarGraphsTest {
    @Test
    public void testTriangulateFace() {
       System.out.println("triangulateFace");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
 
@@ -560,7 +571,7 @@ public class PlanarGraphsTest {
    @Test
    public void testTriangulateFaceCaseTwo() {
       System.out.println("triangulateFace");
-      PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<>(new IntegerEdgeFactory(), Object.class);
+      PlanarGraph<Integer, Integer> graph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
       IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
 
@@ -594,7 +605,7 @@ public class PlanarGraphsTest {
    @Test
    public void testInnermostVertices() {
        System.out.println("innermostVertices");
-       PlanarGraph<Integer, Integer> graph = new DoublyConnectedEdgeList<>(new IntegerEdgeFactory(), Object.class);
+       PlanarGraph<Integer, Integer> graph = implementation.<Integer, Integer, Object>createGraph(new IntegerEdgeFactory(), Object.class);
 
         IntegerVertexFactory vertexFactory = new IntegerVertexFactory();
         PlanarCircleGraphGenerator generator =
@@ -0,0 +1,146 @@
+/*
+ * This file is part of the Trickl Open Source Libraries.
+ *
+ * Trickl Open Source Libraries - http://open.trickl.com/
+ *
+ * Copyright (C) 2011 Tim Gee.
+ *
+ * Trickl Open Source Libraries are free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Trickl Open Source Libraries are distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this project.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.trickl.graph.planar;
+
+import com.trickl.graph.edges.IntegerEdgeFactory;
+import com.trickl.graph.planar.generate.PlanarCircleGraphGenerator;
+import com.trickl.graph.vertices.IntegerVertexFactory;
+import java.util.HashSet;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author tgee
+ */
+public class PlanarOverlayGraphTest {
+
+   public PlanarOverlayGraphTest() {
+   }
+
+   @Test
+   public void testMaximalPlanarMatchesDoublyConnectedEdgeList() {
+      System.out.println("maximalPlanarMatchesDoublyConnectedEdgeList");
+      DoublyConnectedEdgeList<Integer, Integer, Object> base = createGraph();
+      DoublyConnectedEdgeList<Integer, Integer, Object> expected = createGraph();
+      int baseEdgeCount = base.edgeSet().size();
+
+      PlanarOverlayGraph<Integer, Integer> overlay = new PlanarOverlayGraph<Integer, Integer>(base);
+      MaximalPlanar<Integer, Integer> maximalPlanar = new MaximalPlanar<Integer, Integer>();
+      maximalPlanar.makeMaximalPlanar(overlay);
+      maximalPlanar.makeMaximalPlanar(expected);
+
+      assertTrue(maximalPlanar.isMaximalPlanar(overlay));
+      assertEquals(expected.edgeSet().toString(), overlay.edgeSet().toString());
+      assertEquals(expected.getBoundary(), overlay.getBoundary());
+      for (Integer vertex : expected.vertexSet()) {
+         assertEquals(expected.edgesOf(vertex).toString(), overlay.edgesOf(vertex).toString());
+      }
+      for (Integer edge : expected.edgeSet()) {
+         Integer source = expected.getEdgeSource(edge);
+         Integer target = expected.getEdgeTarget(edge);
+         assertEquals(expected.getNextVertex(source, target), overlay.getNextVertex(source, target));
+         assertEquals(expected.getNextVertex(target, source), overlay.getNextVertex(target, source));
+         assertEquals(expected.getPrevVertex(source, target), overlay.getPrevVertex(source, target));
+         assertEquals(expected.isBoundary(source, target), overlay.isBoundary(source, target));
+         assertEquals(expected.isBoundary(target, source), overlay.isBoundary(target, source));
+      }
+
+      // Only the delta is held by the overlay
+      assertEquals(baseEdgeCount, base.edgeSet().size());
+      assertEquals(expected.edgeSet().size() - baseEdgeCount, overlay.getAddedEdges().size());
+      assertFalse(maximalPlanar.isMaximalPlanar(base));
+   }
+
+   @Test
+   public void testCanonicalOrderingOfOverlay() {
+      System.out.println("canonicalOrderingOfOverlay");
+      DoublyConnectedEdgeList<Integer, Integer, Object> base = createGraph();
+      PlanarOverlayGraph<Integer, Integer> overlay = new PlanarOverlayGraph<Integer, Integer>(base);
+      new MaximalPlanar<Integer, Integer>().makeMaximalPlanar(overlay);
+
+      List<Integer> order = new MaximalPlanarCanonicalOrdering<Integer, Integer>().getOrder(overlay,
+              overlay.getBoundary().getSource());
+      assertEquals(base.vertexSet().size(), order.size());
+      assertEquals(base.vertexSet(), new HashSet<Integer>(order));
+
+      ChrobakPayneLayout<Integer, Integer> layout = new ChrobakPayneLayout<Integer, Integer>(base, 1.0, true);
+      for (Integer vertex : base.vertexSet()) {
+         assertNotNull(layout.getCoordinate(vertex));
+      }
+      assertFalse(new MaximalPlanar<Integer, Integer>().isMaximalPlanar(base));
+   }
+
+   @Test
+   public void testRemoveAndRestoreEdge() {
+      System.out.println("removeAndRestoreEdge");
+      DoublyConnectedEdgeList<Integer, Integer, Object> base
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(9).generateGraph(base, new IntegerVertexFactory(), null);
+      PlanarOverlayGraph<Integer, Integer> overlay = new PlanarOverlayGraph<Integer, Integer>(base);
+
+      Integer removed = overlay.removeEdge(0, 3);
+      assertNotNull(removed);
+      assertFalse(overlay.containsEdge(0, 3));
+      assertFalse(overlay.containsEdge(removed));
+      assertTrue(base.containsEdge(0, 3));
+      assertTrue(overlay.getRemovedEdges().contains(removed));
+      assertEquals(base.edgeSet().size() - 1, overlay.edgeSet().size());
+      assertEquals(Integer.valueOf(2), overlay.getNextVertex(4, 0));
+
+      overlay.addEdge(0, 3, 4, null);
+      assertTrue(overlay.containsEdge(0, 3));
+      assertEquals(base.getNextVertex(0, 3), overlay.getNextVertex(0, 3));
+      assertEquals(base.getNextVertex(3, 0), overlay.getNextVertex(3, 0));
+      assertEquals(base.isBoundary(0, 3), overlay.isBoundary(0, 3));
+      assertEquals(base.isBoundary(3, 0), overlay.isBoundary(3, 0));
+      assertEquals(base.edgeSet().size(), overlay.edgeSet().size());
+   }
+
+   @Test
+   public void testRemoveVertex() {
+      System.out.println("removeVertex");
+      DoublyConnectedEdgeList<Integer, Integer, Object> base
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(7).generateGraph(base, new IntegerVertexFactory(), null);
+      PlanarOverlayGraph<Integer, Integer> overlay = new PlanarOverlayGraph<Integer, Integer>(base);
+
+      assertTrue(overlay.removeVertex(0));
+      assertFalse(overlay.containsVertex(0));
+      assertTrue(base.containsVertex(0));
+      assertEquals(6, overlay.vertexSet().size());
+      assertEquals(6, overlay.edgeSet().size());
+      assertEquals(2, overlay.edgesOf(1).size());
+      assertEquals(7, base.vertexSet().size());
+   }
+
+   private static DoublyConnectedEdgeList<Integer, Integer, Object> createGraph() {
+      DoublyConnectedEdgeList<Integer, Integer, Object> graph
+              = new DoublyConnectedEdgeList<Integer, Integer, Object>(new IntegerEdgeFactory(), Object.class);
+      new PlanarCircleGraphGenerator<Integer, Integer>(9).generateGraph(graph, new IntegerVertexFactory(), null);
+
+      // Leave some quadrilateral faces to triangulate
+      graph.removeEdge(0, 3);
+      graph.removeEdge(0, 6);
+      return graph;
+   }
+}